@@ -0,0 +1,128 @@
+package selfservicecafe_p.benchmarks;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class runs a process lifecycle on its own thread of a ProcessBackend as a coroutine:
+ * the scheduler calls resume(), the lifecycle runs until it calls suspend() (like passivate or hold
+ * of a SimProcess), and the scheduler continues. Exactly one of the two runs at any time, the other
+ * one is parked; this is the hand-off DESMO-J does between its scheduler and the thread of a SimProcess.
+ * A coroutine that is no longer needed (e.g. a customer still waiting when the experiment ends)
+ * is killed: its suspend() throws and the thread ends.
+ */
+final class Coroutine {
+
+    /**
+     * The lifecycle run by a coroutine.
+     */
+    public interface Body {
+
+        /**
+         * runs the lifecycle
+         * @param self  the coroutine, to suspend itself
+         */
+        void run(Coroutine self);
+    }
+
+    // thrown by suspend() of a killed coroutine, ends its lifecycle
+    private static final class Killed extends Error {
+        private static final long serialVersionUID = 1L;
+
+        private Killed() {
+            super(null, null, false, false);
+        }
+    }
+
+    private final Thread thread;
+
+    // the thread that resumed this coroutine and waits for it
+    private Thread caller;
+
+    // true while the lifecycle runs, false while the caller runs
+    private volatile boolean turn;
+
+    private boolean started;
+    private volatile boolean done;
+    private boolean killed;
+    private Throwable failure;
+
+    /**
+     * Constructor of the Coroutine, the lifecycle starts with the first resume()
+     * @param backend   the kind of thread to run on
+     * @param name      the name of the thread
+     * @param body      the lifecycle
+     */
+    public Coroutine(ProcessBackend backend, String name, Body body) {
+        thread = backend.newThread(name, () -> {
+            try {
+                body.run(this);
+            } catch (Killed k) {
+                // killed while suspended
+            } catch (Throwable t) {
+                failure = t;
+            }
+            done = true;
+            turn = false;
+            LockSupport.unpark(caller);
+        });
+    }
+
+    /**
+     * runs the lifecycle until it suspends itself or ends, called by the scheduler
+     */
+    public void resume() {
+        if (done) {
+            throw new IllegalStateException("Error: " + thread.getName() + " has already ended.");
+        }
+        caller = Thread.currentThread();
+        turn = true;
+        if (started) {
+            LockSupport.unpark(thread);
+        } else {
+            started = true;
+            thread.start();
+        }
+        while (turn) {
+            LockSupport.park(this);
+        }
+
+        if (failure != null) {
+            Throwable t = failure;
+            failure = null;
+            throw new IllegalStateException("Error: the lifecycle of " + thread.getName() + " failed.", t);
+        }
+    }
+
+    /**
+     * hands control back to the scheduler and waits for the next resume(), called by the lifecycle
+     */
+    public void suspend() {
+        turn = false;
+        LockSupport.unpark(caller);
+        while (!turn) {
+            LockSupport.park(this);
+        }
+        if (killed) {
+            throw new Killed();
+        }
+    }
+
+    /**
+     * ends a suspended lifecycle and waits until its thread has finished, called by the scheduler
+     */
+    public void kill() {
+        if (done) {
+            return;
+        }
+        if (!started) {
+            done = true;
+            return;
+        }
+        killed = true;
+        resume();
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+}
@@ -0,0 +1,77 @@
+package selfservicecafe_p.benchmarks;
+
+import desmoj.core.simulator.Experiment;
+import desmoj.core.simulator.ProcessQueue;
+import org.openjdk.jmh.annotations.*;
+import selfservicecafe_p.CustomerProcess;
+import selfservicecafe_p.CustomerQueue;
+import selfservicecafe_p.Scenario;
+import selfservicecafe_p.SelfServiceModel;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares DESMO-J's ProcessQueue with the CustomerQueue of the stations at a depth of tens of thousands
+ * of waiting customers, as in a long lunch hour rush. The queue is filled with DEPTH customers, then one
+ * operation inserts a customer at the end and removes the first one, like a station whose customers
+ * arrive as fast as they are served. The trace is off, as in production runs.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class CustomerQueueBenchmark {
+
+    public enum Implementation {
+        PROCESS_QUEUE, CUSTOMER_QUEUE
+    }
+
+    @Param({"PROCESS_QUEUE", "CUSTOMER_QUEUE"})
+    public Implementation queue;
+
+    @Param({"10000", "50000"})
+    public int depth;
+
+    private Experiment exp;
+    private ProcessQueue<CustomerProcess> processQueue;
+    private CustomerQueue<CustomerProcess> customerQueue;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Scenario scenario = Scenario.defaults();
+        SelfServiceModel model = new SelfServiceModel(null, "CustomerQueueModel", false, false, scenario, scenario.getSeed());
+        exp = Experiments.create(model, scenario.getStopTime());
+
+        processQueue = new ProcessQueue<>(model, "ProcessQueue", false, false);
+        customerQueue = new CustomerQueue<>(model, "CustomerQueue", false, false);
+        for (int i = 0; i < depth; i++) {
+            CustomerProcess customer = new CustomerProcess(model, "Customer", false);
+            if (queue == Implementation.PROCESS_QUEUE) {
+                processQueue.insert(customer);
+            } else {
+                customerQueue.insert(customer);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        exp.finish();
+    }
+
+    @Benchmark
+    public CustomerProcess insertAndRemove() {
+        if (queue == Implementation.PROCESS_QUEUE) {
+            CustomerProcess customer = processQueue.first();
+            processQueue.remove(customer);
+            processQueue.insert(customer);
+            return customer;
+        }
+        CustomerProcess customer = customerQueue.first();
+        customerQueue.remove(customer);
+        customerQueue.insert(customer);
+        return customer;
+    }
+}
@@ -0,0 +1,73 @@
+package selfservicecafe_p.benchmarks;
+
+import desmoj.core.dist.ContDist;
+import desmoj.core.simulator.Experiment;
+import org.openjdk.jmh.annotations.*;
+import selfservicecafe_p.CustomerDemands;
+import selfservicecafe_p.Scenario;
+import selfservicecafe_p.SelfServiceModel;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures sampling from the distributions of SelfServiceModel through its getters,
+ * with the default (uniform) distributions of the scenario. One operation is one sample,
+ * for customerDemands all the samples one arriving customer draws.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class DistributionBenchmark {
+
+    private SelfServiceModel model;
+    private ContDist serviceTime;
+    private Experiment exp;
+    private final CustomerDemands demands = new CustomerDemands();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Scenario scenario = Scenario.defaults();
+        model = new SelfServiceModel(null, "DistributionModel", false, false, scenario, scenario.getSeed());
+        exp = Experiments.create(model, scenario.getStopTime());
+        serviceTime = model.getStation(SelfServiceModel.SANDWICH_BAR).getServiceTimeDistribution();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        exp.finish();
+    }
+
+    @Benchmark
+    public double customerArrivalTime() {
+        return model.getCustomerArrivalTime();
+    }
+
+    @Benchmark
+    public double restingTimeMainDish() {
+        return model.getRestingTimeMainDish();
+    }
+
+    @Benchmark
+    public double restingTimeDessert() {
+        return model.getRestingTimeDessert();
+    }
+
+    @Benchmark
+    public double serviceTime() {
+        return serviceTime.sample();
+    }
+
+    @Benchmark
+    public boolean sandwichBarChoice() {
+        return model.getSandwichBarChoice();
+    }
+
+    @Benchmark
+    public CustomerDemands customerDemands() {
+        model.drawDemands(demands);
+        return demands;
+    }
+}
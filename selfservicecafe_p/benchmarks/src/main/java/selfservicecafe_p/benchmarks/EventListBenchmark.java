@@ -0,0 +1,76 @@
+package selfservicecafe_p.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import selfservicecafe_p.EventListKind;
+import selfservicecafe_p.PendingEventList;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the pending event lists with the classic hold model: the list is filled with PENDING events,
+ * then one operation removes the next event and inserts a new one at its time plus an increment, so the
+ * number of pending events stays the same. The increments are those of the cafeteria: every fourth is a
+ * meal (600 to 1800 s), the others are services (10 to 60 s). TREE is the structure of DESMO-J's default
+ * event list, CALENDAR and LADDER should not slow down from 100 to 1000000 pending events.
+ *
+ * Two other kinds of increments test the cases the bucket widths of CALENDAR and LADDER are estimated
+ * badly for: TIED, whole minutes, so many events share their time, and SKEWED, the tenth power of a
+ * uniform number of hours, so most events are due almost at once and a few far ahead.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class EventListBenchmark {
+
+    // number of precomputed increments, a power of two
+    private static final int INCREMENTS = 1 << 16;
+
+    @Param({"TREE", "CALENDAR", "LADDER"})
+    public EventListKind kind;
+
+    @Param({"100", "10000", "1000000"})
+    public int pending;
+
+    @Param({"CAFETERIA", "TIED", "SKEWED"})
+    public String times;
+
+    private PendingEventList<Object> events;
+    private double[] increments;
+    private int next;
+
+    private static final Object EVENT = new Object();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        increments = new double[INCREMENTS];
+        for (int i = 0; i < INCREMENTS; i++) {
+            switch (times) {
+                case "TIED":
+                    increments[i] = 60.0 * random.nextInt(1, 4);
+                    break;
+                case "SKEWED":
+                    increments[i] = 3600.0 * Math.pow(random.nextDouble(), 10);
+                    break;
+                default:
+                    increments[i] = i % 4 == 0 ? random.nextDouble(600, 1800) : random.nextDouble(10, 60);
+            }
+        }
+        events = kind.create();
+        for (int i = 0; i < pending; i++) {
+            events.insert(increments[i & (INCREMENTS - 1)] * random.nextDouble(), EVENT);
+        }
+    }
+
+    @Benchmark
+    public Object hold() {
+        double now = events.firstTime();
+        Object event = events.removeFirst();
+        events.insert(now + increments[next++ & (INCREMENTS - 1)], event);
+        return event;
+    }
+}
@@ -0,0 +1,28 @@
+package selfservicecafe_p.benchmarks;
+
+import desmoj.core.simulator.Experiment;
+import desmoj.core.simulator.Model;
+import desmoj.core.simulator.TimeInstant;
+
+/**
+ * Creates the experiments of the benchmarks: no report or trace files, no progress bar.
+ */
+final class Experiments {
+
+    private Experiments() {
+    }
+
+    /**
+     * connects a model to a new experiment without output
+     * @param model     the model, its init() is called by the experiment
+     * @param stopTime  the end of the simulation in seconds
+     * @return the experiment, ready to start
+     */
+    static Experiment create(Model model, double stopTime) {
+        Experiment exp = new Experiment(model.getName() + "Benchmark", false);
+        exp.setShowProgressBar(false);
+        model.connectToExperiment(exp);
+        exp.stop(new TimeInstant(stopTime));
+        return exp;
+    }
+}
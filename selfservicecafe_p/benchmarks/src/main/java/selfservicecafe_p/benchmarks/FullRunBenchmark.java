@@ -0,0 +1,90 @@
+package selfservicecafe_p.benchmarks;
+
+import desmoj.core.simulator.Experiment;
+import desmoj.core.simulator.Model;
+import desmoj.core.simulator.TimeInstant;
+import org.openjdk.jmh.annotations.*;
+import selfservicecafe_p.CafeteriaModel;
+import selfservicecafe_p.ModelVariant;
+import selfservicecafe_p.RunMode;
+import selfservicecafe_p.Scenario;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a full run of the cafeteria with the default scenario (4 hours of simulated time).
+ * Besides the runs per second it reports the events and the served customers per second,
+ * which can be compared between the variants and between versions of the model.
+ * DEBUG is the default mode of SelfServiceModel.main (trace and debug output in the trace window
+ * of the scenario), PRODUCTION runs without any trace. The trace file is written to a temporary directory.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class FullRunBenchmark {
+
+    @Param({"PROCESS", "PROCESS_IDLE_QUEUE", "EVENT", "HYBRID"})
+    public ModelVariant variant;
+
+    @Param({"DEBUG", "PRODUCTION"})
+    public RunMode mode;
+
+    private Path outputDirectory;
+
+    private CafeteriaModel model;
+    private Experiment exp;
+
+    /**
+     * Events and customers of the measured runs, reported by JMH as rates.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long events;
+        public long customers;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            events = 0;
+            customers = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void createOutputDirectory() throws IOException {
+        outputDirectory = Files.createTempDirectory("full-run-benchmark");
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        Scenario scenario = Scenario.defaults();
+        Model cafeteria = variant.create("Self Service Cafe Model", false, mode.isTraced(), scenario, scenario.getSeed());
+        model = (CafeteriaModel) cafeteria;
+
+        exp = new Experiment("FullRunBenchmark", outputDirectory.toString());
+        cafeteria.connectToExperiment(exp);
+        mode.configure(exp, scenario);
+        // the progress bar is a window of its own, it is left out in both modes
+        exp.setShowProgressBar(false);
+        exp.stop(new TimeInstant(scenario.getStopTime()));
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        exp.finish();
+    }
+
+    @Benchmark
+    public void run(Counters counters) {
+        exp.start();
+
+        counters.events += model.getEventCount();
+        counters.customers += model.getCustomersServed();
+    }
+}
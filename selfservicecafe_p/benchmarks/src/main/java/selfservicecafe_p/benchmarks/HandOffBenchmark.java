@@ -0,0 +1,134 @@
+package selfservicecafe_p.benchmarks;
+
+import co.paralleluniverse.fibers.SuspendExecution;
+import desmoj.core.simulator.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the hand-off between customers and servers in isolation, the way a Station does it:
+ * the customer inserts itself into a ProcessQueue, takes an idle server with first/remove and
+ * activates it with activateAfter, the server removes the customer again and reactivates it.
+ * No time passes and no distribution is sampled, so only the queues and the scheduler are measured.
+ * One operation is one hand-off.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class HandOffBenchmark {
+
+    private static final int CUSTOMERS = 10;
+    private static final int HAND_OFFS_PER_CUSTOMER = 1000;
+
+    private Experiment exp;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        // no time passes, the run ends when all customers are done
+        exp = Experiments.create(new HandOffModel(CUSTOMERS, HAND_OFFS_PER_CUSTOMER), 1.0);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        exp.finish();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CUSTOMERS * HAND_OFFS_PER_CUSTOMER)
+    public void handOff() {
+        exp.start();
+    }
+
+    /**
+     * A model with one queue of customers, one queue of idle servers and a single server.
+     * Every customer enters the queue a fixed number of times, the simulation ends when all are done.
+     */
+    static class HandOffModel extends Model {
+
+        private final int customers;
+        private final int handOffsPerCustomer;
+
+        private ProcessQueue<Customer> customerQueue;
+        private ProcessQueue<Server> idleServerQueue;
+
+        HandOffModel(int customers, int handOffsPerCustomer) {
+            super(null, "HandOffModel", false, false);
+            this.customers = customers;
+            this.handOffsPerCustomer = handOffsPerCustomer;
+        }
+
+        @Override
+        public String description() {
+            return "Hand-off between customers and servers without service times.";
+        }
+
+        @Override
+        public void init() {
+            customerQueue = new ProcessQueue<>(this, "CustomerQueue", false, false);
+            idleServerQueue = new ProcessQueue<>(this, "idleServerQueue", false, false);
+        }
+
+        @Override
+        public void doInitialSchedules() {
+            new Server(this).activate();
+            for (int i = 0; i < customers; i++) {
+                new Customer(this).activate();
+            }
+        }
+    }
+
+    static class Customer extends SimProcess {
+
+        private final HandOffModel myModel;
+
+        Customer(HandOffModel owner) {
+            super(owner, "Customer", false);
+            myModel = owner;
+        }
+
+        @Override
+        public void lifeCycle() throws SuspendExecution {
+            for (int i = 0; i < myModel.handOffsPerCustomer; i++) {
+                myModel.customerQueue.insert(this);
+
+                if (!myModel.idleServerQueue.isEmpty()) {
+                    Server server = myModel.idleServerQueue.first();
+                    myModel.idleServerQueue.remove(server);
+
+                    server.activateAfter(this);
+                }
+                passivate();
+            }
+        }
+    }
+
+    static class Server extends SimProcess {
+
+        private final HandOffModel myModel;
+
+        Server(HandOffModel owner) {
+            super(owner, "Server", false);
+            myModel = owner;
+        }
+
+        @Override
+        public void lifeCycle() throws SuspendExecution {
+            while (true) {
+                if (myModel.customerQueue.isEmpty()) {
+                    myModel.idleServerQueue.insert(this);
+
+                    passivate();
+                } else {
+                    Customer customer = myModel.customerQueue.first();
+                    myModel.customerQueue.remove(customer);
+
+                    customer.activate(new TimeSpan(0.0));
+                }
+            }
+        }
+    }
+}
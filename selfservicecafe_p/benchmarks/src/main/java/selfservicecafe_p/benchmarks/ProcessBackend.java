@@ -0,0 +1,103 @@
+package selfservicecafe_p.benchmarks;
+
+import java.lang.reflect.Method;
+
+/**
+ * The kinds of threads a Coroutine can run on. Only the benchmarks use them: DESMO-J creates the
+ * threads of the model's SimProcesses itself.
+ *
+ * Virtual threads need JDK 21. The project is compiled for Java 11, so they are created by reflection;
+ * on an older JDK VIRTUAL_THREAD fails with an UnsupportedOperationException. ProcessBackendBenchmark
+ * limits the virtual thread scheduler of its JVM to one carrier thread with
+ * -Djdk.virtualThreadScheduler.parallelism=1: only one coroutine runs at a time, so every hand-off stays
+ * on the same carrier and is a continuation switch instead of a wake-up of another OS thread.
+ */
+enum ProcessBackend {
+
+    // one OS thread per coroutine, like DESMO-J's SimProcess without the Quasar agent
+    PLATFORM_THREAD {
+        @Override
+        public Thread newThread(String name, Runnable body) {
+            Thread thread = new Thread(body, name);
+            thread.setDaemon(true);
+            return thread;
+        }
+    },
+
+    // one virtual thread per coroutine, on the carrier threads of the virtual thread scheduler
+    VIRTUAL_THREAD {
+        @Override
+        public Thread newThread(String name, Runnable body) {
+            Thread thread = VirtualThreads.unstarted(body);
+            thread.setName(name);
+            return thread;
+        }
+    };
+
+    /**
+     * creates a new thread of this backend, it is not started yet
+     * @param name  the name of the thread
+     * @param body  what the thread runs
+     * @return the new thread
+     */
+    public abstract Thread newThread(String name, Runnable body);
+
+    /**
+     * runs a task on a new thread of this backend and waits until it is done. Coroutines resumed by
+     * this task hand off on the same kind of thread, with VIRTUAL_THREAD on the same carrier.
+     * @param name  the name of the thread
+     * @param task  the task
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void run(String name, Runnable task) throws InterruptedException {
+        Throwable[] failure = new Throwable[1];
+        Thread thread = newThread(name, () -> {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                failure[0] = t;
+            }
+        });
+        thread.start();
+        thread.join();
+        if (failure[0] instanceof RuntimeException) {
+            throw (RuntimeException) failure[0];
+        } else if (failure[0] instanceof Error) {
+            throw (Error) failure[0];
+        }
+    }
+
+    /**
+     * Thread.ofVirtual().unstarted(body) of JDK 21, looked up once.
+     */
+    private static final class VirtualThreads {
+
+        private static final Object BUILDER;
+        private static final Method UNSTARTED;
+
+        static {
+            Object builder = null;
+            Method unstarted = null;
+            try {
+                builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                unstarted = Class.forName("java.lang.Thread$Builder").getMethod("unstarted", Runnable.class);
+            } catch (ReflectiveOperationException e) {
+                // not JDK 21, unstarted() reports it
+            }
+            BUILDER = builder;
+            UNSTARTED = unstarted;
+        }
+
+        private static Thread unstarted(Runnable body) {
+            if (UNSTARTED == null) {
+                throw new UnsupportedOperationException("Error: virtual threads need JDK 21, this is "
+                        + System.getProperty("java.version") + ".");
+            }
+            try {
+                return (Thread) UNSTARTED.invoke(BUILDER, body);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Error: cannot create a virtual thread.", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package selfservicecafe_p.benchmarks;
+
+import co.paralleluniverse.fibers.SuspendExecution;
+import desmoj.core.simulator.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the ways a process lifecycle can be run: Coroutines on platform threads, Coroutines on
+ * virtual threads (JDK 21, one carrier) and DESMO-J's own SimProcess, which runs on platform threads
+ * or, when the Quasar agent or build-time instrumentation is active, on fibers
+ * (e.g. "ProcessBackendBenchmark -p backend=DESMOJ_PROCESS -jvmArgsAppend -javaagent:quasar-core.jar").
+ *
+ * startup: a lunch hour of PROCESSES customers alive at once, each one started and suspended, then all ended.
+ *          The GC profiler's gc.alloc.rate.norm is the heap per process; virtual thread stacks are on the
+ *          heap, platform thread stacks are native memory (reserved by -Xss) and are not in this figure.
+ * handOff: RING processes take turns, one operation is one suspend and resume (passivate/hold and reactivation).
+ *
+ * The forks run the virtual threads on one carrier thread, like DESMO-J runs one process at a time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsPrepend = "-Djdk.virtualThreadScheduler.parallelism=1")
+@State(Scope.Thread)
+public class ProcessBackendBenchmark {
+
+    public enum Backend {
+        PLATFORM_THREAD, VIRTUAL_THREAD, DESMOJ_PROCESS
+    }
+
+    private static final int PROCESSES = 500;
+    private static final int RING = 10;
+    private static final int HAND_OFFS = 20000;
+
+    @Param({"PLATFORM_THREAD", "VIRTUAL_THREAD", "DESMOJ_PROCESS"})
+    public Backend backend;
+
+    @Benchmark
+    @OperationsPerInvocation(PROCESSES)
+    public void startup() throws InterruptedException {
+        if (backend == Backend.DESMOJ_PROCESS) {
+            Experiment exp = Experiments.create(new StartupModel(PROCESSES), 1.0);
+            exp.start();
+            exp.finish();
+            return;
+        }
+
+        ProcessBackend threads = ProcessBackend.valueOf(backend.name());
+        threads.run("startup", () -> {
+            Coroutine[] coroutines = new Coroutine[PROCESSES];
+            for (int i = 0; i < PROCESSES; i++) {
+                coroutines[i] = new Coroutine(threads, "Customer", Coroutine::suspend);
+                coroutines[i].resume();
+            }
+            for (Coroutine coroutine : coroutines) {
+                coroutine.kill();
+            }
+        });
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(HAND_OFFS)
+    public void handOff() throws InterruptedException {
+        if (backend == Backend.DESMOJ_PROCESS) {
+            Experiment exp = Experiments.create(new RingModel(RING, HAND_OFFS / RING), HAND_OFFS);
+            exp.start();
+            exp.finish();
+            return;
+        }
+
+        ProcessBackend threads = ProcessBackend.valueOf(backend.name());
+        threads.run("handOff", () -> {
+            Coroutine[] ring = new Coroutine[RING];
+            for (int i = 0; i < RING; i++) {
+                ring[i] = new Coroutine(threads, "Customer", self -> {
+                    while (true) {
+                        self.suspend();
+                    }
+                });
+            }
+            for (int i = 0; i < HAND_OFFS; i++) {
+                ring[i % RING].resume();
+            }
+            for (Coroutine coroutine : ring) {
+                coroutine.kill();
+            }
+        });
+    }
+
+    /**
+     * A model whose processes all start at time 0 and passivate for good.
+     */
+    static class StartupModel extends Model {
+
+        private final int processes;
+
+        StartupModel(int processes) {
+            super(null, "StartupModel", false, false);
+            this.processes = processes;
+        }
+
+        @Override
+        public String description() {
+            return "Processes that start and passivate.";
+        }
+
+        @Override
+        public void init() {
+        }
+
+        @Override
+        public void doInitialSchedules() {
+            for (int i = 0; i < processes; i++) {
+                new SimProcess(this, "Customer", false) {
+                    @Override
+                    public void lifeCycle() throws SuspendExecution {
+                        passivate();
+                    }
+                }.activate();
+            }
+        }
+    }
+
+    /**
+     * A model whose processes hold for one second in turn, a fixed number of times each.
+     */
+    static class RingModel extends Model {
+
+        private final int processes;
+        private final int holds;
+
+        RingModel(int processes, int holds) {
+            super(null, "RingModel", false, false);
+            this.processes = processes;
+            this.holds = holds;
+        }
+
+        @Override
+        public String description() {
+            return "Processes that hold in turn.";
+        }
+
+        @Override
+        public void init() {
+        }
+
+        @Override
+        public void doInitialSchedules() {
+            for (int i = 0; i < processes; i++) {
+                new SimProcess(this, "Customer", false) {
+                    @Override
+                    public void lifeCycle() throws SuspendExecution {
+                        for (int j = 0; j < holds; j++) {
+                            hold(new TimeSpan(1.0));
+                        }
+                    }
+                }.activate();
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package selfservicecafe_p.benchmarks;
+
+import co.paralleluniverse.fibers.SuspendExecution;
+import desmoj.core.simulator.*;
+import org.openjdk.jmh.annotations.*;
+import selfservicecafe_p.CustomerProcess;
+import selfservicecafe_p.EmployeeProcess;
+import selfservicecafe_p.Scenario;
+import selfservicecafe_p.SelfServiceModel;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the service cycle of an EmployeeProcess: take the next customer from the station,
+ * sample the service time, hold and reactivate the customer. All customers are waiting at the
+ * sandwich bar at time 0, so the employees never idle. One operation is one served customer.
+ * The model serves from the idle queue (no direct dispatch), so the employees run their cycle.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class ServiceCycleBenchmark {
+
+    private static final int CUSTOMERS = 10000;
+
+    // far beyond the time the employees need for all customers, the run ends when they are done
+    private static final double UNTIL_DONE = 1.0e9;
+
+    private Experiment exp;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        exp = Experiments.create(new ServiceCycleModel(Scenario.defaults(), CUSTOMERS), UNTIL_DONE);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        exp.finish();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CUSTOMERS)
+    public void serviceCycle() {
+        exp.start();
+    }
+
+    /**
+     * The cafeteria with the employees of the sandwich bar only and no customer generator.
+     */
+    static class ServiceCycleModel extends SelfServiceModel {
+
+        private final int customers;
+
+        ServiceCycleModel(Scenario scenario, int customers) {
+            super(null, "ServiceCycleModel", false, false, scenario, scenario.getSeed(), false);
+            this.customers = customers;
+        }
+
+        @Override
+        public void doInitialSchedules() {
+            for (int i = 0; i < getStation(SANDWICH_BAR).getConfig().getServers(); i++) {
+                new EmployeeProcess(this, "Employee", false, SANDWICH_BAR).activate();
+            }
+            for (int i = 0; i < customers; i++) {
+                new WaitingCustomer(this).activate();
+            }
+        }
+    }
+
+    /**
+     * A customer that only visits the sandwich bar.
+     */
+    static class WaitingCustomer extends CustomerProcess {
+
+        WaitingCustomer(SelfServiceModel owner) {
+            super(owner, "Customer", false);
+        }
+
+        @Override
+        public void lifeCycle() throws SuspendExecution {
+            ((SelfServiceModel) getModel()).getStation(SelfServiceModel.SANDWICH_BAR).enter(this);
+
+            passivate();
+        }
+    }
+}
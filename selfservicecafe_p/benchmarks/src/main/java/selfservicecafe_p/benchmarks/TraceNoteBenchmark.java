@@ -0,0 +1,108 @@
+package selfservicecafe_p.benchmarks;
+
+import co.paralleluniverse.fibers.SuspendExecution;
+import desmoj.core.simulator.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures sendTraceNote the way Station.enter calls it, with the queue length concatenated
+ * into the note, once with the trace period covering the whole run and once without trace period.
+ * The trace file is written to a temporary directory. One operation is one trace note.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class TraceNoteBenchmark {
+
+    private static final int NOTES = 10000;
+
+    @Param({"false", "true"})
+    public boolean traced;
+
+    private Path outputDirectory;
+    private Experiment exp;
+
+    @Setup(Level.Trial)
+    public void createOutputDirectory() throws IOException {
+        outputDirectory = Files.createTempDirectory("trace-benchmark");
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        TraceModel model = new TraceModel(NOTES);
+        exp = new Experiment("TraceNoteBenchmark", outputDirectory.toString());
+        exp.setShowProgressBar(false);
+        model.connectToExperiment(exp);
+        if (traced) {
+            exp.tracePeriod(new TimeInstant(0.0), new TimeInstant(1.0));
+        }
+        exp.stop(new TimeInstant(1.0));
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        exp.finish();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NOTES)
+    public void sendTraceNote() {
+        exp.start();
+    }
+
+    /**
+     * A model with one queue and one process that sends the trace notes.
+     */
+    static class TraceModel extends Model {
+
+        private final int notes;
+
+        private ProcessQueue<SimProcess> queue;
+
+        TraceModel(int notes) {
+            super(null, "TraceModel", false, true);
+            this.notes = notes;
+        }
+
+        @Override
+        public String description() {
+            return "Sends trace notes with the length of a queue.";
+        }
+
+        @Override
+        public void init() {
+            queue = new ProcessQueue<>(this, "CustomerQueue", false, true);
+        }
+
+        @Override
+        public void doInitialSchedules() {
+            new TracingProcess(this).activate();
+        }
+    }
+
+    static class TracingProcess extends SimProcess {
+
+        private final TraceModel myModel;
+
+        TracingProcess(TraceModel owner) {
+            super(owner, "Customer", true);
+            myModel = owner;
+        }
+
+        @Override
+        public void lifeCycle() throws SuspendExecution {
+            ProcessQueue<SimProcess> queue = myModel.queue;
+            for (int i = 0; i < myModel.notes; i++) {
+                sendTraceNote(queue.getName() + "Length: " + queue.length());
+            }
+        }
+    }
+}
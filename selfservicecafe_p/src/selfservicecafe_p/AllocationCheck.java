@@ -0,0 +1,159 @@
+package selfservicecafe_p;
+
+import desmoj.core.simulator.Experiment;
+import desmoj.core.simulator.QueueBased;
+import desmoj.core.simulator.TimeInstant;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+
+/**
+ * This class checks that the bookkeeping of the event-oriented model allocates nothing per customer
+ * without trace. First it runs the bookkeeping of a customer's visit as the model does it: a customer is
+ * taken from the customers that have left, goes through every queue, its waiting, service and system
+ * times are recorded, and it leaves again. Once the pools and buffers are warm, this must allocate 0 bytes
+ * per customer, otherwise the check fails. The demands of the customer are not drawn there: DESMO-J's
+ * ContDist.sample() returns a boxed Double and has no primitive variant, so drawing them is reported
+ * separately and does not fail the check. Then it runs the whole model twice, the second time twice as
+ * long, and reports the bytes per served customer in steady state. These come from the samples, from
+ * DESMO-J's scheduler, which creates an event note and a time for every scheduled event, and from the
+ * TimeSpan the scheduling methods take. The model cannot avoid them.
+ */
+public class AllocationCheck {
+
+    private static final int CUSTOMERS = 100000;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // the bytes the current thread has allocated so far
+    private static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * draws the demands of some customers and returns the bytes allocated per customer
+     * @param model         a model without trace, connected to an experiment
+     * @param customers     the number of customers
+     * @return the allocated bytes per customer, after the bytes of the measurement itself are subtracted
+     */
+    static double demandsBytesPerCustomer(SelfServiceEventModel model, int customers) {
+        // warm up the pool and the compiler
+        drawDemands(model, customers);
+
+        long start = allocatedBytes();
+        long overhead = allocatedBytes() - start;
+        start = allocatedBytes();
+        drawDemands(model, customers);
+        long bytes = allocatedBytes() - start - overhead;
+        return Math.max(0, bytes) / (double) customers;
+    }
+
+    private static void drawDemands(SelfServiceEventModel model, int customers) {
+        for (int c = 0; c < customers; c++) {
+            model.customerLeft(model.newCustomer());
+        }
+    }
+
+    /**
+     * runs the bookkeeping of the visits of some customers and returns the bytes allocated per customer
+     * @param model         a model without trace, connected to an experiment
+     * @param customers     the number of customers
+     * @return the allocated bytes per customer, after the bytes of the measurement itself are subtracted
+     */
+    @SuppressWarnings("unchecked")
+    static double bookkeepingBytesPerCustomer(SelfServiceEventModel model, int customers) {
+        QueueBased[] queues = model.getCustomerQueues();
+        QueuePercentiles[] percentiles = model.getPercentiles();
+        CustomerQueue<CustomerEntity>[] customerQueues =
+                (CustomerQueue<CustomerEntity>[]) new CustomerQueue<?>[queues.length];
+        for (int i = 0; i < queues.length; i++) {
+            customerQueues[i] = (CustomerQueue<CustomerEntity>) queues[i];
+        }
+
+        // warm up the pools, the ring buffers and the compiler
+        visit(model, customerQueues, percentiles, customers);
+
+        long start = allocatedBytes();
+        long overhead = allocatedBytes() - start;
+        start = allocatedBytes();
+        visit(model, customerQueues, percentiles, customers);
+        long bytes = allocatedBytes() - start - overhead;
+        return Math.max(0, bytes) / (double) customers;
+    }
+
+    private static void visit(SelfServiceEventModel model, CustomerQueue<CustomerEntity>[] queues,
+                              QueuePercentiles[] percentiles, int customers) {
+        for (int c = 0; c < customers; c++) {
+            CustomerEntity customer = model.recycledCustomer();
+            for (int i = 0; i < queues.length; i++) {
+                queues[i].insert(customer);
+                customer.setQueueEntry(customer.getArrivalTime());
+                queues[i].removeFirst();
+                percentiles[i].recordWait(c % 60);
+                percentiles[i].recordService(30.0 + c % 30);
+            }
+            model.getTimeInSystem().record(600.0 + c % 600);
+            model.getTimeInSystemBatches().add(600.0 + c % 600);
+            model.customerLeft(customer);
+        }
+    }
+
+    /**
+     * runs the event-oriented model without trace and returns the bytes allocated by the run
+     * @param scenario  the scenario
+     * @param stopTime  the end of the run in seconds
+     * @param served    receives the number of served customers
+     * @return the allocated bytes
+     */
+    static long runBytes(Scenario scenario, double stopTime, long[] served) {
+        SelfServiceEventModel model = new SelfServiceEventModel(null, "AllocationCheck", false, false,
+                scenario, scenario.getSeed());
+        Experiment exp = new Experiment("AllocationCheckExperiment", false);
+        exp.setShowProgressBar(false);
+        model.connectToExperiment(exp);
+        exp.stop(new TimeInstant(stopTime));
+
+        long start = allocatedBytes();
+        exp.start();
+        long bytes = allocatedBytes() - start;
+        exp.finish();
+
+        served[0] = model.getCustomersServed();
+        return bytes;
+    }
+
+    /**
+     * Checks the allocations, fails with an IllegalStateException if the bookkeeping of a customer allocates
+     * @param args  [scenario file]
+     * @throws Exception if the scenario cannot be read
+     */
+    public static void main(String[] args) throws Exception {
+        Scenario scenario = args.length > 0 ? ScenarioLoader.load(Paths.get(args[0])) : Scenario.defaults();
+
+        SelfServiceEventModel model = new SelfServiceEventModel(null, "AllocationCheck", false, false,
+                scenario, scenario.getSeed());
+        Experiment exp = new Experiment("AllocationCheckExperiment", false);
+        exp.setShowProgressBar(false);
+        model.connectToExperiment(exp);
+        double bookkeeping = bookkeepingBytesPerCustomer(model, CUSTOMERS);
+        double demands = demandsBytesPerCustomer(model, CUSTOMERS);
+        exp.finish();
+        System.out.printf("bookkeeping of a customer: %.1f bytes%n", bookkeeping);
+        System.out.printf("demands of a customer: %.1f bytes (DESMO-J's boxed samples)%n", demands);
+        if (bookkeeping > 0) {
+            throw new IllegalStateException("Error: the bookkeeping of a customer allocates "
+                    + bookkeeping + " bytes per customer.");
+        }
+
+        // the first run warms up, the difference of both runs is the steady state
+        long[] served = new long[1];
+        long bytes = runBytes(scenario, scenario.getStopTime(), served);
+        long servedFirst = served[0];
+        long bytesTwice = runBytes(scenario, 2 * scenario.getStopTime(), served);
+        if (served[0] > servedFirst) {
+            System.out.printf("whole model, steady state: %.0f bytes per served customer (samples, event notes and times)%n",
+                    (bytesTwice - bytes) / (double) (served[0] - servedFirst));
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package selfservicecafe_p;
+
+import java.util.Arrays;
+
+/**
+ * This class estimates the mean of a correlated series of customer observations (e.g. the waiting
+ * times at one queue) from a single long run with non-overlapping batch means.
+ * During the run the observations are summed into at most MAX_BATCHES batches; when they are full,
+ * neighbouring batches are merged and the batch size doubles, so the memory is fixed however long the run is.
+ * At the end the batch size is chosen with a lag-1 autocorrelation test: as long as the batch means
+ * are positively correlated (r1 above z(1 - alpha) / sqrt(b)), neighbouring batches are merged again,
+ * but never below MIN_BATCHES batches. The confidence interval is the t interval of the batch means.
+ */
+public class BatchMeans {
+
+    // number of batches kept during the run, even, merged to the half when full
+    public static final int MAX_BATCHES = 256;
+
+    // the autocorrelation test never leaves less batches than this
+    public static final int MIN_BATCHES = 10;
+
+    // significance level of the one-sided lag-1 autocorrelation test
+    public static final double ALPHA = 0.05;
+
+    // name of the series
+    private final String name;
+
+    private final double[] means = new double[MAX_BATCHES];
+    private int batches;
+    private long batchSize = 1;
+
+    // the batch being filled
+    private double batchSum;
+    private long batchCount;
+
+    /**
+     * Constructor of the BatchMeans
+     * @param name  the name of the series
+     */
+    public BatchMeans(String name) {
+        this.name = name;
+    }
+
+    /**
+     * adds one observation
+     * @param value the observed value
+     */
+    public void add(double value) {
+        batchSum += value;
+        batchCount++;
+        if (batchCount < batchSize) {
+            return;
+        }
+
+        means[batches++] = batchSum / batchSize;
+        batchSum = 0;
+        batchCount = 0;
+
+        if (batches == MAX_BATCHES) {
+            batches = merge(means, batches);
+            batchSize *= 2;
+        }
+    }
+
+    /**
+     * removes all observations, e.g. at the end of the warm-up
+     */
+    public void reset() {
+        Arrays.fill(means, 0);
+        batches = 0;
+        batchSize = 1;
+        batchSum = 0;
+        batchCount = 0;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // merges neighbouring batches in place, an odd first batch (the oldest observations) is dropped
+    private static int merge(double[] means, int count) {
+        int first = count % 2;
+        int merged = count / 2;
+        for (int i = 0; i < merged; i++) {
+            means[i] = (means[first + 2 * i] + means[first + 2 * i + 1]) / 2;
+        }
+        return merged;
+    }
+
+    // the lag-1 autocorrelation of the first count batch means
+    private static double lag1(double[] means, int count) {
+        double mean = 0;
+        for (int i = 0; i < count; i++) {
+            mean += means[i];
+        }
+        mean /= count;
+
+        double covariance = 0;
+        double variance = 0;
+        for (int i = 0; i < count; i++) {
+            double deviation = means[i] - mean;
+            variance += deviation * deviation;
+            if (i + 1 < count) {
+                covariance += deviation * (means[i + 1] - mean);
+            }
+        }
+        return variance == 0 ? 0 : covariance / variance;
+    }
+
+    /**
+     * chooses the batch size with the lag-1 autocorrelation test and computes the confidence interval.
+     * The observations of the batch still being filled are not used.
+     * @param confidence    the confidence level, e.g. 0.95
+     * @return the estimate, its mean and half-width are NaN if there are less than MIN_BATCHES batches
+     */
+    public Estimate estimate(double confidence) {
+        double[] work = Arrays.copyOf(means, batches);
+        int count = batches;
+        long size = batchSize;
+
+        double r1 = count > 1 ? lag1(work, count) : Double.NaN;
+        double limit = StudentT.normalQuantile(1 - ALPHA) / Math.sqrt(count);
+        while (r1 > limit && count / 2 >= MIN_BATCHES) {
+            count = merge(work, count);
+            size *= 2;
+            r1 = lag1(work, count);
+            limit = StudentT.normalQuantile(1 - ALPHA) / Math.sqrt(count);
+        }
+
+        SummaryStatistic statistic = new SummaryStatistic(name);
+        for (int i = 0; i < count; i++) {
+            statistic.update(work[i]);
+        }
+        boolean enough = count >= MIN_BATCHES;
+        return new Estimate(name, count, size, r1, !(r1 > limit),
+                enough ? statistic.getMean() : Double.NaN, enough ? statistic.halfWidth(confidence) : Double.NaN);
+    }
+
+    /**
+     * The result of the batch means analysis of one series.
+     */
+    public static final class Estimate {
+
+        private final String name;
+        private final int batches;
+        private final long batchSize;
+        private final double lag1;
+        private final boolean uncorrelated;
+        private final double mean;
+        private final double halfWidth;
+
+        private Estimate(String name, int batches, long batchSize, double lag1, boolean uncorrelated,
+                         double mean, double halfWidth) {
+            this.name = name;
+            this.batches = batches;
+            this.batchSize = batchSize;
+            this.lag1 = lag1;
+            this.uncorrelated = uncorrelated;
+            this.mean = mean;
+            this.halfWidth = halfWidth;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getBatches() {
+            return batches;
+        }
+
+        /**
+         * @return the number of observations per batch
+         */
+        public long getBatchSize() {
+            return batchSize;
+        }
+
+        /**
+         * @return the lag-1 autocorrelation of the chosen batch means
+         */
+        public double getLag1() {
+            return lag1;
+        }
+
+        /**
+         * @return false if the batch means are still correlated with MIN_BATCHES batches, the run was too short
+         */
+        public boolean isUncorrelated() {
+            return uncorrelated;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public double getHalfWidth() {
+            return halfWidth;
+        }
+    }
+}
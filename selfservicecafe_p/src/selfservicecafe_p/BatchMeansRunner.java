@@ -0,0 +1,115 @@
+package selfservicecafe_p;
+
+import desmoj.core.simulator.*;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class analyses a single long run of the self service cafeteria with batch means instead of
+ * independent replications. Close to saturation every replication spends much of its time warming up
+ * the empty cafeteria; a single run warms up only once. The end of the warm-up is detected online
+ * (MSER-5), then the waiting times of every customer queue and the times in system are collected
+ * in batches, and the confidence intervals come from the batch means of this one run.
+ */
+public class BatchMeansRunner {
+
+    private final ModelVariant variant;
+    private final Scenario scenario;
+
+    private WarmupDetector warmupDetector;
+
+    /**
+     * Constructor of the BatchMeansRunner
+     * @param variant   the implementation of the cafeteria
+     * @param scenario  the parameters of the cafeteria, its stop time is the length of the run;
+     *                  the warm-up is always detected
+     */
+    public BatchMeansRunner(ModelVariant variant, Scenario scenario) {
+        this.variant = variant;
+        this.scenario = scenario.withWarmupDetection(true);
+    }
+
+    /**
+     * runs the experiment in production mode without output files and analyses the batches
+     * @param confidence    the confidence level, e.g. 0.95
+     * @return the estimates of the waiting times of every customer queue and of the time in system
+     */
+    public List<BatchMeans.Estimate> run(double confidence) {
+        Model model = variant.create("Self Service Cafe Model", true, RunMode.PRODUCTION.isTraced(), scenario,
+                scenario.getSeed());
+
+        Experiment exp = new Experiment("SelfServiceBatchMeans", false);
+        exp.setSeedGenerator(scenario.getSeed());
+
+        model.connectToExperiment(exp);
+        RunMode.PRODUCTION.configure(exp, scenario);
+
+        exp.stop(new TimeInstant(scenario.getStopTime()));
+        exp.start();
+
+        CafeteriaModel cafeteria = (CafeteriaModel) model;
+        List<BatchMeans.Estimate> estimates = new ArrayList<>();
+        for (QueuePercentiles percentiles : cafeteria.getPercentiles()) {
+            estimates.add(percentiles.getWaitTimeBatches().estimate(confidence));
+        }
+        estimates.add(cafeteria.getTimeInSystemBatches().estimate(confidence));
+        warmupDetector = cafeteria.getWarmupDetector();
+
+        exp.finish();
+
+        return estimates;
+    }
+
+    /**
+     * @return the warm-up detector of the last run, null before the first run
+     */
+    public WarmupDetector getWarmupDetector() {
+        return warmupDetector;
+    }
+
+    /**
+     * prints the estimates with their batches and confidence intervals
+     * @param out           the stream to print to
+     * @param estimates     the estimates of a run
+     * @param confidence    the confidence level of the estimates
+     */
+    public static void print(PrintStream out, List<BatchMeans.Estimate> estimates, double confidence) {
+        out.printf("%-40s %8s %10s %7s %12s    %.0f%% half-width%n", "batch means", "batches", "batch size",
+                "lag-1", "mean", confidence * 100);
+        for (BatchMeans.Estimate estimate : estimates) {
+            out.printf("%-40s %8d %10d %7.3f %12.3f +/- %10.3f%s%n", estimate.getName(), estimate.getBatches(),
+                    estimate.getBatchSize(), estimate.getLag1(), estimate.getMean(), estimate.getHalfWidth(),
+                    estimate.isUncorrelated() ? "" : "  (batches still correlated, run longer)");
+        }
+    }
+
+    /**
+     * Runs one long experiment and prints the batch means
+     * @param args  [run length in s, default 100 times the stop time of the scenario] [scenario file]
+     *              [variant: process or event]
+     * @throws IOException if the scenario file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        Scenario scenario = args.length > 1 ? ScenarioLoader.load(Paths.get(args[1])) : Scenario.defaults();
+        double runLength = args.length > 0 ? Double.parseDouble(args[0]) : 100 * scenario.getStopTime();
+        ModelVariant variant = args.length > 2 ? ModelVariant.parse(args[2]) : ModelVariant.PROCESS;
+
+        BatchMeansRunner runner = new BatchMeansRunner(variant, scenario.withStopTime(runLength));
+
+        long start = System.nanoTime();
+        List<BatchMeans.Estimate> estimates = runner.run(0.95);
+        long elapsed = System.nanoTime() - start;
+
+        WarmupDetector warmup = runner.getWarmupDetector();
+        System.out.println(warmup.isDetected()
+                ? String.format("end of warm-up (MSER-5): truncation point %.0f s, statistics reset at %.0f s",
+                        warmup.getTruncationPoint(), warmup.getDetectionTime())
+                : "end of warm-up (MSER-5) not detected, the batches include the warm-up");
+        print(System.out, estimates, 0.95);
+        System.out.printf("wall clock time: %.1f s%n", elapsed / 1e9);
+    }
+}
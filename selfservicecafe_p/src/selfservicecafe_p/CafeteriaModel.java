@@ -0,0 +1,63 @@
+package selfservicecafe_p;
+
+import desmoj.core.simulator.QueueBased;
+
+/**
+ * This interface describes what every implementation of the self service cafeteria
+ * (process-oriented or event-oriented) offers to the runners that collect its statistics.
+ */
+public interface CafeteriaModel {
+
+    /**
+     * Returns the customer queues of this model in a fixed order:
+     * sandwich bar, menu bar, drinks bar, check out, dessert bar, dessert check out, dining hall.
+     * @return the customer queues
+     */
+    QueueBased[] getCustomerQueues();
+
+    /**
+     * Returns the percentiles of the waiting and service times of the customer queues,
+     * in the same order as getCustomerQueues().
+     * @return the percentiles of every customer queue
+     */
+    QueuePercentiles[] getPercentiles();
+
+    /**
+     * Returns the number of customers that have left the cafeteria.
+     * @return the number of served customers
+     */
+    long getCustomersServed();
+
+    /**
+     * Returns the times from arrival until leaving of all customers that have left the cafeteria.
+     * @return the histogram of the times in system
+     */
+    LatencyHistogram getTimeInSystem();
+
+    /**
+     * Returns the times in system of the customers that have left in the order they left,
+     * grouped into batches for the batch means analysis of a single long run.
+     * @return the batch means of the times in system
+     */
+    BatchMeans getTimeInSystemBatches();
+
+    /**
+     * Returns the time-weighted share of occupied seats in the dining hall.
+     * @return the seat utilization between 0 and 1
+     */
+    double getSeatUtilization();
+
+    /**
+     * Returns the number of event notes this model has put on the event list so far,
+     * i.e. scheduled events, activations and holds of processes.
+     * The benchmarks divide it by the run time to get the events per second.
+     * @return the number of scheduled events
+     */
+    long getEventCount();
+
+    /**
+     * Returns the warm-up detector of this model.
+     * @return the detector, null if the scenario does not detect the warm-up
+     */
+    WarmupDetector getWarmupDetector();
+}
@@ -0,0 +1,271 @@
+package selfservicecafe_p;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A calendar queue (R. Brown, 1988): the time axis is divided into days of equal width, a year of
+ * days is an array of buckets, and every event is kept in the sorted bucket of its day modulo the year.
+ * The next event is found by walking the days from the current one. The number of days follows the
+ * number of events (between half and twice as many) and the width of a day is estimated from the
+ * spacing of the next events whenever the calendar is resized, so a bucket holds about one to three
+ * events and inserting and removing take O(1) on average.
+ *
+ * The estimate fails when the spacing of the next events is not that of the later ones, e.g. after the
+ * calendar was filled with many events at nearly the same time. So the bucket entries and days walked are
+ * counted, and once the operations of a year walk more than COST_LIMIT steps per day the calendar is
+ * rebuilt with a new width. The width never drops below MIN_WIDTH of the latest time, so the days
+ * cannot overflow; events closer together than that still share a day, so for such extreme skew the
+ * ladder queue, which splits crowded buckets, is the better choice. An event that is not before the last
+ * one of its bucket, e.g. one with the same time, is appended to the bucket without walking it.
+ *
+ * @param <E> the type of the events
+ */
+public class CalendarQueue<E> implements PendingEventList<E> {
+
+    // number of next events whose spacing is used to estimate the width of a day
+    private static final int WIDTH_SAMPLE = 25;
+
+    // steps per operation (bucket entries and days walked) above which the calendar is rebuilt
+    private static final int COST_LIMIT = 8;
+    // smallest width of a day, relative to the latest pending time
+    private static final double MIN_WIDTH = 0x1p-40;
+
+    private static final class Entry<E> {
+        private final double time;
+        private final long sequence;
+        private final E event;
+        // the day of the event, counted from time 0 with the current width
+        private long day;
+        private Entry<E> next;
+
+        private Entry(double time, long sequence, E event) {
+            this.time = time;
+            this.sequence = sequence;
+            this.event = event;
+        }
+
+        private boolean before(Entry<E> other) {
+            return time < other.time || (time == other.time && sequence < other.sequence);
+        }
+    }
+
+    private Entry<E>[] buckets;
+    private Entry<E>[] tails;
+    private int mask;
+    private double width;
+
+    // the day of the last removed event, no pending event is due before it
+    private long currentDay;
+
+    private int size;
+    private long sequence;
+
+    // no resizing while the width is being estimated
+    private boolean resizing;
+
+    // the steps walked and the operations since the last resize
+    private long cost;
+    private long operations;
+
+    /**
+     * Constructor of an empty CalendarQueue
+     */
+    public CalendarQueue() {
+        buckets = newBuckets(2);
+        tails = newBuckets(2);
+        mask = 1;
+        width = 1.0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> Entry<E>[] newBuckets(int count) {
+        return (Entry<E>[]) new Entry<?>[count];
+    }
+
+    @Override
+    public void insert(double time, E event) {
+        Entry<E> entry = new Entry<>(time, sequence++, event);
+        insert(entry);
+        size++;
+        if (size > 2 * buckets.length && !resizing) {
+            resize(2 * buckets.length);
+        } else {
+            checkCost();
+        }
+    }
+
+    // puts an entry into the sorted bucket of its day
+    private void insert(Entry<E> entry) {
+        entry.day = (long) Math.floor(entry.time / width);
+        if (entry.day < currentDay) {
+            currentDay = entry.day;
+        }
+        int index = (int) (entry.day & mask);
+        Entry<E> head = buckets[index];
+        if (head == null || entry.before(head)) {
+            entry.next = head;
+            buckets[index] = entry;
+            if (head == null) {
+                tails[index] = entry;
+            }
+            return;
+        }
+        if (!entry.before(tails[index])) {
+            entry.next = null;
+            tails[index].next = entry;
+            tails[index] = entry;
+            return;
+        }
+        Entry<E> previous = head;
+        while (previous.next.before(entry)) {
+            previous = previous.next;
+            cost++;
+        }
+        entry.next = previous.next;
+        previous.next = entry;
+    }
+
+    @Override
+    public E removeFirst() {
+        E event = removeEntry().event;
+        if (size < buckets.length / 2 && buckets.length > 2 && !resizing) {
+            resize(buckets.length / 2);
+        } else {
+            checkCost();
+        }
+        return event;
+    }
+
+    @Override
+    public double firstTime() {
+        return buckets[(int) (findFirst() & mask)].time;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private Entry<E> removeEntry() {
+        int index = (int) (findFirst() & mask);
+        Entry<E> first = buckets[index];
+        buckets[index] = first.next;
+        if (first.next == null) {
+            tails[index] = null;
+        }
+        first.next = null;
+        size--;
+        return first;
+    }
+
+    // returns the day of the next event and makes it the current day
+    private long findFirst() {
+        if (size == 0) {
+            throw new NoSuchElementException("Error: the event list is empty.");
+        }
+        // walk one year of days from the current one
+        long day = currentDay;
+        for (int i = 0; i < buckets.length; i++, day++) {
+            Entry<E> head = buckets[(int) (day & mask)];
+            if (head != null && head.day == day) {
+                currentDay = day;
+                cost += i;
+                return day;
+            }
+        }
+        // all events are more than a year ahead: search the earliest one directly
+        cost += 2L * buckets.length;
+        Entry<E> first = null;
+        for (Entry<E> head : buckets) {
+            if (head != null && (first == null || head.before(first))) {
+                first = head;
+            }
+        }
+        currentDay = first.day;
+        return currentDay;
+    }
+
+    // rebuilds the calendar with a new width as soon as the operations of a year walked more steps than
+    // a rebuild costs, so the rebuilds take O(1) amortized
+    private void checkCost() {
+        if (resizing) {
+            return;
+        }
+        operations++;
+        if (cost > (long) COST_LIMIT * buckets.length) {
+            resize(buckets.length);
+        } else if (operations >= buckets.length) {
+            cost = 0;
+            operations = 0;
+        }
+    }
+
+    // moves all events into a calendar with the given number of days and a new estimated width
+    private void resize(int count) {
+        resizing = true;
+        double newWidth = estimateWidth();
+
+        Entry<E>[] old = buckets;
+        buckets = newBuckets(count);
+        tails = newBuckets(count);
+        mask = count - 1;
+        width = newWidth;
+        currentDay = Long.MAX_VALUE;
+        for (Entry<E> head : old) {
+            // the entries of a bucket are sorted, so events with the same time keep their order
+            while (head != null) {
+                Entry<E> next = head.next;
+                head.next = null;
+                insert(head);
+                head = next;
+            }
+        }
+        if (currentDay == Long.MAX_VALUE) {
+            currentDay = 0;
+        }
+        cost = 0;
+        operations = 0;
+        resizing = false;
+    }
+
+    // three times the mean spacing of the next events, leaving out spacings of more than twice the mean;
+    // if the next events all have the same time, the mean spacing of all events, at least MIN_WIDTH of the
+    // latest time
+    private double estimateWidth() {
+        double latest = Double.NEGATIVE_INFINITY;
+        for (Entry<E> tail : tails) {
+            if (tail != null) {
+                latest = Math.max(latest, tail.time);
+            }
+        }
+        double minWidth = size == 0 ? 0 : Math.abs(latest) * MIN_WIDTH;
+        int samples = Math.min(size, WIDTH_SAMPLE);
+        if (samples < 2) {
+            return Math.max(width, minWidth);
+        }
+        @SuppressWarnings("unchecked")
+        Entry<E>[] next = (Entry<E>[]) new Entry<?>[samples];
+        for (int i = 0; i < samples; i++) {
+            next[i] = removeEntry();
+        }
+        double mean = (next[samples - 1].time - next[0].time) / (samples - 1);
+        double sum = 0;
+        int count = 0;
+        for (int i = 1; i < samples; i++) {
+            double spacing = next[i].time - next[i - 1].time;
+            if (spacing <= 2 * mean) {
+                sum += spacing;
+                count++;
+            }
+        }
+        for (Entry<E> entry : next) {
+            insert(entry);
+            size++;
+        }
+        double newWidth = count > 0 ? 3 * sum / count : 0;
+        if (newWidth == 0) {
+            newWidth = 3 * (latest - next[0].time) / size;
+        }
+        return Math.max(newWidth > 0 ? newWidth : width, minWidth);
+    }
+}
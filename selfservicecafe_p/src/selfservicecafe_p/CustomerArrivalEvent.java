@@ -0,0 +1,44 @@
+package selfservicecafe_p;
+
+import desmoj.core.simulator.*;
+
+/**
+ * This class represents the arrival of a customer on the SelfServiceEventModel model.
+ * It creates the customer, sends it to its first station and schedules itself again as the next arrival.
+ */
+public class CustomerArrivalEvent extends ExternalEvent {
+
+    // a reference to the model this event is part of
+    private SelfServiceEventModel myModel;
+
+    /**
+     * Constructor of the CustomerArrivalEvent
+     * @param owner         the model this event belongs to
+     * @param name          this event's name
+     * @param showInTrace   flag to indicate if this event shall produce output for the trace
+     */
+    public CustomerArrivalEvent(Model owner, String name, boolean showInTrace) {
+        super(owner, name, showInTrace);
+
+        myModel = (SelfServiceEventModel) owner;
+    }
+
+    /**
+     * creates a new customer, lets it enter the sandwich bar or menu bar queue
+     * and schedules the next arrival.
+     */
+    @Override
+    public void eventRoutine() {
+        CustomerEntity customer = myModel.newCustomer();
+
+        if (customer.getDemands().isSandwichBar()) {
+            myModel.enterStation(customer, SelfServiceEventModel.SANDWICH_BAR);
+        } else {
+            myModel.enterStation(customer, SelfServiceEventModel.MENU_BAR);
+        }
+
+        // this event is the next arrival
+        schedule(new TimeSpan(myModel.getCustomerArrivalTime()));
+        myModel.countEvent();
+    }
+}
@@ -0,0 +1,83 @@
+package selfservicecafe_p;
+
+import desmoj.core.dist.BoolDistBernoulli;
+import desmoj.core.dist.ContDist;
+
+/**
+ * This class holds what one customer demands from the cafeteria: the route and the service time at
+ * every station and the resting times at the dining hall. All of it is drawn when the customer arrives,
+ * one number of every stream, also for the stations the customer does not visit. So the n-th customer
+ * gets the n-th number of every stream, whatever the staffing is and in whatever order the customers
+ * are served. Two scenarios that are run with the same seed serve the same customers with the same
+ * demands (common random numbers), and the difference of their results is due to the scenarios.
+ */
+public class CustomerDemands {
+
+    private boolean sandwichBar;
+    private boolean drinksBar;
+    private boolean dessert;
+
+    // service times, indexed by the station indices of SelfServiceModel
+    private final double[] serviceTimes = new double[6];
+
+    private double restingTimeMainDish;
+    private double restingTimeDessert;
+
+    /**
+     * draws the demands of the next customer, always from all streams in the same order
+     * @param sandwichBarChoice     the choice of the sandwich bar instead of the menu bar
+     * @param drinksBarChoice       the choice of the drinks bar
+     * @param dessertChoice         the choice of a dessert
+     * @param serviceTimes          the service time distributions, indexed by station
+     * @param restingTimeMainDish   the time spent eating the main dish
+     * @param restingTimeDessert    the time spent eating the dessert
+     */
+    void draw(BoolDistBernoulli sandwichBarChoice, BoolDistBernoulli drinksBarChoice, BoolDistBernoulli dessertChoice,
+              ContDist[] serviceTimes, ContDist restingTimeMainDish, ContDist restingTimeDessert) {
+        sandwichBar = sandwichBarChoice.sample();
+        drinksBar = drinksBarChoice.sample();
+        dessert = dessertChoice.sample();
+        for (int i = 0; i < serviceTimes.length; i++) {
+            this.serviceTimes[i] = serviceTimes[i].sample();
+        }
+        this.restingTimeMainDish = restingTimeMainDish.sample();
+        this.restingTimeDessert = restingTimeDessert.sample();
+    }
+
+    /**
+     * @return true if the customer goes to the sandwich bar, false for the menu bar
+     */
+    public boolean isSandwichBar() {
+        return sandwichBar;
+    }
+
+    /**
+     * @return true if the customer goes to the drinks bar
+     */
+    public boolean isDrinksBar() {
+        return drinksBar;
+    }
+
+    /**
+     * @return true if the customer gets a dessert after the main dish
+     */
+    public boolean isDessert() {
+        return dessert;
+    }
+
+    /**
+     * @param stationIndex  the station, see the station indices of SelfServiceModel
+     * @return the time the service of this customer takes at the station in seconds
+     */
+    public double getServiceTime(int stationIndex) {
+        return serviceTimes[stationIndex];
+    }
+
+    /**
+     * @param dessert   true for the dessert, false for the main dish
+     * @return the time this customer spends eating in seconds
+     */
+    public double getRestingTime(boolean dessert) {
+        return dessert ? restingTimeDessert : restingTimeMainDish;
+    }
+}
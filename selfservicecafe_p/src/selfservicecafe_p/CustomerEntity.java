@@ -0,0 +1,84 @@
+package selfservicecafe_p;
+
+import desmoj.core.simulator.*;
+
+/**
+ * This class represents the customer on the SelfServiceEventModel and SelfServiceHybridModel models.
+ * The customer is a passive entity, it only carries the state of its visit
+ * and is moved from station to station by the events or the servers of the model.
+ */
+public class CustomerEntity extends Entity {
+
+    // true while the customer is looking for a seat for / eating the dessert
+    private boolean eatingDessert;
+
+    // time at which the customer arrived and at which it entered its current queue
+    private double arrivalTime;
+    private double queueEntry;
+
+    // route, service and resting times of this customer, drawn on arrival
+    private final CustomerDemands demands = new CustomerDemands();
+
+    // derivatives of the time this customer entered its queue or will leave its station, see PerturbationAnalysis
+    private double[] timeDerivatives;
+
+    /**
+     * Constructor of the customer entity
+     * @param owner         the model this entity belongs to
+     * @param name          this customer's name
+     * @param showInTrace   flag to indicate if this entity shall produce output for the trace
+     */
+    public CustomerEntity(Model owner, String name, boolean showInTrace) {
+        super(owner, name, showInTrace);
+    }
+
+    public boolean isEatingDessert() {
+        return eatingDessert;
+    }
+
+    public void setEatingDessert(boolean eatingDessert) {
+        this.eatingDessert = eatingDessert;
+    }
+
+    public double getArrivalTime() {
+        return arrivalTime;
+    }
+
+    public void setArrivalTime(double arrivalTime) {
+        this.arrivalTime = arrivalTime;
+    }
+
+    public double getQueueEntry() {
+        return queueEntry;
+    }
+
+    public void setQueueEntry(double queueEntry) {
+        this.queueEntry = queueEntry;
+    }
+
+    public double[] getTimeDerivatives() {
+        return timeDerivatives;
+    }
+
+    public void setTimeDerivatives(double[] timeDerivatives) {
+        this.timeDerivatives = timeDerivatives;
+    }
+
+    /**
+     * @return the route, service and resting times of this customer
+     */
+    public CustomerDemands getDemands() {
+        return demands;
+    }
+
+    /**
+     * prepares a customer that has left the cafeteria for its next visit as a new customer,
+     * the model draws its demands afterwards
+     * @param arrivalTime   the time the new customer arrives
+     */
+    public void recycle(double arrivalTime) {
+        eatingDessert = false;
+        this.arrivalTime = arrivalTime;
+        queueEntry = 0;
+    }
+}
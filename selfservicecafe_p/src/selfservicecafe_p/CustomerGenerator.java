@@ -32,11 +32,13 @@ public class CustomerGenerator extends SimProcess {
             // Parameters:
             // model            = it's part of this model
             // "Customer"       = name of the object
-            // true             = show in trace file?
-            CustomerProcess customer = new CustomerProcess(model, "Customer", true);
+            // traceIsOn()      = show in trace file? (only if the model is traced)
+            CustomerProcess customer = new CustomerProcess(model, "Customer", model.traceIsOn());
 
             customer.activateAfter(this);
 
+            // one event per arrival, as the arrival event of the event-oriented model
+            model.countEvent();
             hold(new TimeSpan(model.getCustomerArrivalTime()));
         }
     }
@@ -11,6 +11,21 @@ public class CustomerProcess extends SimProcess{
     // a reference to the model this process is part of
     private SelfServiceModel myModel;
 
+    // the store this customer writes its record to and the row of the record, null if no records are written
+    private CustomerRecordStore records;
+    private long record;
+
+    // times at which this customer entered the queue of the current station and at which its service started,
+    // both set by the station
+    private double queueEntry;
+    private double serviceStart;
+
+    // direct dispatch: the server handed over by the customer ahead, while this customer is being reactivated
+    private ServerProcess server;
+
+    // route, service and resting times of this customer, drawn on arrival
+    private final CustomerDemands demands = new CustomerDemands();
+
     /**
      * Constructor of the customer process
      * @param owner         the model this process belongs to
@@ -36,127 +51,169 @@ public class CustomerProcess extends SimProcess{
      */
     @Override
     public void lifeCycle() throws SuspendExecution {
-        double random = Math.random();
-
-        if (random < 0.4) {
-            myModel.customerSandwichBarQueue.insert(this);
-            sendTraceNote("SandwichBarQueueLength: " + myModel.customerSandwichBarQueue.length());
-
-            if (!myModel.idleSandwichBarEmployeesQueue.isEmpty()) {
-                EmployeeProcess employee = myModel.idleSandwichBarEmployeesQueue.first();
-                myModel.idleSandwichBarEmployeesQueue.remove(employee);
+        double arrivalTime = now();
+        byte path = 0;
+        records = myModel.getRecordStore();
+        if (records != null) {
+            record = records.newRecord(arrivalTime);
+        }
+        myModel.drawDemands(demands);
 
-                employee.activateAfter(this);
-            }
+        if (demands.isSandwichBar()) {
+            path |= CustomerRecordStore.PATH_SANDWICH_BAR;
+            visit(SelfServiceModel.SANDWICH_BAR);
         }
         else {
-            myModel.customerMenuBarQueue.insert(this);
-            sendTraceNote("MenuBarQueueLength: " + myModel.customerMenuBarQueue.length());
-
-            if (!myModel.idleMenuBarEmployeesQueue.isEmpty()) {
-                EmployeeProcess employee = myModel.idleMenuBarEmployeesQueue.first();
-                myModel.idleMenuBarEmployeesQueue.remove(employee);
-
-                employee.activateAfter(this);
-            }
+            visit(SelfServiceModel.MENU_BAR);
         }
-        passivate();
 
         // reactivation after sandwich bar/ menu bar
 
-        random = Math.random();
-
-        if (random < 0.9) {
-            myModel.customerDrinksBarQueue.insert(this);
-            sendTraceNote("DrinksBarQueueLength: " + myModel.customerDrinksBarQueue.length());
-
-            if (!myModel.idleDrinksBarQueue.isEmpty()) {
-                DrinksBarProcess drinksBar = myModel.idleDrinksBarQueue.first();
-                myModel.idleDrinksBarQueue.remove(drinksBar);
-
-                drinksBar.activateAfter(this);
-            }
-            passivate();
+        if (demands.isDrinksBar()) {
+            path |= CustomerRecordStore.PATH_DRINKS_BAR;
+            visit(SelfServiceModel.DRINKS_BAR);
 
             // customer is done at the drinks bar
         }
 
         // now: check out
-        myModel.customerCheckOutQueue.insert(this);
-        sendTraceNote("CheckOutQueueLength: " + myModel.customerCheckOutQueue.length());
-
-        if (!myModel.idleCheckOutEmployeesQueue.isEmpty()) {
-            EmployeeProcess employee = myModel.idleCheckOutEmployeesQueue.first();
-            myModel.idleCheckOutEmployeesQueue.remove(employee);
-
-            employee.activateAfter(this);
-        }
-        passivate();
+        visit(SelfServiceModel.CHECK_OUT);
 
         // customer is done at check out
 
         // now: eating at dining hall
-        myModel.customerDiningHallSeatsQueue.insert(this);
-        sendTraceNote("DiningHallQueue: " + myModel.customerDiningHallSeatsQueue.length());
-
-        if (!myModel.idleDiningHallSeatsQueue.isEmpty()) {
-            DiningHallProcess diningHall = myModel.idleDiningHallSeatsQueue.first();
-            myModel.idleDiningHallSeatsQueue.remove(diningHall);
-
-            diningHall.activateAfter(this);
-        }
-        passivate();
+        // wait for a free seat, eat and give the seat back
+        eat(demands.getRestingTime(false), CustomerRecordStore.DINING_HALL);
 
         // customer is done with the main dish
         // 10% get a dessert
 
-        random = Math.random();
+        if (demands.isDessert()) {
+            path |= CustomerRecordStore.PATH_DESSERT;
+            visit(SelfServiceModel.DESSERT_BAR);
 
-        if (random < 0.1) {
-            myModel.customerDessertBarQueue.insert(this);
-            sendTraceNote("DessertBarQueue: " + myModel.customerDessertBarQueue.length());
+            // done with getting the dessert
+            // now: pay for dessert
 
-            if (!myModel.idleDessertBarEmployeesQueue.isEmpty()) {
-                EmployeeProcess employee = myModel.idleDessertBarEmployeesQueue.first();
-                myModel.idleDessertBarEmployeesQueue.remove(employee);
+            visit(SelfServiceModel.DESSERT_CHECK_OUT);
 
-                employee.activateAfter(this);
+            // done with paying
+            // now: get back to the dining hall, look for a new seat
 
-                passivate();
-            }
+            eat(demands.getRestingTime(true), CustomerRecordStore.DINING_HALL_DESSERT);
+        }
 
-            // done with getting the dessert
-            // now: pay for dessert
+        myModel.customersServed.update();
+        double timeInSystem = now() - arrivalTime;
+        myModel.timeInSystem.record(timeInSystem);
+        myModel.timeInSystemBatches.add(timeInSystem);
+        sendTraceNote("Customer was served");
 
-            myModel.customerDessertCheckOutQueue.insert(this);
-            sendTraceNote("DessertCheckOutQueue: " + myModel.customerDessertCheckOutQueue.length());
+        if (records != null) {
+            records.finish(record, path, now() - arrivalTime);
+        }
+    }
 
-            if (!myModel.idleDessertCheckOutEmployeesQueue.isEmpty()) {
-                EmployeeProcess employee = myModel.idleDessertCheckOutEmployeesQueue.first();
-                myModel.idleDessertCheckOutEmployeesQueue.remove(employee);
+    /**
+     * called by the station when this customer enters its queue
+     * @param time  the time the customer enters the queue
+     */
+    void enterQueue(double time) {
+        queueEntry = time;
+    }
 
-                employee.activateAfter(this);
+    /**
+     * called by the station when a server takes this customer out of the queue
+     * @param time  the time the service starts
+     */
+    void startService(double time) {
+        serviceStart = time;
+    }
 
-                passivate();
-            }
+    /**
+     * called by the station when the customer ahead hands its server over to this customer (direct dispatch)
+     * @param server    the server that serves this customer next
+     */
+    void handOver(ServerProcess server) {
+        this.server = server;
+    }
 
-            // done with paying
-            // now: get back to the dining hall, look for a new seat
+    /**
+     * @return the time this customer waited in the queue of the current station
+     */
+    double getWaitTime() {
+        return serviceStart - queueEntry;
+    }
 
-            myModel.customerDiningHallSeatsQueue.insert(this);
-            sendTraceNote("DrinksBarQueueLength: " + myModel.customerDrinksBarQueue.length());
+    /**
+     * @return the route, service and resting times of this customer
+     */
+    CustomerDemands getDemands() {
+        return demands;
+    }
 
-            if (!myModel.idleDiningHallSeatsQueue.isEmpty()) {
-                DiningHallProcess diningHall = myModel.idleDiningHallSeatsQueue.first();
-                myModel.idleDiningHallSeatsQueue.remove(diningHall);
+    private double now() {
+        return presentTime().getTimeAsDouble();
+    }
 
-                diningHall.setMainDish(false);
-                diningHall.activateAfter(this);
+    /**
+     * The customer enters the queue of a station and waits until a server of the station has served them.
+     * With direct dispatch the customer takes an idle server or waits until one is handed over,
+     * holds for the service time and hands the server on; otherwise the server serves the customer
+     * and reactivates them.
+     * @param stationIndex  the station, see the station indices of SelfServiceModel
+     * @throws SuspendExecution
+     */
+    private void visit(int stationIndex) throws SuspendExecution {
+        Station station = myModel.getStation(stationIndex);
+
+        if (myModel.isDirectDispatch()) {
+            ServerProcess servedBy = station.seize(this);
+            if (servedBy == null) {
+                // the customer ahead hands its server over and reactivates this customer
+                passivate();
+                servedBy = server;
+                server = null;
             }
+
+            myModel.countEvent();
+            hold(new TimeSpan(station.serviceTime(this)));
+            station.release(servedBy);
+        } else {
+            station.enter(this);
+
             passivate();
+        }
 
+        myModel.observeWait(stationIndex, getWaitTime());
+        if (records != null) {
+            records.setWait(record, stationIndex, getWaitTime());
         }
+    }
 
-        sendTraceNote("Customer was served");
+    /**
+     * The customer waits for a free seat of the dining hall, eats and gives the seat back.
+     * @param restingTime   the time the meal takes in seconds
+     * @param waitColumn    the column of the record for the waiting time, main dish or dessert
+     * @throws SuspendExecution
+     */
+    private void eat(double restingTime, int waitColumn) throws SuspendExecution {
+        double entered = now();
+        if (myModel.diningHallSeats.getAvail() == 0) {
+            // the customer is woken up when a seat is given back
+            myModel.countEvent();
+        }
+        myModel.diningHallSeats.provide(1);
+
+        double waitTime = now() - entered;
+        myModel.diningHallPercentiles.recordWait(waitTime);
+        myModel.diningHallPercentiles.recordService(restingTime);
+        if (records != null) {
+            records.setWait(record, waitColumn, waitTime);
+        }
+
+        myModel.countEvent();
+        hold(new TimeSpan(restingTime));
+        myModel.diningHallSeats.takeBack(1);
     }
 }
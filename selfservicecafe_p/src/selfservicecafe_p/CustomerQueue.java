@@ -0,0 +1,307 @@
+package selfservicecafe_p;
+
+import desmoj.core.simulator.*;
+
+/**
+ * A FIFO queue for the customers of a station, used instead of DESMO-J's ProcessQueue and Queue.
+ * The customers and the times they entered are kept in two ring buffers that grow when they are full,
+ * so inserting and removing the first customer take O(1) and allocate nothing once the queue has
+ * reached its largest length. The statistics are kept in a few primitive fields: the integrals of the
+ * length and of its square over time, the minimum and maximum length, and the sum, the sum of squares
+ * and the maximum of the waiting times of the customers that have left, with the times of the extremes.
+ * Averages and standard deviations are only computed when they are read. All statistics getters of
+ * QueueBased are overridden, so DESMO-J's queue report shows the same columns as for a ProcessQueue.
+ * Trace notes are only built while they are written.
+ *
+ * @param <E> the type of the customers, entities or processes
+ */
+public class CustomerQueue<E extends Entity> extends QueueBased {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Object[] elements = new Object[INITIAL_CAPACITY];
+    private double[] entryTimes = new double[INITIAL_CAPACITY];
+    private int head;
+    private int length;
+
+    // statistics since the last reset
+    private double resetTime;
+    private double lastChange;
+    private double lengthIntegral;
+    private double lengthSquareIntegral;
+    private int maxLength;
+    private double maxLengthAt;
+    private int minLength;
+    private double minLengthAt;
+    private long departures;
+    private long zeroWaits;
+    private double waitSum;
+    private double waitSquareSum;
+    private double maxWait;
+    private double maxWaitAt;
+
+    /**
+     * Constructor of the CustomerQueue
+     * @param owner         the model this queue belongs to
+     * @param name          this queue's name
+     * @param showInReport  flag to indicate if this queue shall produce output to the report file
+     * @param showInTrace   flag to indicate if this queue shall produce output for the trace
+     */
+    public CustomerQueue(Model owner, String name, boolean showInReport, boolean showInTrace) {
+        super(owner, name, showInReport, showInTrace);
+    }
+
+    /**
+     * inserts a customer at the end of the queue
+     * @param customer  the customer
+     * @return true, a customer is always inserted
+     */
+    public boolean insert(E customer) {
+        double now = presentTime().getTimeAsDouble();
+        if (length == elements.length) {
+            grow();
+        }
+        int tail = (head + length) & (elements.length - 1);
+        elements[tail] = customer;
+        entryTimes[tail] = now;
+
+        addLengthIntegrals(now);
+        length++;
+        if (length > maxLength) {
+            maxLength = length;
+            maxLengthAt = now;
+        }
+        incrementObservations();
+
+        if (currentlySendTraceNotes()) {
+            sendTraceNote("inserts " + customer.getQuotedName() + " in " + getQuotedName());
+        }
+        return true;
+    }
+
+    /**
+     * @return the first customer, null if the queue is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E first() {
+        return length == 0 ? null : (E) elements[head];
+    }
+
+    /**
+     * removes the first customer
+     * @return the customer, null if the queue is empty
+     */
+    public E removeFirst() {
+        E customer = first();
+        if (customer != null) {
+            removeAt(0);
+        }
+        return customer;
+    }
+
+    /**
+     * removes a customer, usually the first one; any other one is searched and the customers
+     * behind it are moved up
+     * @param customer  the customer
+     */
+    public void remove(E customer) {
+        for (int i = 0; i < length; i++) {
+            if (elements[(head + i) & (elements.length - 1)] == customer) {
+                removeAt(i);
+                return;
+            }
+        }
+        sendWarning("Can not remove a customer that is not in the queue.",
+                "CustomerQueue : " + getName() + " Method: void remove(E customer)",
+                "The customer is not in this queue.",
+                "Only remove customers that are in the queue.");
+    }
+
+    /**
+     * @param customer  a customer in this queue
+     * @return the time the customer entered the queue, NaN if it is not in the queue
+     */
+    public double entryTime(E customer) {
+        for (int i = 0; i < length; i++) {
+            int index = (head + i) & (elements.length - 1);
+            if (elements[index] == customer) {
+                return entryTimes[index];
+            }
+        }
+        return Double.NaN;
+    }
+
+    private void removeAt(int position) {
+        double now = presentTime().getTimeAsDouble();
+        int mask = elements.length - 1;
+        int index = (head + position) & mask;
+        Object customer = elements[index];
+        double wait = now - entryTimes[index];
+
+        // move the customers ahead of it back by one, usually none
+        for (int i = position; i > 0; i--) {
+            int to = (head + i) & mask;
+            int from = (head + i - 1) & mask;
+            elements[to] = elements[from];
+            entryTimes[to] = entryTimes[from];
+        }
+        elements[head] = null;
+        head = (head + 1) & mask;
+
+        addLengthIntegrals(now);
+        length--;
+        if (length < minLength) {
+            minLength = length;
+            minLengthAt = now;
+        }
+        departures++;
+        waitSum += wait;
+        waitSquareSum += wait * wait;
+        if (wait == 0) {
+            zeroWaits++;
+        }
+        if (wait > maxWait) {
+            maxWait = wait;
+            maxWaitAt = now;
+        }
+
+        if (currentlySendTraceNotes()) {
+            sendTraceNote("removes " + ((Entity) customer).getQuotedName() + " from " + getQuotedName());
+        }
+    }
+
+    // adds the current length and its square over the time since the last change
+    private void addLengthIntegrals(double now) {
+        double elapsed = now - lastChange;
+        lengthIntegral += length * elapsed;
+        lengthSquareIntegral += (double) length * length * elapsed;
+        lastChange = now;
+    }
+
+    // doubles both ring buffers, the first customer moves to index 0
+    private void grow() {
+        Object[] newElements = new Object[2 * elements.length];
+        double[] newEntryTimes = new double[2 * elements.length];
+        for (int i = 0; i < length; i++) {
+            int index = (head + i) & (elements.length - 1);
+            newElements[i] = elements[index];
+            newEntryTimes[i] = entryTimes[index];
+        }
+        elements = newElements;
+        entryTimes = newEntryTimes;
+        head = 0;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    @Override
+    public int maxLength() {
+        return maxLength;
+    }
+
+    @Override
+    public TimeInstant maxLengthAt() {
+        return new TimeInstant(maxLengthAt);
+    }
+
+    @Override
+    public int minLength() {
+        return minLength;
+    }
+
+    @Override
+    public TimeInstant minLengthAt() {
+        return new TimeInstant(minLengthAt);
+    }
+
+    @Override
+    public double averageLength() {
+        double now = presentTime().getTimeAsDouble();
+        double observed = now - resetTime;
+        if (observed <= 0) {
+            return length;
+        }
+        return (lengthIntegral + length * (now - lastChange)) / observed;
+    }
+
+    /**
+     * @return the standard deviation of the length over the time since the last reset
+     */
+    @Override
+    public double stdDevLength() {
+        double now = presentTime().getTimeAsDouble();
+        double observed = now - resetTime;
+        if (observed <= 0) {
+            return 0;
+        }
+        double mean = averageLength();
+        double meanSquare = (lengthSquareIntegral + (double) length * length * (now - lastChange)) / observed;
+        return Math.sqrt(Math.max(0, meanSquare - mean * mean));
+    }
+
+    /**
+     * @return the mean waiting time of the customers that have left the queue since the last reset
+     */
+    @Override
+    public TimeSpan averageWaitTime() {
+        return new TimeSpan(departures == 0 ? 0 : waitSum / departures);
+    }
+
+    /**
+     * @return the standard deviation of the waiting times of the customers that have left since the last reset
+     */
+    @Override
+    public TimeSpan stdDevWaitTime() {
+        if (departures == 0) {
+            return new TimeSpan(0);
+        }
+        double mean = waitSum / departures;
+        return new TimeSpan(Math.sqrt(Math.max(0, waitSquareSum / departures - mean * mean)));
+    }
+
+    @Override
+    public TimeSpan maxWaitTime() {
+        return new TimeSpan(maxWait);
+    }
+
+    @Override
+    public TimeInstant maxWaitTimeAt() {
+        return new TimeInstant(maxWaitAt);
+    }
+
+    @Override
+    public long zeroWaits() {
+        return zeroWaits;
+    }
+
+    /**
+     * resets the statistics, the customers stay in the queue
+     */
+    @Override
+    public void reset() {
+        super.reset();
+        double now = presentTime() == null ? 0 : presentTime().getTimeAsDouble();
+        resetTime = now;
+        lastChange = now;
+        lengthIntegral = 0;
+        lengthSquareIntegral = 0;
+        maxLength = length;
+        maxLengthAt = now;
+        minLength = length;
+        minLengthAt = now;
+        departures = 0;
+        zeroWaits = 0;
+        waitSum = 0;
+        waitSquareSum = 0;
+        maxWait = 0;
+        maxWaitAt = now;
+    }
+}
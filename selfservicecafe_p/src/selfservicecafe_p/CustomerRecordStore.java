@@ -0,0 +1,313 @@
+package selfservicecafe_p;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * This class stores one record per customer in memory-mapped files: one file per column with
+ * fixed-width primitive values, and a small index (index.properties) with the number of records
+ * and the columns. Row i of every column belongs to the i-th customer that arrived.
+ * The files are mapped in segments of 2^20 rows, so writing a value is an absolute put into a
+ * mapped buffer (little endian). Nothing is allocated per record and the heap does not grow with
+ * the number of customers, the data lives in the page cache. A store is used by one model, i.e. one thread.
+ *
+ * Columns:
+ *      arrival             arrival time in seconds (double)
+ *      wait.NAME           waiting time in seconds, NaN if not visited (double), for the six stations,
+ *                          the dining hall (main dish) and the dining hall for the dessert
+ *      path                the path taken, a combination of the PATH_ bits, PATH_UNFINISHED (-1) if still
+ *                          inside at the end (byte)
+ *      timeInSystem        time from the arrival until the customer left, NaN if still inside at the end (double)
+ */
+public class CustomerRecordStore implements Closeable {
+
+    // bits of the path column, a customer without PATH_SANDWICH_BAR went to the menu bar
+    public static final byte PATH_SANDWICH_BAR = 1;
+    public static final byte PATH_DRINKS_BAR = 2;
+    public static final byte PATH_DESSERT = 4;
+    // the path of a customer still inside the cafeteria, no combination of the bits above
+    public static final byte PATH_UNFINISHED = -1;
+
+    // the wait columns are indexed by the station indices of SelfServiceModel, followed by the dining hall
+    public static final int DINING_HALL = 6;
+    public static final int DINING_HALL_DESSERT = 7;
+    private static final String[] WAIT_COLUMNS = {
+            "SandwichBar", "MenuBar", "CheckOut", "DessertBar", "DessertCheckOut", "DrinksBar",
+            "DiningHall", "DiningHallDessert"
+    };
+
+    // name of the index file in the directory of the store
+    public static final String INDEX_FILE = "index.properties";
+
+    private static final int SEGMENT_SHIFT = 20;
+    private static final int SEGMENT_ROWS = 1 << SEGMENT_SHIFT;
+
+    private final Path directory;
+    private final boolean writable;
+
+    private final Column arrival;
+    private final Column[] waits;
+    private final Column path;
+    private final Column timeInSystem;
+    private final Column[] columns;
+
+    // number of records
+    private long size;
+
+    private CustomerRecordStore(Path directory, boolean writable) throws IOException {
+        this.directory = directory;
+        this.writable = writable;
+
+        arrival = new Column(directory, "arrival", Double.BYTES, writable);
+        waits = new Column[WAIT_COLUMNS.length];
+        for (int i = 0; i < waits.length; i++) {
+            waits[i] = new Column(directory, "wait." + WAIT_COLUMNS[i], Double.BYTES, writable);
+        }
+        path = new Column(directory, "path", Byte.BYTES, writable);
+        timeInSystem = new Column(directory, "timeInSystem", Double.BYTES, writable);
+
+        columns = new Column[waits.length + 3];
+        columns[0] = arrival;
+        System.arraycopy(waits, 0, columns, 1, waits.length);
+        columns[waits.length + 1] = path;
+        columns[waits.length + 2] = timeInSystem;
+    }
+
+    /**
+     * creates a new, empty store, existing column files in the directory are overwritten
+     * @param directory the directory of the store, created if it does not exist
+     * @return the store, open for writing
+     * @throws IOException if the files cannot be created
+     */
+    public static CustomerRecordStore create(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        return new CustomerRecordStore(directory, true);
+    }
+
+    /**
+     * opens a store written before for reading
+     * @param directory the directory of the store
+     * @return the store, open for reading
+     * @throws IOException if the index or a column file cannot be read
+     */
+    public static CustomerRecordStore open(Path directory) throws IOException {
+        Properties index = new Properties();
+        try (Reader reader = Files.newBufferedReader(directory.resolve(INDEX_FILE), StandardCharsets.UTF_8)) {
+            index.load(reader);
+        }
+
+        CustomerRecordStore store = new CustomerRecordStore(directory, false);
+        if (!store.columnNames().equals(index.getProperty("columns"))) {
+            store.close();
+            throw new IOException("Error: the columns of " + directory + " are " + index.getProperty("columns"));
+        }
+        store.size = Long.parseLong(index.getProperty("records"));
+        return store;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return the number of records
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return the number of wait columns
+     */
+    public static int getWaitColumnCount() {
+        return WAIT_COLUMNS.length;
+    }
+
+    /**
+     * @param column    the index of a wait column
+     * @return the name of the station of a wait column
+     */
+    public static String getWaitColumnName(int column) {
+        return WAIT_COLUMNS[column];
+    }
+
+    /**
+     * adds the record of an arriving customer, all waiting times are NaN and the path is PATH_UNFINISHED
+     * until they are set
+     * @param arrivalTime   the arrival time in seconds
+     * @return the row of the new record
+     */
+    public long newRecord(double arrivalTime) {
+        long row = size++;
+        arrival.putDouble(row, arrivalTime);
+        for (Column wait : waits) {
+            wait.putDouble(row, Double.NaN);
+        }
+        path.putByte(row, PATH_UNFINISHED);
+        timeInSystem.putDouble(row, Double.NaN);
+        return row;
+    }
+
+    /**
+     * sets the waiting time of a customer at a station
+     * @param row       the row of the customer
+     * @param column    the station index of SelfServiceModel, DINING_HALL or DINING_HALL_DESSERT
+     * @param waitTime  the waiting time in seconds
+     */
+    public void setWait(long row, int column, double waitTime) {
+        waits[column].putDouble(row, waitTime);
+    }
+
+    /**
+     * sets the path and the time in system of a customer leaving the cafeteria
+     * @param row           the row of the customer
+     * @param pathTaken     a combination of the PATH_ bits
+     * @param timeInSystem  the time from the arrival until now in seconds
+     */
+    public void finish(long row, byte pathTaken, double timeInSystem) {
+        path.putByte(row, pathTaken);
+        this.timeInSystem.putDouble(row, timeInSystem);
+    }
+
+    public double getArrivalTime(long row) {
+        return arrival.getDouble(checkRow(row));
+    }
+
+    public double getWait(long row, int column) {
+        return waits[column].getDouble(checkRow(row));
+    }
+
+    public byte getPath(long row) {
+        return path.getByte(checkRow(row));
+    }
+
+    public double getTimeInSystem(long row) {
+        return timeInSystem.getDouble(checkRow(row));
+    }
+
+    private long checkRow(long row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Error: record " + row + " does not exist, the store has " + size + ".");
+        }
+        return row;
+    }
+
+    private String columnNames() {
+        StringBuilder names = new StringBuilder();
+        for (Column column : columns) {
+            if (names.length() > 0) {
+                names.append(',');
+            }
+            names.append(column.name);
+        }
+        return names.toString();
+    }
+
+    /**
+     * writes the index and closes the column files
+     * @throws IOException if the index cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (writable) {
+            Properties index = new Properties();
+            index.setProperty("records", Long.toString(size));
+            index.setProperty("columns", columnNames());
+            index.setProperty("segmentRows", Integer.toString(SEGMENT_ROWS));
+            index.setProperty("byteOrder", ByteOrder.LITTLE_ENDIAN.toString());
+            for (Column column : columns) {
+                index.setProperty("column." + column.name + ".bytes", Integer.toString(column.width));
+            }
+            try (Writer writer = Files.newBufferedWriter(directory.resolve(INDEX_FILE), StandardCharsets.UTF_8)) {
+                index.store(writer, "customer records of the self service cafeteria");
+            }
+        }
+        for (Column column : columns) {
+            column.channel.close();
+        }
+    }
+
+    /**
+     * One column: a file of fixed-width values, mapped segment by segment when first used.
+     */
+    private static final class Column {
+
+        private final String name;
+        private final int width;
+        private final boolean writable;
+        private final FileChannel channel;
+
+        private MappedByteBuffer[] segments = new MappedByteBuffer[16];
+
+        private Column(Path directory, String name, int width, boolean writable) throws IOException {
+            this.name = name;
+            this.width = width;
+            this.writable = writable;
+
+            Path file = directory.resolve(name + ".bin");
+            channel = writable
+                    ? FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                            StandardOpenOption.READ, StandardOpenOption.WRITE)
+                    : FileChannel.open(file, StandardOpenOption.READ);
+        }
+
+        private void putDouble(long row, double value) {
+            segment(row).putDouble(offset(row), value);
+        }
+
+        private void putByte(long row, byte value) {
+            segment(row).put(offset(row), value);
+        }
+
+        private double getDouble(long row) {
+            return segment(row).getDouble(offset(row));
+        }
+
+        private byte getByte(long row) {
+            return segment(row).get(offset(row));
+        }
+
+        private int offset(long row) {
+            return (int) (row & (SEGMENT_ROWS - 1)) * width;
+        }
+
+        private ByteBuffer segment(long row) {
+            int index = (int) (row >>> SEGMENT_SHIFT);
+            if (index < segments.length && segments[index] != null) {
+                return segments[index];
+            }
+            return map(index);
+        }
+
+        // maps a segment, this is the only place that allocates, once per 2^20 rows
+        private ByteBuffer map(int index) {
+            if (index >= segments.length) {
+                segments = Arrays.copyOf(segments, Math.max(segments.length * 2, index + 1));
+            }
+            long segmentBytes = (long) SEGMENT_ROWS * width;
+            try {
+                MappedByteBuffer segment = channel.map(
+                        writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                        index * segmentBytes, segmentBytes);
+                segment.order(ByteOrder.LITTLE_ENDIAN);
+                segments[index] = segment;
+                return segment;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error: cannot map segment " + index + " of column " + name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package selfservicecafe_p;
+
+import desmoj.core.dist.*;
+import desmoj.core.simulator.Model;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * This class describes a continuous distribution by its family and its parameters,
+ * e.g. "uniform(30, 90)", so that distributions can be read from scenario files
+ * and created for any model.
+ *
+ * Supported families:
+ *      uniform(lower, upper)
+ *      exponential(mean)
+ *      normal(mean, standard deviation), truncated at zero
+ *      constant(value)
+ */
+public class DistributionSpec {
+
+    private final String family;
+    private final double[] parameters;
+
+    /**
+     * Constructor of the DistributionSpec
+     * @param family        the family, e.g. "uniform"
+     * @param parameters    the parameters of the family
+     */
+    public DistributionSpec(String family, double... parameters) {
+        this.family = family.trim().toLowerCase(Locale.ROOT);
+        this.parameters = parameters.clone();
+
+        int expected = expectedParameters(this.family);
+        if (parameters.length != expected) {
+            throw new IllegalArgumentException("Error: distribution " + family + " needs " + expected
+                    + " parameters, but got " + parameters.length + ".");
+        }
+    }
+
+    public static DistributionSpec uniform(double lower, double upper) {
+        return new DistributionSpec("uniform", lower, upper);
+    }
+
+    /**
+     * parses a distribution like "uniform(30, 90)" or "exponential(25)"
+     * @param text  the text to parse
+     * @return the distribution
+     */
+    public static DistributionSpec parse(String text) {
+        String trimmed = text.trim();
+        int open = trimmed.indexOf('(');
+        if (open < 0 || !trimmed.endsWith(")")) {
+            throw new IllegalArgumentException("Error: \"" + text + "\" is not a distribution like uniform(30, 90).");
+        }
+
+        String family = trimmed.substring(0, open);
+        String arguments = trimmed.substring(open + 1, trimmed.length() - 1).trim();
+
+        double[] parameters;
+        if (arguments.isEmpty()) {
+            parameters = new double[0];
+        } else {
+            String[] parts = arguments.split(",");
+            parameters = new double[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                parameters[i] = Double.parseDouble(parts[i].trim());
+            }
+        }
+        return new DistributionSpec(family, parameters);
+    }
+
+    private static int expectedParameters(String family) {
+        switch (family) {
+            case "uniform":
+            case "normal":
+                return 2;
+            case "exponential":
+            case "constant":
+                return 1;
+            default:
+                throw new IllegalArgumentException("Error: distribution family " + family + " does not exist.");
+        }
+    }
+
+    /**
+     * creates the described distribution
+     * @param owner         the model the distribution belongs to
+     * @param name          the name of the stream
+     * @param showInReport  flag to indicate if the distribution shall produce output to the report file
+     * @param showInTrace   flag to indicate if the distribution shall produce output to the trace file
+     * @return the distribution
+     */
+    public ContDist create(Model owner, String name, boolean showInReport, boolean showInTrace) {
+        switch (family) {
+            case "uniform":
+                return new ContDistUniform(owner, name, parameters[0], parameters[1], showInReport, showInTrace);
+            case "exponential":
+                return new ContDistExponential(owner, name, parameters[0], showInReport, showInTrace);
+            case "normal":
+                ContDistNormal normal = new ContDistNormal(owner, name, parameters[0], parameters[1], showInReport, showInTrace);
+                normal.setNonNegative(true);
+                return normal;
+            case "constant":
+                return new ContDistConstant(owner, name, parameters[0], showInReport, showInTrace);
+            default:
+                throw new IllegalStateException("Error: distribution family " + family + " does not exist.");
+        }
+    }
+
+    public String getFamily() {
+        return family;
+    }
+
+    public double getParameter(int index) {
+        return parameters[index];
+    }
+
+    public int getParameterCount() {
+        return parameters.length;
+    }
+
+    /**
+     * @param index the index of the parameter
+     * @return the name of the parameter, e.g. "lower" for the first parameter of the uniform family
+     */
+    public String getParameterName(int index) {
+        switch (family) {
+            case "uniform":
+                return index == 0 ? "lower" : "upper";
+            case "normal":
+                return index == 0 ? "mean" : "sd";
+            case "exponential":
+                return "mean";
+            default:
+                return "value";
+        }
+    }
+
+    /**
+     * returns the derivative of a sampled value with respect to one parameter, with the random numbers
+     * the value was drawn from held fixed. All families are location-scale families:
+     *      uniform         lower + (upper - lower) * u
+     *      exponential     mean * x, x exponential with mean 1
+     *      normal          mean + sd * z; negative samples are drawn again, so a sample is always
+     *                      mean + sd * z of the z that was kept
+     *      constant        value
+     * @param index the index of the parameter
+     * @param value the sampled value
+     * @return the derivative
+     */
+    public double derivative(int index, double value) {
+        switch (family) {
+            case "uniform":
+                double u = (value - parameters[0]) / (parameters[1] - parameters[0]);
+                return index == 0 ? 1.0 - u : u;
+            case "exponential":
+                return value / parameters[0];
+            case "normal":
+                return index == 0 ? 1.0 : (value - parameters[0]) / parameters[1];
+            default:
+                return 1.0;
+        }
+    }
+
+    /**
+     * returns the mean of the described distribution (for the normal family: before truncation)
+     * @return the mean
+     */
+    public double getMean() {
+        switch (family) {
+            case "uniform":
+                return (parameters[0] + parameters[1]) / 2.0;
+            default:
+                return parameters[0];
+        }
+    }
+
+    /**
+     * returns a copy of this distribution with one parameter changed
+     * @param index the index of the parameter
+     * @param value the new value
+     * @return the changed copy
+     */
+    public DistributionSpec withParameter(int index, double value) {
+        double[] changed = parameters.clone();
+        changed[index] = value;
+        return new DistributionSpec(family, changed);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(family).append('(');
+        for (int i = 0; i < parameters.length; i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            text.append(parameters[i]);
+        }
+        return text.append(')').toString();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof DistributionSpec)) {
+            return false;
+        }
+        DistributionSpec spec = (DistributionSpec) other;
+        return family.equals(spec.family) && Arrays.equals(parameters, spec.parameters);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * family.hashCode() + Arrays.hashCode(parameters);
+    }
+}
@@ -0,0 +1,86 @@
+package selfservicecafe_p;
+
+import java.util.SplittableRandom;
+
+/**
+ * This class checks the calendar and the ladder queue against the tree of DESMO-J's event list: random
+ * sequences of inserts and removals are applied to all three, and every removal must return the same
+ * event at the same time, also for events with the same time, which must leave in the order they came.
+ * The times are drawn from four distributions in turn: spread evenly, tied to few distinct times,
+ * bimodal (most events right away, some far ahead) and skewed (a power of a uniform number), the cases
+ * that trip up the width estimate of the calendar queue and the rungs of the ladder queue.
+ */
+public class EventListCheck {
+
+    private static final int OPERATIONS = 20000;
+
+    // the time until an event of sequence seed is due
+    private static double increment(SplittableRandom random, long seed) {
+        switch ((int) (seed % 4)) {
+            case 0:
+                return random.nextDouble(10, 60);
+            case 1:
+                return random.nextInt(4);
+            case 2:
+                return random.nextDouble() < 0.9 ? random.nextDouble() * 1e-3 : random.nextDouble() * 1e5;
+            default:
+                return Math.pow(random.nextDouble(), 15) * 1e4;
+        }
+    }
+
+    /**
+     * applies one random sequence of inserts and removals to an event list and to a TreeEventList
+     * @param kind  the kind of the event list
+     * @param seed  the seed of the sequence, it also selects the distribution of the times
+     * @throws IllegalStateException if the event list differs from the tree
+     */
+    static void check(EventListKind kind, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        PendingEventList<Integer> events = kind.create();
+        PendingEventList<Integer> expected = new TreeEventList<>();
+        double now = 0;
+        int next = 0;
+        for (int operation = 0; operation < OPERATIONS; operation++) {
+            // slightly more inserts than removals, so the lists grow and shrink through several sizes
+            if (expected.isEmpty() || random.nextDouble() < 0.52) {
+                double time = now + increment(random, seed);
+                events.insert(time, next);
+                expected.insert(time, next);
+                next++;
+            } else {
+                double time = expected.firstTime();
+                double actualTime = events.firstTime();
+                Integer event = expected.removeFirst();
+                Integer actual = events.removeFirst();
+                if (time != actualTime || !event.equals(actual)) {
+                    throw new IllegalStateException("Error: " + kind + ", sequence " + seed + ", operation "
+                            + operation + ": removed event " + actual + " at " + actualTime + " instead of "
+                            + event + " at " + time + ".");
+                }
+                now = time;
+            }
+            if (events.size() != expected.size()) {
+                throw new IllegalStateException("Error: " + kind + ", sequence " + seed + ", operation "
+                        + operation + ": " + events.size() + " events instead of " + expected.size() + ".");
+            }
+        }
+    }
+
+    /**
+     * Checks the event lists, fails with an IllegalStateException if one differs from the tree
+     * @param args  [number of sequences per kind]
+     */
+    public static void main(String[] args) {
+        int sequences = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        for (EventListKind kind : EventListKind.values()) {
+            if (kind == EventListKind.TREE) {
+                continue;
+            }
+            for (long seed = 0; seed < sequences; seed++) {
+                check(kind, seed);
+            }
+        }
+        System.out.println("event lists checked: " + sequences + " sequences of " + OPERATIONS
+                + " operations per kind");
+    }
+}
@@ -0,0 +1,49 @@
+package selfservicecafe_p;
+
+/**
+ * The implementations of a PendingEventList that can be selected by EventListBenchmark and are checked
+ * by EventListCheck. The models do not use them: DESMO-J's scheduler creates its own EventTreeList.
+ */
+public enum EventListKind {
+
+    // a tree of the event times, like DESMO-J's default EventTreeList, O(log n)
+    TREE {
+        @Override
+        public <E> PendingEventList<E> create() {
+            return new TreeEventList<>();
+        }
+    },
+
+    // buckets of one day each, resized with the number of events or when they get crowded, O(1) on average
+    // unless the next events are far denser than the later ones
+    CALENDAR {
+        @Override
+        public <E> PendingEventList<E> create() {
+            return new CalendarQueue<>();
+        }
+    },
+
+    // unsorted Top, rungs of buckets and a short sorted Bottom, O(1) amortized
+    LADDER {
+        @Override
+        public <E> PendingEventList<E> create() {
+            return new LadderQueue<>();
+        }
+    };
+
+    /**
+     * creates a new, empty event list of this kind
+     * @param <E>   the type of the events
+     * @return the event list
+     */
+    public abstract <E> PendingEventList<E> create();
+
+    /**
+     * parses a kind name, ignoring case
+     * @param name  the name, e.g. "ladder"
+     * @return the kind
+     */
+    public static EventListKind parse(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,303 @@
+package selfservicecafe_p;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * This class estimates how much the mean and the 95th percentile of the waiting times change with the
+ * parameters of the service and resting time distributions, from the same replications that estimate the
+ * waiting times themselves (see PerturbationAnalysis). The replications run the event-oriented model in
+ * parallel, the derivatives are reported as means over the replications with confidence intervals.
+ *
+ * For a check, the derivatives can also be estimated by central finite differences with common random
+ * numbers: every parameter is moved up and down by 5% and both scenarios are run with the seeds of the
+ * replications, 2 * parameters * replications runs more.
+ */
+public class GradientEstimation {
+
+    // the stations in the order of CafeteriaModel.getCustomerQueues(), the dining hall last
+    private static final int[] QUEUES = {
+            SelfServiceModel.SANDWICH_BAR, SelfServiceModel.MENU_BAR, SelfServiceModel.DRINKS_BAR,
+            SelfServiceModel.CHECK_OUT, SelfServiceModel.DESSERT_BAR, SelfServiceModel.DESSERT_CHECK_OUT,
+            PerturbationAnalysis.DINING_HALL
+    };
+
+    // relative step of the finite differences
+    private static final double STEP = 0.05;
+
+    private final Scenario scenario;
+    private final int replications;
+    private final int parallelism;
+    private final PerturbationAnalysis parameters;
+
+    // per queue (in the order of QUEUES) and parameter: derivatives of the mean and the p95 waiting time
+    private final SummaryStatistic[][] meanDerivatives;
+    private final SummaryStatistic[][] percentileDerivatives;
+    private final SummaryStatistic[] meanWaits;
+    private final SummaryStatistic[] percentileWaits;
+
+    /**
+     * Constructor of the GradientEstimation
+     * @param scenario      the parameters of the cafeteria, its seed is the base seed of the replications
+     * @param replications  the number of replications
+     * @param parallelism   the number of replications running at the same time
+     */
+    public GradientEstimation(Scenario scenario, int replications, int parallelism) {
+        this.scenario = scenario;
+        this.replications = replications;
+        this.parallelism = parallelism;
+        this.parameters = new PerturbationAnalysis(scenario);
+
+        meanDerivatives = new SummaryStatistic[QUEUES.length][parameters.getParameterCount()];
+        percentileDerivatives = new SummaryStatistic[QUEUES.length][parameters.getParameterCount()];
+        meanWaits = new SummaryStatistic[QUEUES.length];
+        percentileWaits = new SummaryStatistic[QUEUES.length];
+        for (int q = 0; q < QUEUES.length; q++) {
+            meanWaits[q] = new SummaryStatistic(getQueueName(q) + " avg. wait [s]");
+            percentileWaits[q] = new SummaryStatistic(getQueueName(q) + " p95 wait [s]");
+            for (int j = 0; j < parameters.getParameterCount(); j++) {
+                meanDerivatives[q][j] = new SummaryStatistic("d avg. wait / d " + parameters.getParameterName(j));
+                percentileDerivatives[q][j] = new SummaryStatistic("d p95 wait / d " + parameters.getParameterName(j));
+            }
+        }
+    }
+
+    /**
+     * @param queue the queue in the order of CafeteriaModel.getCustomerQueues()
+     * @return the name of its station, or DiningHall
+     */
+    public String getQueueName(int queue) {
+        return QUEUES[queue] == PerturbationAnalysis.DINING_HALL ? "DiningHall"
+                : scenario.getStation(QUEUES[queue]).getName();
+    }
+
+    public int getQueueCount() {
+        return QUEUES.length;
+    }
+
+    public int getParameterCount() {
+        return parameters.getParameterCount();
+    }
+
+    public String getParameterName(int parameter) {
+        return parameters.getParameterName(parameter);
+    }
+
+    /**
+     * runs the replications with perturbation analysis and adds them in the order of the replications
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void run() throws InterruptedException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<Future<double[][][]>> futures = new ArrayList<>(replications);
+            for (int i = 0; i < replications; i++) {
+                final int replication = i;
+                futures.add(pool.submit(() -> runReplication(replication)));
+            }
+            for (Future<double[][][]> future : futures) {
+                double[][][] values;
+                try {
+                    values = future.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Error: replication failed.", e.getCause());
+                }
+                for (int q = 0; q < QUEUES.length; q++) {
+                    meanWaits[q].update(values[q][2][0]);
+                    percentileWaits[q].update(values[q][2][1]);
+                    for (int j = 0; j < parameters.getParameterCount(); j++) {
+                        meanDerivatives[q][j].update(values[q][0][j]);
+                        percentileDerivatives[q][j].update(values[q][1][j]);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // per queue: the derivatives of the mean, those of the p95 and the mean and p95 waiting time themselves
+    private double[][][] runReplication(int replication) {
+        long seed = RandomStreams.replicationSeed(scenario.getSeed(), replication);
+        SelfServiceEventModel model = new SelfServiceEventModel(null, "Self Service Cafe Model", true,
+                RunMode.PRODUCTION.isTraced(), scenario, seed);
+        model.setPerturbationAnalysis(true);
+        ReplicationResult result = ReplicationRunner.runModel(model, scenario, replication, seed, exp -> { });
+        PerturbationAnalysis analysis = model.getPerturbationAnalysis();
+
+        double[][][] values = new double[QUEUES.length][][];
+        for (int q = 0; q < QUEUES.length; q++) {
+            double[] means = new double[parameters.getParameterCount()];
+            for (int j = 0; j < means.length; j++) {
+                means[j] = analysis.getMeanWaitDerivative(QUEUES[q], j);
+            }
+            values[q] = new double[][] {
+                    means,
+                    analysis.getPercentileWaitDerivatives(QUEUES[q], 95),
+                    {result.getAverageWaitTime(q), result.getWaitTimeHistogram(q).getValueAtPercentile(95)}
+            };
+        }
+        return values;
+    }
+
+    public SummaryStatistic getMeanWait(int queue) {
+        return meanWaits[queue];
+    }
+
+    public SummaryStatistic getPercentileWait(int queue) {
+        return percentileWaits[queue];
+    }
+
+    /**
+     * @param queue     the queue in the order of CafeteriaModel.getCustomerQueues()
+     * @param parameter the parameter
+     * @return the derivatives of the mean waiting time of the replications
+     */
+    public SummaryStatistic getMeanDerivative(int queue, int parameter) {
+        return meanDerivatives[queue][parameter];
+    }
+
+    /**
+     * @param queue     the queue in the order of CafeteriaModel.getCustomerQueues()
+     * @param parameter the parameter
+     * @return the derivatives of the 95th percentile of the waiting times of the replications
+     */
+    public SummaryStatistic getPercentileDerivative(int queue, int parameter) {
+        return percentileDerivatives[queue][parameter];
+    }
+
+    /**
+     * estimates the derivatives of the mean and the p95 waiting times of all queues with respect to one parameter
+     * by central finite differences with common random numbers
+     * @param parameter the parameter
+     * @return per queue in the order of CafeteriaModel.getCustomerQueues(): the derivative of the mean and
+     *         of the p95 waiting time, each over the replications
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public SummaryStatistic[][] finiteDifferences(int parameter) throws InterruptedException {
+        int distribution = parameters.getDistribution(parameter);
+        DistributionSpec spec = distribution < PerturbationAnalysis.MAIN_DISH
+                ? scenario.getStation(distribution).getServiceTime()
+                : distribution == PerturbationAnalysis.MAIN_DISH ? scenario.getRestingTimeMainDish()
+                : scenario.getRestingTimeDessert();
+        double value = spec.getParameter(parameters.getDistributionParameter(parameter));
+        double step = Math.max(STEP * Math.abs(value), 0.5);
+        Scenario up = perturb(distribution, spec, parameter, value + step);
+        Scenario down = perturb(distribution, spec, parameter, value - step);
+
+        SummaryStatistic[][] derivatives = new SummaryStatistic[QUEUES.length][];
+        for (int q = 0; q < QUEUES.length; q++) {
+            derivatives[q] = new SummaryStatistic[] {
+                    new SummaryStatistic("finite differences d avg. wait / d " + getParameterName(parameter)),
+                    new SummaryStatistic("finite differences d p95 wait / d " + getParameterName(parameter))
+            };
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<Future<ReplicationResult>> futures = new ArrayList<>(2 * replications);
+            for (int i = 0; i < replications; i++) {
+                final int replication = i;
+                long seed = RandomStreams.replicationSeed(scenario.getSeed(), replication);
+                futures.add(pool.submit(() ->
+                        ReplicationRunner.runReplication(ModelVariant.EVENT, up, replication, seed)));
+                futures.add(pool.submit(() ->
+                        ReplicationRunner.runReplication(ModelVariant.EVENT, down, replication, seed)));
+            }
+            for (int i = 0; i < replications; i++) {
+                ReplicationResult upper;
+                ReplicationResult lower;
+                try {
+                    upper = futures.get(2 * i).get();
+                    lower = futures.get(2 * i + 1).get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Error: replication failed.", e.getCause());
+                }
+                for (int q = 0; q < QUEUES.length; q++) {
+                    derivatives[q][0].update((upper.getAverageWaitTime(q) - lower.getAverageWaitTime(q))
+                            / (2 * step));
+                    derivatives[q][1].update((upper.getWaitTimeHistogram(q).getValueAtPercentile(95)
+                            - lower.getWaitTimeHistogram(q).getValueAtPercentile(95)) / (2 * step));
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return derivatives;
+    }
+
+    private Scenario perturb(int distribution, DistributionSpec spec, int parameter, double value) {
+        DistributionSpec changed = spec.withParameter(parameters.getDistributionParameter(parameter), value);
+        if (distribution == PerturbationAnalysis.MAIN_DISH) {
+            return scenario.withDistributions(scenario.getCustomerArrivalTime(), changed,
+                    scenario.getRestingTimeDessert());
+        }
+        if (distribution == PerturbationAnalysis.DESSERT) {
+            return scenario.withDistributions(scenario.getCustomerArrivalTime(), scenario.getRestingTimeMainDish(),
+                    changed);
+        }
+        return scenario.withStation(distribution, scenario.getStation(distribution).withServiceTime(changed));
+    }
+
+    /**
+     * Estimates the derivatives of the waiting times
+     * @param args  [replications] [scenario file] [queue: a station name, DiningHall or all] [check]
+     * @throws IOException if the scenario file cannot be read
+     * @throws InterruptedException if interrupted while waiting for the replications
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int replications = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        Scenario scenario = args.length > 1 ? ScenarioLoader.load(Paths.get(args[1])) : Scenario.defaults();
+        String queueName = args.length > 2 ? args[2] : "all";
+        boolean check = args.length > 3 && args[3].equalsIgnoreCase("check");
+
+        GradientEstimation estimation = new GradientEstimation(scenario, replications,
+                Runtime.getRuntime().availableProcessors());
+        long start = System.nanoTime();
+        estimation.run();
+        long elapsed = System.nanoTime() - start;
+
+        SummaryStatistic[][][] differences = new SummaryStatistic[estimation.getParameterCount()][][];
+        long checkTime = 0;
+        if (check) {
+            long checkStart = System.nanoTime();
+            for (int j = 0; j < estimation.getParameterCount(); j++) {
+                differences[j] = estimation.finiteDifferences(j);
+            }
+            checkTime = System.nanoTime() - checkStart;
+        }
+
+        for (int q = 0; q < estimation.getQueueCount(); q++) {
+            if (!queueName.equalsIgnoreCase("all") && !queueName.equalsIgnoreCase(estimation.getQueueName(q))) {
+                continue;
+            }
+            System.out.printf("%n%s: avg. wait %.3f +/- %.3f s, p95 wait %.3f +/- %.3f s%n", estimation.getQueueName(q),
+                    estimation.getMeanWait(q).getMean(), estimation.getMeanWait(q).halfWidth(0.95),
+                    estimation.getPercentileWait(q).getMean(), estimation.getPercentileWait(q).halfWidth(0.95));
+            System.out.printf("%-44s %24s %24s%n", "parameter", "d avg. wait", "d p95 wait");
+            for (int j = 0; j < estimation.getParameterCount(); j++) {
+                SummaryStatistic mean = estimation.getMeanDerivative(q, j);
+                SummaryStatistic percentile = estimation.getPercentileDerivative(q, j);
+                System.out.printf("%-44s %10.4f +/- %9.4f %10.4f +/- %9.4f%n", estimation.getParameterName(j),
+                        mean.getMean(), mean.halfWidth(0.95), percentile.getMean(), percentile.halfWidth(0.95));
+                if (check) {
+                    SummaryStatistic[] difference = differences[j][q];
+                    System.out.printf("%-44s %10.4f +/- %9.4f %10.4f +/- %9.4f%n", "  finite differences",
+                            difference[0].getMean(), difference[0].halfWidth(0.95),
+                            difference[1].getMean(), difference[1].halfWidth(0.95));
+                }
+            }
+        }
+
+        System.out.printf("%nperturbation analysis: %d replications, wall clock time %.1f s%n",
+                replications, elapsed / 1e9);
+        if (check) {
+            System.out.printf("finite differences: %d runs, wall clock time %.1f s%n",
+                    2 * estimation.getParameterCount() * replications, checkTime / 1e9);
+        }
+    }
+}
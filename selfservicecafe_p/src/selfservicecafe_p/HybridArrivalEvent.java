@@ -0,0 +1,45 @@
+package selfservicecafe_p;
+
+import desmoj.core.simulator.*;
+
+/**
+ * This class represents the arrival of a customer on the SelfServiceHybridModel model.
+ * It creates the customer with its route, sends it to its first station and schedules itself again
+ * as the next arrival.
+ */
+public class HybridArrivalEvent extends ExternalEvent {
+
+    // a reference to the model this event is part of
+    private SelfServiceHybridModel myModel;
+
+    /**
+     * Constructor of the HybridArrivalEvent
+     * @param owner         the model this event belongs to
+     * @param name          this event's name
+     * @param showInTrace   flag to indicate if this event shall produce output for the trace
+     */
+    public HybridArrivalEvent(Model owner, String name, boolean showInTrace) {
+        super(owner, name, showInTrace);
+
+        myModel = (SelfServiceHybridModel) owner;
+    }
+
+    /**
+     * creates a new customer, lets it enter the sandwich bar or menu bar queue
+     * and schedules the next arrival.
+     */
+    @Override
+    public void eventRoutine() {
+        CustomerEntity customer = myModel.newCustomer();
+
+        if (customer.getDemands().isSandwichBar()) {
+            myModel.enterStation(customer, SelfServiceHybridModel.SANDWICH_BAR);
+        } else {
+            myModel.enterStation(customer, SelfServiceHybridModel.MENU_BAR);
+        }
+
+        // this event is the next arrival
+        schedule(new TimeSpan(myModel.getCustomerArrivalTime()));
+        myModel.countEvent();
+    }
+}
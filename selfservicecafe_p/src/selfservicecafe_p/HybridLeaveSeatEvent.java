@@ -0,0 +1,34 @@
+package selfservicecafe_p;
+
+import desmoj.core.simulator.*;
+
+/**
+ * This class represents the end of a meal on the SelfServiceHybridModel model:
+ * the customer gives back the seat and moves on.
+ */
+public class HybridLeaveSeatEvent extends Event<CustomerEntity> {
+
+    // a reference to the model this event is part of
+    private SelfServiceHybridModel myModel;
+
+    /**
+     * Constructor of the HybridLeaveSeatEvent
+     * @param owner         the model this event belongs to
+     * @param name          this event's name
+     * @param showInTrace   flag to indicate if this event shall produce output for the trace
+     */
+    public HybridLeaveSeatEvent(Model owner, String name, boolean showInTrace) {
+        super(owner, name, showInTrace);
+
+        myModel = (SelfServiceHybridModel) owner;
+    }
+
+    /**
+     * frees the seat of the customer and sends the customer on
+     * @param customer  the customer that has finished the meal
+     */
+    @Override
+    public void eventRoutine(CustomerEntity customer) {
+        myModel.releaseSeat(this, customer);
+    }
+}
@@ -0,0 +1,65 @@
+package selfservicecafe_p;
+
+import desmoj.core.simulator.*;
+import co.paralleluniverse.fibers.SuspendExecution;
+
+/**
+ * This class represents a server on the SelfServiceHybridModel model: an employee or a drinks machine.
+ * The servers are the only processes of this model, the customers are
+ * entities the servers take from the queue of their station and put into the queue of the next station.
+ */
+public class HybridServerProcess extends SimProcess {
+
+    // the station this server belongs to, see the station indices of SelfServiceHybridModel
+    private final int stationIndex;
+
+    // the model this server belongs to
+    private final SelfServiceHybridModel myModel;
+
+    /**
+     * Constructor of the HybridServerProcess
+     * @param owner         the model this process belongs to
+     * @param name          this server's name
+     * @param showInTrace   flag to indicate if this process shall produce output for the trace
+     * @param stationIndex  this server's station, see the station indices of SelfServiceHybridModel
+     */
+    public HybridServerProcess(Model owner, String name, boolean showInTrace, int stationIndex) {
+        super(owner, name, showInTrace);
+
+        myModel = (SelfServiceHybridModel) owner;
+        this.stationIndex = stationIndex;
+    }
+
+    public int getStationIndex() {
+        return stationIndex;
+    }
+
+    /**
+     * Describes the server's life cycle.
+     * If there is a costumer waiting at the server's station, the server
+     *      1) removes the customer from the station's queue
+     *      2) serves the costumer
+     *      3) moves the customer on to the queue of its next station
+     * if no costumer is waiting at the server's station, the server
+     *      1) inserts itself into the station's idle queue and
+     *      2) waits until someone arrives
+     * @throws SuspendExecution
+     */
+    @Override
+    public void lifeCycle() throws SuspendExecution {
+        while (true) {
+            CustomerEntity customer = myModel.nextCustomer(stationIndex);
+
+            if (customer == null) {
+                myModel.idle(this);
+
+                passivate();
+            } else {
+                myModel.countEvent();
+                hold(new TimeSpan(myModel.serviceTime(stationIndex, customer)));
+
+                myModel.leaveStation(customer, stationIndex);
+            }
+        }
+    }
+}
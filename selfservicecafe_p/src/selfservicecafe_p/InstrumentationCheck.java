@@ -0,0 +1,89 @@
+package selfservicecafe_p;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * This class checks after the build that Quasar has instrumented every suspendable method of the model:
+ * every method that declares SuspendExecution (or is annotated @Suspendable) must carry the
+ * @Instrumented annotation the instrumentation adds. A method without it would block its fiber's
+ * carrier thread instead of suspending, which only shows up at runtime, so the build fails instead.
+ */
+public class InstrumentationCheck {
+
+    private static final String SUSPEND_EXECUTION = "co.paralleluniverse.fibers.SuspendExecution";
+    private static final String SUSPENDABLE = "co.paralleluniverse.fibers.Suspendable";
+    private static final String INSTRUMENTED = "co.paralleluniverse.fibers.Instrumented";
+
+    /**
+     * returns the suspendable methods of the classes of this package that are not instrumented
+     * @param classes   the directory with the compiled classes
+     * @return the methods, as class.method
+     * @throws IOException if the directory cannot be read
+     * @throws ClassNotFoundException if a class file cannot be loaded
+     */
+    public static List<String> findUninstrumented(Path classes) throws IOException, ClassNotFoundException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(classes.resolve("selfservicecafe_p"))) {
+            files = walk.filter(file -> file.toString().endsWith(".class")).sorted().collect(Collectors.toList());
+        }
+
+        ClassLoader loader = InstrumentationCheck.class.getClassLoader();
+        List<String> missing = new ArrayList<>();
+        for (Path file : files) {
+            String relative = classes.relativize(file).toString();
+            String name = relative.substring(0, relative.length() - ".class".length())
+                    .replace(file.getFileSystem().getSeparator(), ".");
+            for (Method method : Class.forName(name, false, loader).getDeclaredMethods()) {
+                if (Modifier.isAbstract(method.getModifiers()) || method.isBridge()) {
+                    continue;
+                }
+                if (isSuspendable(method) && !hasAnnotation(method, INSTRUMENTED)) {
+                    missing.add(name + "." + method.getName());
+                }
+            }
+        }
+        return missing;
+    }
+
+    private static boolean isSuspendable(Method method) {
+        for (Class<?> exception : method.getExceptionTypes()) {
+            if (exception.getName().equals(SUSPEND_EXECUTION)) {
+                return true;
+            }
+        }
+        return hasAnnotation(method, SUSPENDABLE);
+    }
+
+    // the annotations are compared by name, so the check does not depend on a Quasar version
+    private static boolean hasAnnotation(Method method, String annotationName) {
+        for (Annotation annotation : method.getDeclaredAnnotations()) {
+            if (annotation.annotationType().getName().equals(annotationName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks the instrumentation, run by the build after the classes are instrumented
+     * @param args  the directory with the compiled classes
+     * @throws Exception if the classes cannot be read, or an IllegalStateException if a method is not instrumented
+     */
+    public static void main(String[] args) throws Exception {
+        List<String> missing = findUninstrumented(Paths.get(args[0]));
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Error: suspendable methods without fiber instrumentation: " + missing);
+        }
+        System.out.println("fiber instrumentation checked");
+    }
+}
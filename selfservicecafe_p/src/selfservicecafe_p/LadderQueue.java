@@ -0,0 +1,307 @@
+package selfservicecafe_p;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+
+/**
+ * A ladder queue (W. T. Tang, R. S. M. Goh, I. L.-J. Thng, 2005): events far in the future are
+ * appended unsorted to Top, nearer ones are kept unsorted in the buckets of the rungs of a ladder,
+ * and only the next few events are sorted, in Bottom. When Bottom is empty, the first non-empty
+ * bucket of the lowest rung is sorted into it, or, if it holds more than THRESHOLD events, spread
+ * over the buckets of a new, finer rung below. The width of the buckets is derived from the number
+ * of events they are spread over, so unlike the calendar queue no resizing is needed, and inserting
+ * and removing take O(1) amortized also for skewed distributions of the event times.
+ *
+ * @param <E> the type of the events
+ */
+public class LadderQueue<E> implements PendingEventList<E> {
+
+    // more events than this in a bucket are spread over a new rung instead of being sorted into Bottom
+    private static final int THRESHOLD = 50;
+    private static final int MAX_RUNGS = 8;
+
+    private static final Comparator<Entry<?>> ORDER =
+            Comparator.<Entry<?>>comparingDouble(entry -> entry.time).thenComparingLong(entry -> entry.sequence);
+
+    private static final class Entry<E> {
+        private final double time;
+        private final long sequence;
+        private final E event;
+        private Entry<E> next;
+
+        private Entry(double time, long sequence, E event) {
+            this.time = time;
+            this.sequence = sequence;
+            this.event = event;
+        }
+    }
+
+    /**
+     * One rung of the ladder: buckets of equal width from start on, all before current are empty.
+     */
+    private static final class Rung<E> {
+        private Entry<E>[] heads;
+        private Entry<E>[] tails;
+        private int[] counts;
+        private int buckets;
+        private double start;
+        private double width;
+        private int current;
+
+        @SuppressWarnings("unchecked")
+        private void reset(int buckets, double start, double width) {
+            if (heads == null || heads.length < buckets) {
+                heads = (Entry<E>[]) new Entry<?>[buckets];
+                tails = (Entry<E>[]) new Entry<?>[buckets];
+                counts = new int[buckets];
+            }
+            this.buckets = buckets;
+            this.start = start;
+            this.width = width;
+            current = 0;
+        }
+
+        private int buckets() {
+            return buckets;
+        }
+
+        private double currentStart() {
+            return start + current * width;
+        }
+
+        // all buckets have been handed down, the rung only waits to be removed from the ladder
+        private boolean isUsedUp() {
+            return current == buckets;
+        }
+
+        private void add(Entry<E> entry) {
+            int index = (int) ((entry.time - start) / width);
+            index = Math.max(current, Math.min(index, buckets - 1));
+            entry.next = null;
+            if (heads[index] == null) {
+                heads[index] = entry;
+            } else {
+                tails[index].next = entry;
+            }
+            tails[index] = entry;
+            counts[index]++;
+        }
+    }
+
+    // Top: unsorted events at or after topStart
+    private Entry<E> topHead;
+    private Entry<E> topTail;
+    private int topCount;
+    private double topMin;
+    private double topMax;
+    private double topStart = Double.NEGATIVE_INFINITY;
+
+    private final Rung<E>[] rungs;
+    private int rungCount;
+
+    // Bottom: the next events, sorted
+    private Entry<E> bottom;
+    private Entry<E> bottomTail;
+    private int bottomCount;
+
+    private int size;
+    private long sequence;
+
+    /**
+     * Constructor of an empty LadderQueue
+     */
+    @SuppressWarnings("unchecked")
+    public LadderQueue() {
+        rungs = (Rung<E>[]) new Rung<?>[MAX_RUNGS];
+        for (int i = 0; i < MAX_RUNGS; i++) {
+            rungs[i] = new Rung<>();
+        }
+    }
+
+    @Override
+    public void insert(double time, E event) {
+        Entry<E> entry = new Entry<>(time, sequence++, event);
+        size++;
+        if (time >= topStart) {
+            appendToTop(entry);
+            return;
+        }
+        for (int i = 0; i < rungCount; i++) {
+            // an event after a used-up rung is still before the rung above, so any rung below may take it
+            if (!rungs[i].isUsedUp() && time >= rungs[i].currentStart()) {
+                rungs[i].add(entry);
+                return;
+            }
+        }
+        insertIntoBottom(entry);
+        if (bottomCount > THRESHOLD && rungCount < MAX_RUNGS) {
+            spreadBottom();
+        }
+    }
+
+    @Override
+    public E removeFirst() {
+        prepareBottom();
+        Entry<E> first = bottom;
+        bottom = first.next;
+        if (bottom == null) {
+            bottomTail = null;
+        }
+        first.next = null;
+        bottomCount--;
+        size--;
+        return first.event;
+    }
+
+    @Override
+    public double firstTime() {
+        prepareBottom();
+        return bottom.time;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void appendToTop(Entry<E> entry) {
+        entry.next = null;
+        if (topHead == null) {
+            topHead = entry;
+            topMin = entry.time;
+            topMax = entry.time;
+        } else {
+            topTail.next = entry;
+            topMin = Math.min(topMin, entry.time);
+            topMax = Math.max(topMax, entry.time);
+        }
+        topTail = entry;
+        topCount++;
+    }
+
+    private void insertIntoBottom(Entry<E> entry) {
+        if (bottom == null || ORDER.compare(entry, bottom) < 0) {
+            entry.next = bottom;
+            bottom = entry;
+            if (bottomTail == null) {
+                bottomTail = entry;
+            }
+        } else if (ORDER.compare(entry, bottomTail) > 0) {
+            // the common case of a later event, and always the case for events with the time of the last one
+            entry.next = null;
+            bottomTail.next = entry;
+            bottomTail = entry;
+        } else {
+            Entry<E> previous = bottom;
+            while (previous.next != null && ORDER.compare(previous.next, entry) < 0) {
+                previous = previous.next;
+            }
+            entry.next = previous.next;
+            previous.next = entry;
+        }
+        bottomCount++;
+    }
+
+    // fills Bottom from the ladder or from Top, if it is empty
+    private void prepareBottom() {
+        if (bottom != null) {
+            return;
+        }
+        if (size == 0) {
+            throw new NoSuchElementException("Error: the event list is empty.");
+        }
+        while (bottom == null) {
+            if (rungCount == 0) {
+                spreadTop();
+                continue;
+            }
+            Rung<E> rung = rungs[rungCount - 1];
+            while (rung.current < rung.buckets() && rung.heads[rung.current] == null) {
+                rung.current++;
+            }
+            if (rung.current == rung.buckets()) {
+                // the lowest rung is used up
+                rungCount--;
+                continue;
+            }
+
+            int index = rung.current;
+            Entry<E> head = rung.heads[index];
+            int count = rung.counts[index];
+            rung.heads[index] = null;
+            rung.tails[index] = null;
+            rung.counts[index] = 0;
+            rung.current++;
+
+            double bucketStart = rung.start + index * rung.width;
+            double childWidth = rung.width / count;
+            if (count > THRESHOLD && rungCount < MAX_RUNGS && bucketStart + childWidth > bucketStart) {
+                Rung<E> child = rungs[rungCount++];
+                child.reset(count, bucketStart, childWidth);
+                addAll(child, head);
+            } else {
+                sortIntoBottom(head, count);
+            }
+        }
+    }
+
+    // spreads Top over the first rung, or sorts it into Bottom if all its events have the same time
+    private void spreadTop() {
+        Entry<E> head = topHead;
+        int count = topCount;
+        double width = (topMax - topMin) / count;
+        topHead = null;
+        topTail = null;
+        topCount = 0;
+        if (width == 0) {
+            topStart = topMax + Math.ulp(topMax);
+            sortIntoBottom(head, count);
+            return;
+        }
+        Rung<E> rung = rungs[rungCount++];
+        rung.reset(count + 1, topMin, width);
+        topStart = topMin + rung.buckets() * width;
+        addAll(rung, head);
+    }
+
+    // spreads Bottom over a new rung below the lowest one, so inserting into it stays cheap
+    private void spreadBottom() {
+        double width = (bottomTail.time - bottom.time) / bottomCount;
+        if (width == 0) {
+            return;
+        }
+        Rung<E> rung = rungs[rungCount++];
+        rung.reset(bottomCount + 1, bottom.time, width);
+        Entry<E> head = bottom;
+        bottom = null;
+        bottomTail = null;
+        bottomCount = 0;
+        addAll(rung, head);
+    }
+
+    private void addAll(Rung<E> rung, Entry<E> head) {
+        while (head != null) {
+            Entry<E> next = head.next;
+            rung.add(head);
+            head = next;
+        }
+    }
+
+    private void sortIntoBottom(Entry<E> head, int count) {
+        @SuppressWarnings("unchecked")
+        Entry<E>[] entries = (Entry<E>[]) new Entry<?>[count];
+        for (int i = 0; i < count; i++, head = head.next) {
+            entries[i] = head;
+        }
+        Arrays.sort(entries, ORDER);
+        if (bottom == null) {
+            bottomTail = entries[count - 1];
+        }
+        for (int i = count - 1; i >= 0; i--) {
+            entries[i].next = bottom;
+            bottom = entries[i];
+        }
+        bottomCount += count;
+    }
+}
@@ -0,0 +1,234 @@
+package selfservicecafe_p;
+
+import java.util.Arrays;
+
+/**
+ * This class counts durations (waiting or service times in seconds) in logarithmic buckets,
+ * the same way HdrHistogram does: the values are counted in units of the resolution, the first
+ * 128 units have a bucket each, above that every power of two is split into 64 buckets.
+ * So every bucket is at most 1/64 (1.6%) wider than its lower bound, and the memory is fixed
+ * by the highest value, not by the number of observations. Recording is a few shifts and one
+ * array increment, nothing is allocated. Histograms with the same resolution and highest value
+ * can be merged, e.g. the histograms of all replications.
+ */
+public class LatencyHistogram {
+
+    // the first SUB_BUCKETS units are counted exactly, every further power of two has HALF buckets
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF = SUB_BUCKETS / 2;
+
+    // default: milliseconds up to 1000000 seconds (more than 11 days)
+    public static final double DEFAULT_RESOLUTION = 0.001;
+    public static final double DEFAULT_HIGHEST_VALUE = 1.0e6;
+
+    private final double resolution;
+    private final double highestValue;
+
+    private final long[] counts;
+
+    private long observations;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Constructor of a LatencyHistogram with a resolution of 1 ms up to 1000000 s
+     */
+    public LatencyHistogram() {
+        this(DEFAULT_RESOLUTION, DEFAULT_HIGHEST_VALUE);
+    }
+
+    /**
+     * Constructor of the LatencyHistogram
+     * @param resolution    the smallest difference between two values that is kept, in seconds
+     * @param highestValue  the highest value, higher values are counted in the last bucket
+     */
+    public LatencyHistogram(double resolution, double highestValue) {
+        if (resolution <= 0 || highestValue <= resolution) {
+            throw new IllegalArgumentException("Error: resolution " + resolution + " and highest value "
+                    + highestValue + " of a histogram.");
+        }
+        this.resolution = resolution;
+        this.highestValue = highestValue;
+
+        counts = new long[bucketIndex((long) Math.ceil(highestValue / resolution)) + 1];
+    }
+
+    /**
+     * Copy constructor
+     * @param other the histogram to copy
+     */
+    public LatencyHistogram(LatencyHistogram other) {
+        resolution = other.resolution;
+        highestValue = other.highestValue;
+        counts = other.counts.clone();
+        observations = other.observations;
+        sum = other.sum;
+        min = other.min;
+        max = other.max;
+    }
+
+    // the index of the bucket of a value in units of the resolution
+    private static int bucketIndex(long units) {
+        if (units < SUB_BUCKETS) {
+            return (int) units;
+        }
+        int shift = 64 - Long.numberOfLeadingZeros(units) - SUB_BUCKET_BITS;
+        int top = (int) (units >>> shift);
+        return SUB_BUCKETS + (shift - 1) * HALF + (top - HALF);
+    }
+
+    // the highest value in units of the resolution that falls into a bucket
+    private static long highestUnitsOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / HALF + 1;
+        long top = HALF + (index - SUB_BUCKETS) % HALF;
+        return ((top + 1) << shift) - 1;
+    }
+
+    /**
+     * counts one value, negative values are counted as 0
+     * @param value the value in seconds
+     */
+    public void record(double value) {
+        counts[bucketOf(value)]++;
+
+        observations++;
+        sum += value;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * returns the bucket a value is counted in, negative values are counted in bucket 0
+     * @param value the value in seconds
+     * @return the index of the bucket
+     */
+    int bucketOf(double value) {
+        double units = value / resolution;
+        if (!(units > 0)) {
+            return 0;
+        }
+        if (value >= highestValue) {
+            return counts.length - 1;
+        }
+        return Math.min(bucketIndex((long) units), counts.length - 1);
+    }
+
+    /**
+     * @return the number of buckets
+     */
+    int getBucketCount() {
+        return counts.length;
+    }
+
+    /**
+     * @param bucket    the index of a bucket
+     * @return the number of values counted in the bucket
+     */
+    long getCount(int bucket) {
+        return counts[bucket];
+    }
+
+    /**
+     * adds all values of another histogram
+     * @param other a histogram with the same resolution and highest value
+     */
+    public void merge(LatencyHistogram other) {
+        if (other.resolution != resolution || other.counts.length != counts.length) {
+            throw new IllegalArgumentException("Error: histograms with different resolutions cannot be merged.");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        observations += other.observations;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * removes all values
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        observations = 0;
+        sum = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+    }
+
+    public long getObservations() {
+        return observations;
+    }
+
+    /**
+     * @return the mean of the values, NaN if there are none
+     */
+    public double getMean() {
+        return observations == 0 ? Double.NaN : sum / observations;
+    }
+
+    /**
+     * @return the smallest value, NaN if there are none
+     */
+    public double getMin() {
+        return observations == 0 ? Double.NaN : min;
+    }
+
+    /**
+     * @return the highest value, NaN if there are none
+     */
+    public double getMax() {
+        return observations == 0 ? Double.NaN : max;
+    }
+
+    /**
+     * returns the value at a percentile: at least the given share of all values is less or equal.
+     * It is the upper bound of the bucket, but never more than the highest value recorded.
+     * @param percentile    the percentile, between 0 and 100, e.g. 95
+     * @return the value in seconds, NaN if there are no values
+     */
+    public double getValueAtPercentile(double percentile) {
+        if (observations == 0) {
+            return Double.NaN;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * observations));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestUnitsOf(i) * resolution, max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * returns the share of the values that are less or equal to a limit, e.g. for
+     * "95% of the guests wait less than 3 minutes". Values in the bucket of the limit count as below.
+     * @param limit the limit in seconds
+     * @return the share between 0 and 1, NaN if there are no values
+     */
+    public double getShareAtOrBelow(double limit) {
+        if (observations == 0) {
+            return Double.NaN;
+        }
+        if (limit >= highestValue) {
+            return 1.0;
+        }
+        int last = limit < 0 ? -1 : bucketIndex((long) (limit / resolution));
+        long seen = 0;
+        for (int i = 0; i <= last && i < counts.length; i++) {
+            seen += counts[i];
+        }
+        return (double) seen / observations;
+    }
+}
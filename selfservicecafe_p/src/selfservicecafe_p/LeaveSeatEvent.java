@@ -0,0 +1,34 @@
+package selfservicecafe_p;
+
+import desmoj.core.simulator.*;
+
+/**
+ * This class represents the end of a meal on the SelfServiceEventModel model:
+ * the customer gives back the seat and moves on.
+ */
+public class LeaveSeatEvent extends Event<CustomerEntity> {
+
+    // a reference to the model this event is part of
+    private SelfServiceEventModel myModel;
+
+    /**
+     * Constructor of the LeaveSeatEvent
+     * @param owner         the model this event belongs to
+     * @param name          this event's name
+     * @param showInTrace   flag to indicate if this event shall produce output for the trace
+     */
+    public LeaveSeatEvent(Model owner, String name, boolean showInTrace) {
+        super(owner, name, showInTrace);
+
+        myModel = (SelfServiceEventModel) owner;
+    }
+
+    /**
+     * frees the seat of the customer and sends the customer on
+     * @param customer  the customer that has finished the meal
+     */
+    @Override
+    public void eventRoutine(CustomerEntity customer) {
+        myModel.releaseSeat(this, customer);
+    }
+}
@@ -0,0 +1,62 @@
+package selfservicecafe_p;
+
+import desmoj.core.simulator.Model;
+
+/**
+ * The implementations of the self service cafeteria that can be selected at startup.
+ */
+public enum ModelVariant {
+
+    // every customer, employee and drinks machine is a SimProcess, the seats are a Res,
+    // the customers take idle servers directly and hold for their service
+    PROCESS {
+        @Override
+        public Model create(String name, boolean showInReport, boolean showInTrace, Scenario scenario, long seed) {
+            return new SelfServiceModel(null, name, showInReport, showInTrace, scenario, seed, true);
+        }
+    },
+
+    // like PROCESS, but the servers wait in their idle queue, serve the customers and reactivate them
+    PROCESS_IDLE_QUEUE {
+        @Override
+        public Model create(String name, boolean showInReport, boolean showInTrace, Scenario scenario, long seed) {
+            return new SelfServiceModel(null, name, showInReport, showInTrace, scenario, seed, false);
+        }
+    },
+
+    // customers and servers are plain entities, station completions are events
+    EVENT {
+        @Override
+        public Model create(String name, boolean showInReport, boolean showInTrace, Scenario scenario, long seed) {
+            return new SelfServiceEventModel(null, name, showInReport, showInTrace, scenario, seed);
+        }
+    },
+
+    // customers are plain entities, employees, drinks machines and seats are SimProcesses that move them
+    HYBRID {
+        @Override
+        public Model create(String name, boolean showInReport, boolean showInTrace, Scenario scenario, long seed) {
+            return new SelfServiceHybridModel(null, name, showInReport, showInTrace, scenario, seed);
+        }
+    };
+
+    /**
+     * creates a new model of this variant, the model also implements CafeteriaModel
+     * @param name          the model's name
+     * @param showInReport  flag to indicate if the model shall produce output to the report file
+     * @param showInTrace   flag to indicate if the model shall produce output to the trace file
+     * @param scenario      the parameters of the cafeteria
+     * @param seed          the seed of the model
+     * @return the new model
+     */
+    public abstract Model create(String name, boolean showInReport, boolean showInTrace, Scenario scenario, long seed);
+
+    /**
+     * parses a variant name, ignoring case
+     * @param name  the name, e.g. "process" or "event"
+     * @return the variant
+     */
+    public static ModelVariant parse(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
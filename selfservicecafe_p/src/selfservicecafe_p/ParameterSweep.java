@@ -0,0 +1,306 @@
+package selfservicecafe_p;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class runs a parameter sweep over the staffing and the capacity of the cafeteria for capacity planning.
+ * The replications of all design points run on one work-stealing pool sized to the number of cores, the
+ * points in the order of the design. As soon as the last replication of a point is done, the point's row
+ * (its levels, then mean and half width of every key figure) is appended to the CSV file and flushed.
+ * A sweep that was interrupted is resumed by starting it again with the same CSV file: the points that
+ * already have a row are not run again.
+ *
+ * The sweep is described by a properties file:
+ *      scenario                        the base scenario file, default: Scenario.defaults()
+ *      design                          grid (default) or lhs (Latin hypercube)
+ *      points                          the number of points of a Latin hypercube
+ *      seed                            the seed of the Latin hypercube, default 1
+ *      replications                    the replications per point, default 10
+ *      variant                         the model variant, default process
+ *      employeesPerStation             levels of the employees of every station with employees, e.g. 1..3
+ *      station.NAME.servers            levels of the employees (or machines) of one station, e.g. 1,2,4
+ *      diningHall.seats                levels of the seats of the dining hall, e.g. 20..60
+ */
+public class ParameterSweep {
+
+    // confidence of the half widths in the CSV file
+    private static final double CONFIDENCE = 0.95;
+
+    private final Scenario base;
+    private final SweepDesign design;
+    private final ModelVariant variant;
+    private final int replications;
+    private final int parallelism;
+
+    /**
+     * Constructor of the ParameterSweep
+     * @param base          the scenario whose factors are changed, its seed is the base seed of the replications
+     * @param design        the factors and points
+     * @param variant       the implementation of the cafeteria
+     * @param replications  the number of replications per point
+     * @param parallelism   the number of replications running at the same time
+     */
+    public ParameterSweep(Scenario base, SweepDesign design, ModelVariant variant, int replications, int parallelism) {
+        this.base = base;
+        this.design = design;
+        this.variant = variant;
+        this.replications = replications;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * reads a sweep file
+     * @param file          the properties file
+     * @param parallelism   the number of replications running at the same time
+     * @return the sweep
+     * @throws IOException if the sweep file or its scenario file cannot be read
+     */
+    public static ParameterSweep load(Path file, int parallelism) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+
+        String scenarioFile = properties.getProperty("scenario");
+        Scenario base = scenarioFile == null ? Scenario.defaults()
+                : ScenarioLoader.load(file.resolveSibling(scenarioFile.trim()));
+
+        List<SweepDesign.Factor> factors = new ArrayList<>();
+        for (String key : properties.stringPropertyNames().stream().sorted().toArray(String[]::new)) {
+            SweepDesign.Factor factor = SweepDesign.Factor.parseKey(base, key, properties.getProperty(key));
+            if (factor != null) {
+                factors.add(factor);
+            } else if (!key.equals("scenario") && !key.equals("design") && !key.equals("points")
+                    && !key.equals("seed") && !key.equals("replications") && !key.equals("variant")) {
+                throw new IllegalArgumentException("Error in sweep file " + file + ": unknown key " + key);
+            }
+        }
+        if (factors.isEmpty()) {
+            throw new IllegalArgumentException("Error in sweep file " + file + ": no factor.");
+        }
+
+        String kind = properties.getProperty("design", "grid").trim();
+        SweepDesign design;
+        if (kind.equals("grid")) {
+            design = SweepDesign.grid(factors);
+        } else if (kind.equals("lhs")) {
+            design = SweepDesign.latinHypercube(factors,
+                    Integer.parseInt(properties.getProperty("points", "10").trim()),
+                    Long.parseLong(properties.getProperty("seed", "1").trim()));
+        } else {
+            throw new IllegalArgumentException("Error in sweep file " + file + ": unknown design " + kind);
+        }
+
+        return new ParameterSweep(base, design,
+                ModelVariant.parse(properties.getProperty("variant", "process")),
+                Integer.parseInt(properties.getProperty("replications", "10").trim()),
+                parallelism);
+    }
+
+    public SweepDesign getDesign() {
+        return design;
+    }
+
+    /**
+     * runs all points that have no row in the CSV file yet and appends their rows
+     * @param csv   the CSV file, created if it does not exist
+     * @return the number of points that were run
+     * @throws IOException if the CSV file cannot be read or written
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public int run(Path csv) throws IOException, InterruptedException {
+        String header = header();
+        Map<Integer, String> done = readCompleted(csv, header);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (done.isEmpty() && Files.size(csv) == 0) {
+                writer.write(header);
+                writer.newLine();
+                writer.flush();
+            }
+
+            List<Future<?>> futures = new ArrayList<>();
+            int run = 0;
+            for (int point = 0; point < design.getPointCount(); point++) {
+                String levels = levels(point);
+                String doneRow = done.get(point);
+                if (doneRow != null) {
+                    if (!doneRow.startsWith(point + "," + levels + ",")) {
+                        throw new IllegalArgumentException("Error: point " + point + " of " + csv
+                                + " has other levels than the sweep, the sweep file was changed.");
+                    }
+                    continue;
+                }
+                run++;
+
+                final int index = point;
+                Scenario scenario = design.apply(base, point);
+                ReplicationSummary summary = new ReplicationSummary();
+                AtomicInteger remaining = new AtomicInteger(replications);
+                for (int i = 0; i < replications; i++) {
+                    final int replication = i;
+                    futures.add(pool.submit(() -> {
+                        summary.add(ReplicationRunner.runReplication(variant, scenario, replication,
+                                RandomStreams.replicationSeed(scenario.getSeed(), replication)));
+                        if (remaining.decrementAndGet() == 0) {
+                            write(writer, index + "," + levels + "," + row(summary));
+                        }
+                    }));
+                }
+            }
+
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Error: replication failed.", e.getCause());
+                }
+            }
+            return run;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // appends a row and flushes it, so it survives an interruption of the sweep
+    private static void write(BufferedWriter writer, String row) {
+        synchronized (writer) {
+            try {
+                writer.write(row);
+                writer.newLine();
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * reads the rows of the points that are done and cuts off a row that was not written completely
+     * @param csv       the CSV file
+     * @param header    the header the file must have
+     * @return the rows by point
+     * @throws IOException if the file cannot be read or written
+     */
+    private static Map<Integer, String> readCompleted(Path csv, String header) throws IOException {
+        Map<Integer, String> done = new HashMap<>();
+        if (!Files.exists(csv) || Files.size(csv) == 0) {
+            return done;
+        }
+
+        String content = new String(Files.readAllBytes(csv), StandardCharsets.UTF_8);
+        int end = content.lastIndexOf('\n') + 1;
+        if (end < content.length()) {
+            // the sweep was interrupted while writing the last row
+            content = content.substring(0, end);
+            Files.write(csv, content.getBytes(StandardCharsets.UTF_8));
+        }
+
+        String[] lines = content.split("\r?\n");
+        if (lines.length == 0 || !lines[0].equals(header)) {
+            throw new IllegalArgumentException("Error: " + csv + " was written by another sweep.");
+        }
+        for (int i = 1; i < lines.length; i++) {
+            if (!lines[i].isEmpty()) {
+                done.put(Integer.parseInt(lines[i].substring(0, lines[i].indexOf(','))), lines[i]);
+            }
+        }
+        return done;
+    }
+
+    private String header() {
+        StringBuilder header = new StringBuilder("point");
+        for (SweepDesign.Factor factor : design.getFactors()) {
+            header.append(',').append(factor.getName());
+        }
+        header.append(",replications,throughput,throughput.halfWidth");
+        for (String queue : queueNames()) {
+            header.append(",wait.").append(queue).append(",wait.").append(queue).append(".halfWidth");
+        }
+        header.append(",timeInSystemP95,timeInSystemP95.halfWidth,seatUtilization,seatUtilization.halfWidth");
+        return header.toString();
+    }
+
+    // the names of the customer queues in the order of CafeteriaModel.getCustomerQueues()
+    private String[] queueNames() {
+        int[] stations = {
+                SelfServiceModel.SANDWICH_BAR, SelfServiceModel.MENU_BAR, SelfServiceModel.DRINKS_BAR,
+                SelfServiceModel.CHECK_OUT, SelfServiceModel.DESSERT_BAR, SelfServiceModel.DESSERT_CHECK_OUT
+        };
+        String[] names = new String[stations.length + 1];
+        for (int i = 0; i < stations.length; i++) {
+            names[i] = base.getStation(stations[i]).getName();
+        }
+        names[stations.length] = "DiningHall";
+        return names;
+    }
+
+    private String levels(int point) {
+        StringBuilder levels = new StringBuilder();
+        for (int level : design.getLevels(point)) {
+            if (levels.length() > 0) {
+                levels.append(',');
+            }
+            levels.append(level);
+        }
+        return levels.toString();
+    }
+
+    private static String row(ReplicationSummary summary) {
+        StringBuilder row = new StringBuilder();
+        row.append(summary.getReplications());
+        append(row, summary.getThroughput());
+        for (int i = 0; i < summary.getQueueCount(); i++) {
+            append(row, summary.getWaitTime(i));
+        }
+        append(row, summary.getTimeInSystemP95());
+        append(row, summary.getSeatUtilization());
+        return row.toString();
+    }
+
+    private static void append(StringBuilder row, SummaryStatistic statistic) {
+        row.append(String.format(Locale.ROOT, ",%.4f,%.4f", statistic.getMean(), statistic.halfWidth(CONFIDENCE)));
+    }
+
+    /**
+     * Runs a sweep
+     * @param args  sweep file, CSV file (appended to, an interrupted sweep is resumed)
+     * @throws IOException if a file cannot be read or written
+     * @throws InterruptedException if interrupted while waiting for the replications
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.err.println("usage: ParameterSweep <sweep file> <csv file>");
+            System.exit(1);
+        }
+
+        ParameterSweep sweep = load(Paths.get(args[0]), Runtime.getRuntime().availableProcessors());
+        long start = System.nanoTime();
+        int run = sweep.run(Paths.get(args[1]));
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%d of %d points run, %d were already done%n", run, sweep.getDesign().getPointCount(),
+                sweep.getDesign().getPointCount() - run);
+        System.out.printf("wall clock time: %.1f s%n", elapsed / 1e9);
+    }
+}
@@ -0,0 +1,40 @@
+package selfservicecafe_p;
+
+/**
+ * The list of pending events of a discrete event scheduler: events are inserted with the time
+ * they are due and removed in the order of their times. Events with the same time are removed
+ * in the order they were inserted, the same way DESMO-J's scheduler handles simultaneous events.
+ *
+ * @param <E> the type of the events
+ */
+public interface PendingEventList<E> {
+
+    /**
+     * inserts an event
+     * @param time  the time the event is due
+     * @param event the event
+     */
+    void insert(double time, E event);
+
+    /**
+     * removes the next event, i.e. the one with the smallest time that was inserted first
+     * @return the event
+     * @throws java.util.NoSuchElementException if the list is empty
+     */
+    E removeFirst();
+
+    /**
+     * @return the time of the next event
+     * @throws java.util.NoSuchElementException if the list is empty
+     */
+    double firstTime();
+
+    /**
+     * @return the number of pending events
+     */
+    int size();
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+}
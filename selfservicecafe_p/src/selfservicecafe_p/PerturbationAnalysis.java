@@ -0,0 +1,234 @@
+package selfservicecafe_p;
+
+import java.util.Arrays;
+
+/**
+ * This class estimates the derivatives of the waiting times with respect to the parameters of the service
+ * and resting time distributions in the same run that produces the waiting times (infinitesimal perturbation
+ * analysis). Every customer and every server carries the derivatives of the time of its last event with
+ * respect to all parameters:
+ *      - an arriving customer: 0, the arrivals do not depend on the parameters
+ *      - a service that starts at once: it starts when the customer entered the queue
+ *      - a service that starts when a server (or a seat) becomes free: it starts when the server
+ *        finished, the waiting time changes by the difference
+ *      - the end of a service: the start plus the derivative of the service time, see DistributionSpec.derivative
+ * The customers draw their service times on arrival and the routes do not depend on the parameters, so with
+ * FIFO queues the waiting times are continuous in the parameters and the derivatives are unbiased.
+ *
+ * The derivative of the mean waiting time of a queue is the mean of the derivatives of its waiting times.
+ * The derivative of a percentile is the mean derivative of the waiting times ranked next to it. The waiting
+ * times are not kept: they are counted in a LatencyHistogram per queue, and the derivatives are summed per
+ * bucket of it, so the waiting times of one bucket share the mean derivative of the bucket. The memory is
+ * fixed by the number of buckets and parameters, whatever the number of customers.
+ *
+ * Queues and distributions are indexed by the station indices of SelfServiceModel, the dining hall is queue 6;
+ * distribution 6 is the main dish, 7 the dessert.
+ */
+public class PerturbationAnalysis {
+
+    public static final int DINING_HALL = 6;
+    public static final int MAIN_DISH = 6;
+    public static final int DESSERT = 7;
+
+    private static final int QUEUES = 7;
+
+    // share of the ranked waiting times next to a percentile whose derivatives are averaged
+    private static final double PERCENTILE_WINDOW = 0.01;
+
+    // the distributions and the index of the first parameter of each one
+    private final DistributionSpec[] distributions;
+    private final int[] offsets;
+    private final String[] names;
+
+    // per queue: the histogram of the waiting times, the sums of the derivatives per bucket of it,
+    // parameterCount values per bucket, and the sums of all derivatives
+    private final LatencyHistogram[] waits = new LatencyHistogram[QUEUES];
+    private final double[][] bucketSums;
+    private final double[][] sums;
+
+    /**
+     * Constructor of the PerturbationAnalysis
+     * @param scenario  the scenario whose service and resting time parameters are the parameters
+     */
+    public PerturbationAnalysis(Scenario scenario) {
+        distributions = new DistributionSpec[8];
+        String[] owners = new String[8];
+        for (int i = 0; i < 6; i++) {
+            distributions[i] = scenario.getStation(i).getServiceTime();
+            owners[i] = "station." + scenario.getStation(i).getName() + ".serviceTime";
+        }
+        distributions[MAIN_DISH] = scenario.getRestingTimeMainDish();
+        owners[MAIN_DISH] = "resting.mainDish";
+        distributions[DESSERT] = scenario.getRestingTimeDessert();
+        owners[DESSERT] = "resting.dessert";
+
+        offsets = new int[distributions.length + 1];
+        for (int d = 0; d < distributions.length; d++) {
+            offsets[d + 1] = offsets[d] + distributions[d].getParameterCount();
+        }
+        names = new String[offsets[distributions.length]];
+        for (int d = 0; d < distributions.length; d++) {
+            for (int p = 0; p < distributions[d].getParameterCount(); p++) {
+                names[offsets[d] + p] = owners[d] + "." + distributions[d].getParameterName(p);
+            }
+        }
+
+        bucketSums = new double[QUEUES][];
+        for (int q = 0; q < QUEUES; q++) {
+            waits[q] = new LatencyHistogram();
+            bucketSums[q] = new double[waits[q].getBucketCount() * names.length];
+        }
+        sums = new double[QUEUES][names.length];
+    }
+
+    public int getParameterCount() {
+        return names.length;
+    }
+
+    /**
+     * @param parameter the index of the parameter
+     * @return the name of the parameter, the key of the scenario file and the parameter name, e.g.
+     *         station.CheckOut.serviceTime.upper
+     */
+    public String getParameterName(int parameter) {
+        return names[parameter];
+    }
+
+    /**
+     * @param parameter the index of the parameter
+     * @return the index of its distribution, a station index, MAIN_DISH or DESSERT
+     */
+    public int getDistribution(int parameter) {
+        int d = 0;
+        while (offsets[d + 1] <= parameter) {
+            d++;
+        }
+        return d;
+    }
+
+    /**
+     * @param parameter the index of the parameter
+     * @return the index of the parameter within its distribution
+     */
+    public int getDistributionParameter(int parameter) {
+        return parameter - offsets[getDistribution(parameter)];
+    }
+
+    /**
+     * @return a vector for the derivatives of the time of a customer or a server, all 0
+     */
+    public double[] newVector() {
+        return new double[names.length];
+    }
+
+    /**
+     * a service (or a meal) starts: records the waiting time and its derivatives and sets the derivatives
+     * of the end of the service into the vectors of the customer and of the server
+     * @param queue         the queue the customer waited in
+     * @param wait          the waiting time
+     * @param customer      the derivatives of the time the customer entered the queue, replaced by those
+     *                      of the end of the service
+     * @param server        the derivatives of the time the server became free if the customer waited for it,
+     *                      null if the service starts at the arrival of the customer
+     * @param distribution  the distribution of the service time
+     * @param serviceTime   the service time
+     * @param serverEnd     receives the derivatives of the end of the service, may be null
+     */
+    void startService(int queue, double wait, double[] customer, double[] server, int distribution,
+                      double serviceTime, double[] serverEnd) {
+        LatencyHistogram histogram = waits[queue];
+        int row = histogram.bucketOf(wait) * names.length;
+        histogram.record(wait);
+        double[] bucketSum = bucketSums[queue];
+        double[] sum = sums[queue];
+        for (int j = 0; j < names.length; j++) {
+            double waitDerivative = server == null ? 0.0 : server[j] - customer[j];
+            bucketSum[row + j] += waitDerivative;
+            sum[j] += waitDerivative;
+            if (server != null) {
+                customer[j] = server[j];
+            }
+        }
+
+        DistributionSpec spec = distributions[distribution];
+        for (int p = 0; p < spec.getParameterCount(); p++) {
+            customer[offsets[distribution] + p] += spec.derivative(p, serviceTime);
+        }
+        if (serverEnd != null) {
+            System.arraycopy(customer, 0, serverEnd, 0, names.length);
+        }
+    }
+
+    /**
+     * forgets all waiting times, e.g. at the end of the warm-up; the vectors of the customers and servers stay
+     */
+    public void reset() {
+        for (int q = 0; q < QUEUES; q++) {
+            waits[q].reset();
+            Arrays.fill(bucketSums[q], 0.0);
+            Arrays.fill(sums[q], 0.0);
+        }
+    }
+
+    /**
+     * @param queue the queue
+     * @return the number of waiting times of the queue
+     */
+    public long getObservations(int queue) {
+        return waits[queue].getObservations();
+    }
+
+    /**
+     * @param queue     the queue
+     * @param parameter the parameter
+     * @return the derivative of the mean waiting time of the queue, 0 if nobody has waited there
+     */
+    public double getMeanWaitDerivative(int queue, int parameter) {
+        long count = waits[queue].getObservations();
+        return count == 0 ? 0.0 : sums[queue][parameter] / count;
+    }
+
+    /**
+     * returns the derivatives of a percentile of the waiting times of a queue: the mean derivatives
+     * of the waiting times ranked within 1% of the customers next to the percentile, each one with
+     * the mean derivative of its bucket
+     * @param queue         the queue
+     * @param percentile    the percentile, e.g. 95
+     * @return the derivatives by parameter, all 0 if nobody has waited there
+     */
+    public double[] getPercentileWaitDerivatives(int queue, double percentile) {
+        double[] result = new double[names.length];
+        LatencyHistogram histogram = waits[queue];
+        long count = histogram.getObservations();
+        if (count == 0) {
+            return result;
+        }
+
+        // the ranks from 1 to count of the waiting times next to the percentile
+        long rank = Math.min(count, Math.max(1, (long) Math.ceil(percentile / 100.0 * count)));
+        long window = (long) (PERCENTILE_WINDOW * count);
+        long from = Math.max(1, rank - window);
+        long to = Math.min(count, rank + window);
+
+        // the buckets hold the ranks in ascending order, each one adds the ranks it shares with the window
+        double[] bucketSum = bucketSums[queue];
+        long seen = 0;
+        for (int bucket = 0; bucket < histogram.getBucketCount() && seen < to; bucket++) {
+            long inBucket = histogram.getCount(bucket);
+            long first = seen + 1;
+            seen += inBucket;
+            if (inBucket == 0 || seen < from) {
+                continue;
+            }
+            long shared = Math.min(seen, to) - Math.max(first, from) + 1;
+            int row = bucket * names.length;
+            for (int j = 0; j < names.length; j++) {
+                result[j] += shared * bucketSum[row + j] / inBucket;
+            }
+        }
+        for (int j = 0; j < names.length; j++) {
+            result[j] /= to - from + 1;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,78 @@
+package selfservicecafe_p;
+
+import desmoj.core.report.Reporter;
+import desmoj.core.simulator.Model;
+import desmoj.core.simulator.Reportable;
+
+/**
+ * This class holds the histograms of the waiting times and of the service times of one queue
+ * of the cafeteria and shows their percentiles (p50, p95, p99) in the report. The waiting times
+ * are also collected in batches for the batch means analysis of a single long run. Like every other
+ * statistic it is reset by the experiment, e.g. at the end of the warm-up.
+ */
+public class QueuePercentiles extends Reportable {
+
+    private final LatencyHistogram waitTimes = new LatencyHistogram();
+    private final LatencyHistogram serviceTimes = new LatencyHistogram();
+    private final BatchMeans waitTimeBatches;
+
+    /**
+     * Constructor of the QueuePercentiles
+     * @param owner         the model this statistic belongs to
+     * @param name          the name, usually the name of the queue
+     * @param showInReport  flag to indicate if the percentiles shall be shown in the report
+     * @param showInTrace   flag to indicate if this statistic shall produce output for the trace
+     */
+    public QueuePercentiles(Model owner, String name, boolean showInReport, boolean showInTrace) {
+        super(owner, name, showInReport, showInTrace);
+
+        waitTimeBatches = new BatchMeans(name + " wait [s]");
+    }
+
+    /**
+     * counts the waiting time of a customer, from entering the queue until the service starts
+     * @param waitTime  the waiting time in seconds
+     */
+    public void recordWait(double waitTime) {
+        waitTimes.record(waitTime);
+        waitTimeBatches.add(waitTime);
+        incrementObservations();
+    }
+
+    /**
+     * counts the duration of a service (for the dining hall: of a meal)
+     * @param serviceTime   the service time in seconds
+     */
+    public void recordService(double serviceTime) {
+        serviceTimes.record(serviceTime);
+    }
+
+    public LatencyHistogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    public LatencyHistogram getServiceTimes() {
+        return serviceTimes;
+    }
+
+    /**
+     * @return the waiting times in the order the services started, in batches
+     */
+    public BatchMeans getWaitTimeBatches() {
+        return waitTimeBatches;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+
+        waitTimes.reset();
+        serviceTimes.reset();
+        waitTimeBatches.reset();
+    }
+
+    @Override
+    public Reporter createDefaultReporter() {
+        return new QueuePercentilesReporter(this);
+    }
+}
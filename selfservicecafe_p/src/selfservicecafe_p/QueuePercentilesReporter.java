@@ -0,0 +1,54 @@
+package selfservicecafe_p;
+
+import desmoj.core.report.Reporter;
+import desmoj.core.simulator.Reportable;
+
+/**
+ * This class writes the percentiles of a QueuePercentiles into the report,
+ * one line per queue in a table of its own.
+ */
+public class QueuePercentilesReporter extends Reporter {
+
+    private static final double[] PERCENTILES = {50, 95, 99};
+
+    /**
+     * Constructor of the QueuePercentilesReporter
+     * @param informationSource the QueuePercentiles to report about
+     */
+    public QueuePercentilesReporter(Reportable informationSource) {
+        super(informationSource);
+
+        numColumns = 11;
+        columns = new String[] {
+                "Title", "(Re)set", "Obs",
+                "Wait p50", "Wait p95", "Wait p99", "Wait max",
+                "Service p50", "Service p95", "Service p99", "Service max"
+        };
+        groupHeading = "Percentiles [s]";
+        groupID = 1450;
+        entries = new String[numColumns];
+    }
+
+    @Override
+    public String[] getEntries() {
+        QueuePercentiles percentiles = (QueuePercentiles) source;
+        LatencyHistogram waitTimes = percentiles.getWaitTimes();
+        LatencyHistogram serviceTimes = percentiles.getServiceTimes();
+
+        entries[0] = percentiles.getName();
+        entries[1] = percentiles.resetAt().toString();
+        entries[2] = Long.toString(percentiles.getObservations());
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            entries[3 + i] = format(waitTimes.getValueAtPercentile(PERCENTILES[i]));
+            entries[7 + i] = format(serviceTimes.getValueAtPercentile(PERCENTILES[i]));
+        }
+        entries[6] = format(waitTimes.getMax());
+        entries[10] = format(serviceTimes.getMax());
+
+        return entries;
+    }
+
+    private static String format(double value) {
+        return Double.isNaN(value) ? "Insufficient data" : String.format("%.1f", value);
+    }
+}
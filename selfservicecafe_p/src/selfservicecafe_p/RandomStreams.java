@@ -0,0 +1,99 @@
+package selfservicecafe_p;
+
+import desmoj.core.dist.Distribution;
+
+/**
+ * This class derives the seeds of the random streams of one model.
+ * Every replication gets its own seed, split off a base seed, and every distribution
+ * (service times, arrivals and routing decisions) gets its own seed, split off the replication seed
+ * by the distribution's name. The seeds only depend on the base seed, the replication index and
+ * the stream name, so any run can be reproduced, and no generator is shared between models or threads.
+ *
+ * The seeds are scrambled with the SplitMix64 finaliser, so that neighbouring replications
+ * and similarly named streams do not get correlated seeds.
+ *
+ * The streams of an antithetic model have the same seeds, but every distribution turns each uniform
+ * random number u into 1 - u, so the run and its antithetic twin are negatively correlated.
+ */
+public class RandomStreams {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    // the seed of the model this object belongs to
+    private final long modelSeed;
+
+    // true if the distributions draw antithetic random numbers
+    private final boolean antithetic;
+
+    /**
+     * Constructor of the RandomStreams
+     * @param modelSeed     the seed of the model, e.g. the seed of one replication
+     */
+    public RandomStreams(long modelSeed) {
+        this(modelSeed, false);
+    }
+
+    /**
+     * Constructor of the RandomStreams
+     * @param modelSeed     the seed of the model, e.g. the seed of one replication
+     * @param antithetic    true if the distributions shall draw antithetic random numbers
+     */
+    public RandomStreams(long modelSeed, boolean antithetic) {
+        this.modelSeed = modelSeed;
+        this.antithetic = antithetic;
+    }
+
+    public long getModelSeed() {
+        return modelSeed;
+    }
+
+    public boolean isAntithetic() {
+        return antithetic;
+    }
+
+    /**
+     * returns the seed of one replication
+     * @param baseSeed      the seed of the whole study
+     * @param replication   the index of the replication
+     * @return the seed of the replication
+     */
+    public static long replicationSeed(long baseSeed, int replication) {
+        return mix(baseSeed + GOLDEN_GAMMA * (replication + 1L));
+    }
+
+    /**
+     * returns the seed of a named stream of this model
+     * @param streamName    the name of the stream
+     * @return the seed of the stream
+     */
+    public long streamSeed(String streamName) {
+        long hash = 1125899906842597L;
+        for (int i = 0; i < streamName.length(); i++) {
+            hash = 31 * hash + streamName.charAt(i);
+        }
+        return mix(modelSeed ^ mix(hash));
+    }
+
+    /**
+     * seeds a distribution with the stream derived from its name and makes it antithetic if the model is
+     * @param distribution  the distribution to seed
+     * @param <D>           the type of the distribution
+     * @return the distribution
+     */
+    public <D extends Distribution> D seed(D distribution) {
+        distribution.setSeed(streamSeed(distribution.getName()));
+        distribution.setAntithetic(antithetic);
+        return distribution;
+    }
+
+    /**
+     * SplitMix64 finaliser
+     * @param z the value to scramble
+     * @return the scrambled value
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
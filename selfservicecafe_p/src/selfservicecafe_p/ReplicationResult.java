@@ -0,0 +1,147 @@
+package selfservicecafe_p;
+
+import desmoj.core.simulator.QueueBased;
+
+/**
+ * This class holds the key figures of one finished replication of the SelfServiceModel model.
+ * It only keeps plain values, so it stays valid after the experiment of the replication is finished.
+ */
+public class ReplicationResult {
+
+    // index and seed of the replication
+    private final int replication;
+    private final long seed;
+
+    // names and statistics of the customer queues, all arrays share the same order
+    private final String[] queueNames;
+    private final double[] averageWaitTimes;
+    private final double[] averageQueueLengths;
+    private final int[] maxQueueLengths;
+
+    // copies of the histograms of the waiting and service times
+    private final LatencyHistogram[] waitTimeHistograms;
+    private final LatencyHistogram[] serviceTimeHistograms;
+
+    // customers that have left the cafeteria per hour of simulated time
+    private final double throughput;
+
+    // end of the warm-up in seconds, NaN if it was not detected
+    private final double truncationPoint;
+
+    // times in system of the customers that have left and the utilization of the dining hall seats
+    private final LatencyHistogram timeInSystem;
+    private final double seatUtilization;
+
+    private ReplicationResult(int replication, long seed, String[] queueNames, double[] averageWaitTimes,
+                              double[] averageQueueLengths, int[] maxQueueLengths,
+                              LatencyHistogram[] waitTimeHistograms, LatencyHistogram[] serviceTimeHistograms,
+                              double throughput, double truncationPoint,
+                              LatencyHistogram timeInSystem, double seatUtilization) {
+        this.replication = replication;
+        this.seed = seed;
+        this.queueNames = queueNames;
+        this.averageWaitTimes = averageWaitTimes;
+        this.averageQueueLengths = averageQueueLengths;
+        this.maxQueueLengths = maxQueueLengths;
+        this.waitTimeHistograms = waitTimeHistograms;
+        this.serviceTimeHistograms = serviceTimeHistograms;
+        this.throughput = throughput;
+        this.truncationPoint = truncationPoint;
+        this.timeInSystem = timeInSystem;
+        this.seatUtilization = seatUtilization;
+    }
+
+    /**
+     * reads the key figures of a model whose experiment has just stopped
+     * @param model         the model of the replication
+     * @param replication   the index of the replication
+     * @param seed          the seed of the replication
+     * @param stopTime      the simulated time of the replication in seconds
+     * @return the result of the replication
+     */
+    public static ReplicationResult of(CafeteriaModel model, int replication, long seed, double stopTime) {
+        QueueBased[] queues = model.getCustomerQueues();
+        QueuePercentiles[] percentiles = model.getPercentiles();
+
+        String[] names = new String[queues.length];
+        double[] waits = new double[queues.length];
+        double[] lengths = new double[queues.length];
+        int[] maxLengths = new int[queues.length];
+        LatencyHistogram[] waitHistograms = new LatencyHistogram[queues.length];
+        LatencyHistogram[] serviceHistograms = new LatencyHistogram[queues.length];
+
+        for (int i = 0; i < queues.length; i++) {
+            names[i] = queues[i].getName();
+            waits[i] = queues[i].averageWaitTime().getTimeAsDouble();
+            lengths[i] = queues[i].averageLength();
+            maxLengths[i] = queues[i].maxLength();
+            waitHistograms[i] = new LatencyHistogram(percentiles[i].getWaitTimes());
+            serviceHistograms[i] = new LatencyHistogram(percentiles[i].getServiceTimes());
+        }
+
+        // after the warm-up the statistics only cover the time since they were reset
+        WarmupDetector warmup = model.getWarmupDetector();
+        boolean truncated = warmup != null && warmup.isDetected();
+        double observedTime = truncated ? stopTime - warmup.getDetectionTime() : stopTime;
+        double throughput = model.getCustomersServed() / (observedTime / 3600.0);
+
+        return new ReplicationResult(replication, seed, names, waits, lengths, maxLengths,
+                waitHistograms, serviceHistograms, throughput, truncated ? warmup.getTruncationPoint() : Double.NaN,
+                new LatencyHistogram(model.getTimeInSystem()), model.getSeatUtilization());
+    }
+
+    public int getReplication() {
+        return replication;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getQueueCount() {
+        return queueNames.length;
+    }
+
+    public String getQueueName(int queue) {
+        return queueNames[queue];
+    }
+
+    public double getAverageWaitTime(int queue) {
+        return averageWaitTimes[queue];
+    }
+
+    public double getAverageQueueLength(int queue) {
+        return averageQueueLengths[queue];
+    }
+
+    public int getMaxQueueLength(int queue) {
+        return maxQueueLengths[queue];
+    }
+
+    public LatencyHistogram getWaitTimeHistogram(int queue) {
+        return waitTimeHistograms[queue];
+    }
+
+    public LatencyHistogram getServiceTimeHistogram(int queue) {
+        return serviceTimeHistograms[queue];
+    }
+
+    public double getThroughput() {
+        return throughput;
+    }
+
+    public LatencyHistogram getTimeInSystem() {
+        return timeInSystem;
+    }
+
+    public double getSeatUtilization() {
+        return seatUtilization;
+    }
+
+    /**
+     * @return the end of the warm-up in seconds, NaN if it was not detected or not searched
+     */
+    public double getTruncationPoint() {
+        return truncationPoint;
+    }
+}
@@ -0,0 +1,160 @@
+package selfservicecafe_p;
+
+import desmoj.core.simulator.*;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * This class runs independent replications of the self service cafeteria in parallel.
+ * Every replication gets its own model, its own experiment and its own seed, so the replications
+ * share no state and run on a work-stealing pool sized to the number of available cores.
+ * The results are merged into means with confidence intervals.
+ */
+public class ReplicationRunner {
+
+    private final ModelVariant variant;
+    private final Scenario scenario;
+    private final int replications;
+    private final int parallelism;
+
+    /**
+     * Constructor of the ReplicationRunner
+     * @param variant       the implementation of the cafeteria
+     * @param scenario      the parameters of the cafeteria, its seed is the base seed of the replications
+     * @param replications  the number of replications
+     * @param parallelism   the number of replications running at the same time
+     */
+    public ReplicationRunner(ModelVariant variant, Scenario scenario, int replications, int parallelism) {
+        this.variant = variant;
+        this.scenario = scenario;
+        this.replications = replications;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * returns the seed of a replication
+     * @param replication   the index of the replication
+     * @return the seed
+     */
+    public long seedOf(int replication) {
+        return RandomStreams.replicationSeed(scenario.getSeed(), replication);
+    }
+
+    /**
+     * runs all replications and merges their results
+     * @return the merged results
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public ReplicationSummary run() throws InterruptedException {
+        ReplicationSummary summary = new ReplicationSummary();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        try {
+            List<Future<ReplicationResult>> futures = new ArrayList<>(replications);
+            for (int i = 0; i < replications; i++) {
+                final int replication = i;
+                futures.add(pool.submit(() -> runReplication(variant, scenario, replication, seedOf(replication))));
+            }
+
+            for (Future<ReplicationResult> future : futures) {
+                try {
+                    summary.add(future.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Error: replication failed.", e.getCause());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        return summary;
+    }
+
+    /**
+     * runs one replication in production mode in a fresh model and experiment without any output files
+     * @param variant       the implementation of the cafeteria
+     * @param scenario      the parameters of the cafeteria
+     * @param replication   the index of the replication
+     * @param seed          the seed of the replication
+     * @return the result of the replication
+     */
+    public static ReplicationResult runReplication(ModelVariant variant, Scenario scenario, int replication, long seed) {
+        return runReplication(variant, scenario, replication, seed, exp -> { });
+    }
+
+    /**
+     * runs one replication like runReplication(variant, scenario, replication, seed) and hands the
+     * experiment out before it starts, so another thread can stop it early with exp.stop()
+     * @param variant       the implementation of the cafeteria
+     * @param scenario      the parameters of the cafeteria
+     * @param replication   the index of the replication
+     * @param seed          the seed of the replication
+     * @param started       called with the experiment just before it starts
+     * @return the result of the replication
+     */
+    public static ReplicationResult runReplication(ModelVariant variant, Scenario scenario, int replication, long seed,
+                                                   Consumer<Experiment> started) {
+        Model model = variant.create("Self Service Cafe Model", true, RunMode.PRODUCTION.isTraced(), scenario, seed);
+        return runModel(model, scenario, replication, seed, started);
+    }
+
+    /**
+     * runs one replication of a model that has been created, but not connected to an experiment yet,
+     * e.g. to switch on an analysis of the model first
+     * @param model         the model, one of the variants of the cafeteria
+     * @param scenario      the parameters the model was created with
+     * @param replication   the index of the replication
+     * @param seed          the seed the model was created with
+     * @param started       called with the experiment just before it starts
+     * @return the result of the replication
+     */
+    public static ReplicationResult runModel(Model model, Scenario scenario, int replication, long seed,
+                                             Consumer<Experiment> started) {
+        double stopTime = scenario.getStopTime();
+
+        Experiment exp = new Experiment("SelfServiceReplication" + replication, false);
+        exp.setSeedGenerator(seed);
+
+        model.connectToExperiment(exp);
+        RunMode.PRODUCTION.configure(exp, scenario);
+
+        exp.stop(new TimeInstant(stopTime));
+        started.accept(exp);
+        exp.start();
+
+        ReplicationResult result = ReplicationResult.of((CafeteriaModel) model, replication, seed, stopTime);
+
+        exp.finish();
+
+        return result;
+    }
+
+    /**
+     * Runs the replications
+     * @param args  [number of replications] [scenario file] [variant: process or event]
+     * @throws IOException if the scenario file cannot be read
+     * @throws InterruptedException if interrupted while waiting for the replications
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int replications = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        Scenario scenario = args.length > 1 ? ScenarioLoader.load(Paths.get(args[1])) : Scenario.defaults();
+        ModelVariant variant = args.length > 2 ? ModelVariant.parse(args[2]) : ModelVariant.PROCESS;
+
+        ReplicationRunner runner = new ReplicationRunner(variant, scenario, replications,
+                Runtime.getRuntime().availableProcessors());
+
+        long start = System.nanoTime();
+        ReplicationSummary summary = runner.run();
+        long elapsed = System.nanoTime() - start;
+
+        summary.print(System.out, 0.95);
+        System.out.printf("wall clock time: %.1f s%n", elapsed / 1e9);
+    }
+}
@@ -0,0 +1,157 @@
+package selfservicecafe_p;
+
+import java.io.PrintStream;
+
+/**
+ * This class merges the results of independent replications into means with confidence intervals:
+ * per customer queue the average waiting time and the average queue length, and the customer throughput.
+ * The histograms of the waiting and service times of all replications are merged into percentiles.
+ */
+public class ReplicationSummary {
+
+    private SummaryStatistic[] waitTimes;
+    private SummaryStatistic[] queueLengths;
+    private String[] queueNames;
+    private LatencyHistogram[] waitTimeHistograms;
+    private LatencyHistogram[] serviceTimeHistograms;
+    private SummaryStatistic throughput = new SummaryStatistic("throughput [customers/h]");
+    private SummaryStatistic timeInSystemP95 = new SummaryStatistic("p95 time in system [s]");
+    private SummaryStatistic seatUtilization = new SummaryStatistic("seat utilization");
+    private SummaryStatistic truncationPoints = new SummaryStatistic("end of warm-up [s]");
+
+    private int replications;
+
+    /**
+     * adds the result of one replication
+     * @param result    the result of a finished replication
+     */
+    public synchronized void add(ReplicationResult result) {
+        if (waitTimes == null) {
+            waitTimes = new SummaryStatistic[result.getQueueCount()];
+            queueLengths = new SummaryStatistic[result.getQueueCount()];
+            queueNames = new String[result.getQueueCount()];
+            waitTimeHistograms = new LatencyHistogram[result.getQueueCount()];
+            serviceTimeHistograms = new LatencyHistogram[result.getQueueCount()];
+            for (int i = 0; i < waitTimes.length; i++) {
+                waitTimes[i] = new SummaryStatistic(result.getQueueName(i) + " avg. wait [s]");
+                queueLengths[i] = new SummaryStatistic(result.getQueueName(i) + " avg. length");
+                queueNames[i] = result.getQueueName(i);
+                waitTimeHistograms[i] = new LatencyHistogram();
+                serviceTimeHistograms[i] = new LatencyHistogram();
+            }
+        }
+
+        for (int i = 0; i < waitTimes.length; i++) {
+            waitTimes[i].update(result.getAverageWaitTime(i));
+            queueLengths[i].update(result.getAverageQueueLength(i));
+            waitTimeHistograms[i].merge(result.getWaitTimeHistogram(i));
+            serviceTimeHistograms[i].merge(result.getServiceTimeHistogram(i));
+        }
+        throughput.update(result.getThroughput());
+        timeInSystemP95.update(result.getTimeInSystem().getValueAtPercentile(95));
+        seatUtilization.update(result.getSeatUtilization());
+        if (!Double.isNaN(result.getTruncationPoint())) {
+            truncationPoints.update(result.getTruncationPoint());
+        }
+
+        replications++;
+    }
+
+    public synchronized int getReplications() {
+        return replications;
+    }
+
+    public synchronized int getQueueCount() {
+        return queueNames == null ? 0 : queueNames.length;
+    }
+
+    public synchronized SummaryStatistic getWaitTime(int queue) {
+        return waitTimes[queue];
+    }
+
+    public synchronized SummaryStatistic getQueueLength(int queue) {
+        return queueLengths[queue];
+    }
+
+    /**
+     * @param queue the index of the queue
+     * @return the waiting times of all customers of all replications at this queue
+     */
+    public synchronized LatencyHistogram getWaitTimeHistogram(int queue) {
+        return waitTimeHistograms[queue];
+    }
+
+    /**
+     * @param queue the index of the queue
+     * @return the service times of all customers of all replications at this queue
+     */
+    public synchronized LatencyHistogram getServiceTimeHistogram(int queue) {
+        return serviceTimeHistograms[queue];
+    }
+
+    public synchronized SummaryStatistic getThroughput() {
+        return throughput;
+    }
+
+    /**
+     * @return the 95th percentiles of the times in system, one per replication
+     */
+    public synchronized SummaryStatistic getTimeInSystemP95() {
+        return timeInSystemP95;
+    }
+
+    public synchronized SummaryStatistic getSeatUtilization() {
+        return seatUtilization;
+    }
+
+    /**
+     * @return the ends of the warm-up of the replications in which it was detected
+     */
+    public synchronized SummaryStatistic getTruncationPoints() {
+        return truncationPoints;
+    }
+
+    /**
+     * prints all key figures with their confidence intervals
+     * @param out           the stream to print to
+     * @param confidence    the confidence level, e.g. 0.95
+     */
+    public synchronized void print(PrintStream out, double confidence) {
+        out.printf("%d replications, %.0f%% confidence intervals%n", replications, confidence * 100);
+        if (waitTimes == null) {
+            return;
+        }
+        for (SummaryStatistic statistic : waitTimes) {
+            print(out, statistic, confidence);
+        }
+        for (SummaryStatistic statistic : queueLengths) {
+            print(out, statistic, confidence);
+        }
+        print(out, throughput, confidence);
+        print(out, timeInSystemP95, confidence);
+        print(out, seatUtilization, confidence);
+        if (truncationPoints.getObservations() > 0) {
+            print(out, truncationPoints, confidence);
+            out.printf("end of warm-up detected in %d of %d replications%n",
+                    truncationPoints.getObservations(), replications);
+        }
+
+        out.printf("%n%-30s %10s %9s %9s %9s %9s %9s %9s %9s%n", "percentiles [s]", "customers",
+                "wait p50", "wait p95", "wait p99", "wait max", "serv. p50", "serv. p95", "serv. p99");
+        for (int i = 0; i < queueNames.length; i++) {
+            LatencyHistogram wait = waitTimeHistograms[i];
+            LatencyHistogram service = serviceTimeHistograms[i];
+            out.printf("%-30s %10d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n", queueNames[i],
+                    wait.getObservations(),
+                    wait.getValueAtPercentile(50), wait.getValueAtPercentile(95),
+                    wait.getValueAtPercentile(99), wait.getMax(),
+                    service.getValueAtPercentile(50), service.getValueAtPercentile(95),
+                    service.getValueAtPercentile(99));
+        }
+    }
+
+    private static void print(PrintStream out, SummaryStatistic statistic, double confidence) {
+        out.printf("%-50s %12.3f +/- %10.3f%n", statistic.getName(), statistic.getMean(),
+                statistic.halfWidth(confidence));
+    }
+}
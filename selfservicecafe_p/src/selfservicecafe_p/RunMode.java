@@ -0,0 +1,62 @@
+package selfservicecafe_p;
+
+import desmoj.core.simulator.Experiment;
+import desmoj.core.simulator.TimeInstant;
+
+/**
+ * The modes a single experiment can be run in.
+ */
+public enum RunMode {
+
+    // trace and debug output in the trace window of the scenario, with progress bar
+    DEBUG {
+        @Override
+        public boolean isTraced() {
+            return true;
+        }
+
+        @Override
+        public void configure(Experiment exp, Scenario scenario) {
+            exp.setShowProgressBar(true);
+            if (scenario.isTraced()) {
+                exp.tracePeriod(new TimeInstant(scenario.getTraceStart()), new TimeInstant(scenario.getTraceStop()));
+                exp.debugPeriod(new TimeInstant(scenario.getTraceStart()), new TimeInstant(scenario.getTraceStop()));
+            }
+        }
+    },
+
+    // no trace, no debug output and no progress bar, the model and its components are created
+    // without trace, so no trace note is ever built; only the report is written
+    PRODUCTION {
+        @Override
+        public boolean isTraced() {
+            return false;
+        }
+
+        @Override
+        public void configure(Experiment exp, Scenario scenario) {
+            exp.setShowProgressBar(false);
+        }
+    };
+
+    /**
+     * @return the showInTrace flag the model has to be created with
+     */
+    public abstract boolean isTraced();
+
+    /**
+     * sets the trace and debug periods and the progress bar of an experiment
+     * @param exp       the experiment, not started yet
+     * @param scenario  the scenario with the trace window
+     */
+    public abstract void configure(Experiment exp, Scenario scenario);
+
+    /**
+     * parses a mode name, ignoring case
+     * @param name  the name, e.g. "debug" or "production"
+     * @return the mode
+     */
+    public static RunMode parse(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,247 @@
+package selfservicecafe_p;
+
+/**
+ * This class holds all parameters of one scenario of the cafeteria:
+ * staffing and service times of the stations, the capacity of the dining hall,
+ * the arrival and resting time distributions, the routing probabilities,
+ * the stop time, the trace window, the seed, whether the warm-up is detected and whether
+ * the random numbers are antithetic.
+ *
+ * A scenario is immutable, the with... methods return changed copies,
+ * so one scenario can be shared by replications running in parallel.
+ */
+public class Scenario {
+
+    private final String name;
+
+    private final StationConfig[] stations;
+    private final int diningHallCapacity;
+
+    private final DistributionSpec customerArrivalTime;
+    private final DistributionSpec restingTimeMainDish;
+    private final DistributionSpec restingTimeDessert;
+
+    // routing probabilities
+    private final double sandwichBarProbability;
+    private final double drinksBarProbability;
+    private final double dessertProbability;
+
+    // end of simulation and trace window in seconds, no trace if traceStop <= traceStart
+    private final double stopTime;
+    private final double traceStart;
+    private final double traceStop;
+
+    private final long seed;
+
+    // detect the end of the warm-up and reset all statistics then (MSER-5)
+    private final boolean warmupDetection;
+
+    // use 1 - u instead of every uniform random number u, for the second run of an antithetic pair
+    private final boolean antithetic;
+
+    /**
+     * Constructor of the Scenario
+     * @param name                      the scenario's name
+     * @param stations                  the stations in the order of the station indices of SelfServiceModel
+     * @param diningHallCapacity        the number of seats in the dining hall
+     * @param customerArrivalTime       the distribution of the time between two arrivals
+     * @param restingTimeMainDish       the distribution of the time spent eating the main dish
+     * @param restingTimeDessert        the distribution of the time spent eating the dessert
+     * @param sandwichBarProbability    the probability to go to the sandwich bar instead of the menu bar
+     * @param drinksBarProbability      the probability to go to the drinks bar
+     * @param dessertProbability        the probability to get a dessert
+     * @param stopTime                  the end of the simulation in seconds
+     * @param traceStart                the start of the trace window in seconds
+     * @param traceStop                 the end of the trace window in seconds
+     * @param seed                      the seed of the scenario
+     * @param warmupDetection           true to reset all statistics at the detected end of the warm-up
+     * @param antithetic                true to draw antithetic random numbers from the streams of the seed
+     */
+    public Scenario(String name, StationConfig[] stations, int diningHallCapacity,
+                    DistributionSpec customerArrivalTime, DistributionSpec restingTimeMainDish,
+                    DistributionSpec restingTimeDessert, double sandwichBarProbability,
+                    double drinksBarProbability, double dessertProbability,
+                    double stopTime, double traceStart, double traceStop, long seed, boolean warmupDetection,
+                    boolean antithetic) {
+        if (stations.length != 6) {
+            throw new IllegalArgumentException("Error: the cafeteria needs 6 stations, but got " + stations.length + ".");
+        }
+        if (diningHallCapacity < 1) {
+            throw new IllegalArgumentException("Error: the dining hall needs at least one seat.");
+        }
+        if (!(stopTime > 0)) {
+            throw new IllegalArgumentException("Error: the stop time " + stopTime + " is not positive.");
+        }
+        checkProbability("sandwichBarProbability", sandwichBarProbability);
+        checkProbability("drinksBarProbability", drinksBarProbability);
+        checkProbability("dessertProbability", dessertProbability);
+
+        this.name = name;
+        this.stations = stations.clone();
+        this.diningHallCapacity = diningHallCapacity;
+        this.customerArrivalTime = customerArrivalTime;
+        this.restingTimeMainDish = restingTimeMainDish;
+        this.restingTimeDessert = restingTimeDessert;
+        this.sandwichBarProbability = sandwichBarProbability;
+        this.drinksBarProbability = drinksBarProbability;
+        this.dessertProbability = dessertProbability;
+        this.stopTime = stopTime;
+        this.traceStart = traceStart;
+        this.traceStop = traceStop;
+        this.seed = seed;
+        this.warmupDetection = warmupDetection;
+        this.antithetic = antithetic;
+    }
+
+    private static void checkProbability(String name, double probability) {
+        if (probability < 0.0 || probability > 1.0) {
+            throw new IllegalArgumentException("Error: " + name + " " + probability + " is not in [0, 1].");
+        }
+    }
+
+    /**
+     * returns the scenario the model was built with before scenarios existed:
+     * one employee per station, one drinks machine, 30 seats, 4 hours, trace during the first minute,
+     * no warm-up detection, no antithetic random numbers
+     * @return the default scenario
+     */
+    public static Scenario defaults() {
+        return new Scenario("default", StationConfig.defaults(1, 1), 30,
+                DistributionSpec.uniform(10.0, 50.0),
+                DistributionSpec.uniform(600.0, 1800.0),
+                DistributionSpec.uniform(420.0, 780.0),
+                0.4, 0.9, 0.1,
+                14400.0, 0.0, 60.0, SelfServiceModel.DEFAULT_SEED, false, false);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public StationConfig[] getStations() {
+        return stations.clone();
+    }
+
+    public StationConfig getStation(int stationIndex) {
+        return stations[stationIndex];
+    }
+
+    public int getDiningHallCapacity() {
+        return diningHallCapacity;
+    }
+
+    public DistributionSpec getCustomerArrivalTime() {
+        return customerArrivalTime;
+    }
+
+    public DistributionSpec getRestingTimeMainDish() {
+        return restingTimeMainDish;
+    }
+
+    public DistributionSpec getRestingTimeDessert() {
+        return restingTimeDessert;
+    }
+
+    public double getSandwichBarProbability() {
+        return sandwichBarProbability;
+    }
+
+    public double getDrinksBarProbability() {
+        return drinksBarProbability;
+    }
+
+    public double getDessertProbability() {
+        return dessertProbability;
+    }
+
+    public double getStopTime() {
+        return stopTime;
+    }
+
+    public double getTraceStart() {
+        return traceStart;
+    }
+
+    public double getTraceStop() {
+        return traceStop;
+    }
+
+    public boolean isTraced() {
+        return traceStop > traceStart;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public boolean isWarmupDetection() {
+        return warmupDetection;
+    }
+
+    public boolean isAntithetic() {
+        return antithetic;
+    }
+
+    public Scenario withName(String name) {
+        return new Scenario(name, stations, diningHallCapacity, customerArrivalTime, restingTimeMainDish,
+                restingTimeDessert, sandwichBarProbability, drinksBarProbability, dessertProbability,
+                stopTime, traceStart, traceStop, seed, warmupDetection, antithetic);
+    }
+
+    public Scenario withStation(int stationIndex, StationConfig station) {
+        StationConfig[] changed = stations.clone();
+        changed[stationIndex] = station;
+        return new Scenario(name, changed, diningHallCapacity, customerArrivalTime, restingTimeMainDish,
+                restingTimeDessert, sandwichBarProbability, drinksBarProbability, dessertProbability,
+                stopTime, traceStart, traceStop, seed, warmupDetection, antithetic);
+    }
+
+    public Scenario withDiningHallCapacity(int diningHallCapacity) {
+        return new Scenario(name, stations, diningHallCapacity, customerArrivalTime, restingTimeMainDish,
+                restingTimeDessert, sandwichBarProbability, drinksBarProbability, dessertProbability,
+                stopTime, traceStart, traceStop, seed, warmupDetection, antithetic);
+    }
+
+    public Scenario withDistributions(DistributionSpec customerArrivalTime, DistributionSpec restingTimeMainDish,
+                                      DistributionSpec restingTimeDessert) {
+        return new Scenario(name, stations, diningHallCapacity, customerArrivalTime, restingTimeMainDish,
+                restingTimeDessert, sandwichBarProbability, drinksBarProbability, dessertProbability,
+                stopTime, traceStart, traceStop, seed, warmupDetection, antithetic);
+    }
+
+    public Scenario withRouting(double sandwichBarProbability, double drinksBarProbability, double dessertProbability) {
+        return new Scenario(name, stations, diningHallCapacity, customerArrivalTime, restingTimeMainDish,
+                restingTimeDessert, sandwichBarProbability, drinksBarProbability, dessertProbability,
+                stopTime, traceStart, traceStop, seed, warmupDetection, antithetic);
+    }
+
+    public Scenario withStopTime(double stopTime) {
+        return new Scenario(name, stations, diningHallCapacity, customerArrivalTime, restingTimeMainDish,
+                restingTimeDessert, sandwichBarProbability, drinksBarProbability, dessertProbability,
+                stopTime, traceStart, traceStop, seed, warmupDetection, antithetic);
+    }
+
+    public Scenario withTrace(double traceStart, double traceStop) {
+        return new Scenario(name, stations, diningHallCapacity, customerArrivalTime, restingTimeMainDish,
+                restingTimeDessert, sandwichBarProbability, drinksBarProbability, dessertProbability,
+                stopTime, traceStart, traceStop, seed, warmupDetection, antithetic);
+    }
+
+    public Scenario withSeed(long seed) {
+        return new Scenario(name, stations, diningHallCapacity, customerArrivalTime, restingTimeMainDish,
+                restingTimeDessert, sandwichBarProbability, drinksBarProbability, dessertProbability,
+                stopTime, traceStart, traceStop, seed, warmupDetection, antithetic);
+    }
+
+    public Scenario withWarmupDetection(boolean warmupDetection) {
+        return new Scenario(name, stations, diningHallCapacity, customerArrivalTime, restingTimeMainDish,
+                restingTimeDessert, sandwichBarProbability, drinksBarProbability, dessertProbability,
+                stopTime, traceStart, traceStop, seed, warmupDetection, antithetic);
+    }
+
+    public Scenario withAntithetic(boolean antithetic) {
+        return new Scenario(name, stations, diningHallCapacity, customerArrivalTime, restingTimeMainDish,
+                restingTimeDessert, sandwichBarProbability, drinksBarProbability, dessertProbability,
+                stopTime, traceStart, traceStop, seed, warmupDetection, antithetic);
+    }
+}
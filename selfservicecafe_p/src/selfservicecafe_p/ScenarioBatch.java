@@ -0,0 +1,44 @@
+package selfservicecafe_p;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * This class runs a whole directory of scenario files in one JVM, one scenario after the other,
+ * each with its replications running in parallel. Startup and JIT warm-up are paid only once
+ * for all scenarios.
+ */
+public final class ScenarioBatch {
+
+    private ScenarioBatch() {
+    }
+
+    /**
+     * Runs the scenarios
+     * @param args  scenario directory or file [number of replications] [variant: process or event]
+     * @throws IOException if a scenario file cannot be read
+     * @throws InterruptedException if interrupted while waiting for the replications
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("usage: ScenarioBatch <scenario directory or file> [replications] [process|event]");
+            System.exit(1);
+        }
+
+        List<Scenario> scenarios = ScenarioLoader.loadAll(Paths.get(args[0]));
+        int replications = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        ModelVariant variant = args.length > 2 ? ModelVariant.parse(args[2]) : ModelVariant.PROCESS;
+        int parallelism = Runtime.getRuntime().availableProcessors();
+
+        for (Scenario scenario : scenarios) {
+            long start = System.nanoTime();
+            ReplicationSummary summary = new ReplicationRunner(variant, scenario, replications, parallelism).run();
+            long elapsed = System.nanoTime() - start;
+
+            System.out.println("=== scenario " + scenario.getName() + " ===");
+            summary.print(System.out, 0.95);
+            System.out.printf("wall clock time: %.1f s%n%n", elapsed / 1e9);
+        }
+    }
+}
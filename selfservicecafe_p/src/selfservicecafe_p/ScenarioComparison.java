@@ -0,0 +1,245 @@
+package selfservicecafe_p;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * This class compares two scenarios of the cafeteria, e.g. two and three check out employees, with
+ * common random numbers: replication r of both scenarios is run with the same seed, and since every
+ * customer draws all its demands on arrival (see CustomerDemands), the same customers arrive in both
+ * runs with the same routes and service times. The difference of a key figure is then estimated from
+ * the paired differences of the replications, whose variance is much smaller than the sum of the
+ * variances of the two scenarios when the runs are positively correlated.
+ *
+ * With antithetic pairs every replication is run a second time with the antithetic random numbers of the
+ * same seed, and the mean of the two runs is one observation.
+ *
+ * For every key figure the comparison reports the paired confidence interval of the difference, the one
+ * independent replications with the same variances would give, and how many runs per scenario each of
+ * them needs to separate the scenarios, i.e. for a confidence interval narrower than the difference.
+ */
+public class ScenarioComparison {
+
+    private final ModelVariant variant;
+    private final Scenario first;
+    private final Scenario second;
+    private final long seed;
+    private final int replications;
+    private final boolean antithetic;
+    private final int parallelism;
+
+    // per key figure: the first scenario, the second one and the paired differences
+    private final SummaryStatistic[][] statistics;
+    // per key figure: the single runs of both scenarios, without averaging antithetic pairs
+    private final SummaryStatistic[][] runs;
+
+    /**
+     * Constructor of the ScenarioComparison
+     * @param variant       the implementation of the cafeteria
+     * @param first         the first scenario, its seed is the base seed of the replications of both scenarios
+     * @param second        the second scenario
+     * @param replications  the number of observations, each one a replication or an antithetic pair
+     * @param antithetic    true to run every replication as an antithetic pair
+     * @param parallelism   the number of replications running at the same time
+     */
+    public ScenarioComparison(ModelVariant variant, Scenario first, Scenario second, int replications,
+                              boolean antithetic, int parallelism) {
+        if (replications < 2) {
+            throw new IllegalArgumentException("Error: a comparison needs at least 2 replications, not "
+                    + replications + ".");
+        }
+        this.variant = variant;
+        this.first = first;
+        this.second = second;
+        this.seed = first.getSeed();
+        this.replications = replications;
+        this.antithetic = antithetic;
+        this.parallelism = parallelism;
+
+        SequentialStopping.Kpi[] kpis = SequentialStopping.Kpi.values();
+        statistics = new SummaryStatistic[kpis.length][3];
+        runs = new SummaryStatistic[kpis.length][2];
+        for (int k = 0; k < kpis.length; k++) {
+            String label = kpis[k].getLabel();
+            statistics[k][0] = new SummaryStatistic(first.getName() + " " + label);
+            statistics[k][1] = new SummaryStatistic(second.getName() + " " + label);
+            statistics[k][2] = new SummaryStatistic("difference " + label);
+            runs[k][0] = new SummaryStatistic(first.getName() + " " + label);
+            runs[k][1] = new SummaryStatistic(second.getName() + " " + label);
+        }
+    }
+
+    /**
+     * runs the replications of both scenarios in parallel and adds them in the order of the replications
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void run() throws InterruptedException {
+        int twins = antithetic ? 2 : 1;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            // replication r, twin t, scenario s at index (r * twins + t) * 2 + s
+            List<Future<ReplicationResult>> futures = new ArrayList<>(replications * twins * 2);
+            for (int r = 0; r < replications; r++) {
+                long replicationSeed = RandomStreams.replicationSeed(seed, r);
+                for (int t = 0; t < twins; t++) {
+                    for (Scenario scenario : new Scenario[] {first, second}) {
+                        Scenario run = scenario.withAntithetic(t == 1);
+                        final int replication = r;
+                        futures.add(pool.submit(() ->
+                                ReplicationRunner.runReplication(variant, run, replication, replicationSeed)));
+                    }
+                }
+            }
+
+            SequentialStopping.Kpi[] kpis = SequentialStopping.Kpi.values();
+            int index = 0;
+            for (int r = 0; r < replications; r++) {
+                double[][] means = new double[kpis.length][2];
+                for (int t = 0; t < twins; t++) {
+                    for (int s = 0; s < 2; s++) {
+                        ReplicationResult result;
+                        try {
+                            result = futures.get(index++).get();
+                        } catch (ExecutionException e) {
+                            throw new IllegalStateException("Error: replication failed.", e.getCause());
+                        }
+                        for (int k = 0; k < kpis.length; k++) {
+                            double value = kpis[k].valueOf(result);
+                            runs[k][s].update(value);
+                            means[k][s] += value / twins;
+                        }
+                    }
+                }
+                for (int k = 0; k < kpis.length; k++) {
+                    statistics[k][0].update(means[k][0]);
+                    statistics[k][1].update(means[k][1]);
+                    statistics[k][2].update(means[k][1] - means[k][0]);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * @param kpi   the key figure
+     * @return the observations of the first scenario
+     */
+    public SummaryStatistic getFirst(SequentialStopping.Kpi kpi) {
+        return statistics[kpi.ordinal()][0];
+    }
+
+    /**
+     * @param kpi   the key figure
+     * @return the observations of the second scenario
+     */
+    public SummaryStatistic getSecond(SequentialStopping.Kpi kpi) {
+        return statistics[kpi.ordinal()][1];
+    }
+
+    /**
+     * @param kpi   the key figure
+     * @return the paired differences, second minus first scenario
+     */
+    public SummaryStatistic getDifference(SequentialStopping.Kpi kpi) {
+        return statistics[kpi.ordinal()][2];
+    }
+
+    /**
+     * returns the half width of the confidence interval of the difference that independent replications
+     * of both scenarios would give, from the variances of their single runs
+     * @param kpi           the key figure
+     * @param confidence    the confidence level, e.g. 0.95
+     * @return the half width
+     */
+    public double independentHalfWidth(SequentialStopping.Kpi kpi, double confidence) {
+        SummaryStatistic a = runs[kpi.ordinal()][0];
+        SummaryStatistic b = runs[kpi.ordinal()][1];
+        long n = a.getObservations();
+        double t = StudentT.quantile(1.0 - (1.0 - confidence) / 2.0, n - 1);
+        return t * Math.sqrt((a.getVariance() + b.getVariance()) / n);
+    }
+
+    /**
+     * returns the runs per scenario that independent replications need for a confidence interval
+     * of the difference narrower than the estimated difference
+     * @param kpi           the key figure
+     * @param confidence    the confidence level, e.g. 0.95
+     * @return the number of runs
+     */
+    public long independentRunsToSeparate(SequentialStopping.Kpi kpi, double confidence) {
+        return runsToSeparate(runs[kpi.ordinal()][0].getVariance() + runs[kpi.ordinal()][1].getVariance(),
+                getDifference(kpi), confidence, 1);
+    }
+
+    /**
+     * returns the runs per scenario that common random numbers (and antithetic pairs, if used) need for
+     * a confidence interval of the difference narrower than the estimated difference
+     * @param kpi           the key figure
+     * @param confidence    the confidence level, e.g. 0.95
+     * @return the number of runs
+     */
+    public long pairedRunsToSeparate(SequentialStopping.Kpi kpi, double confidence) {
+        SummaryStatistic difference = getDifference(kpi);
+        return runsToSeparate(difference.getVariance(), difference, confidence, antithetic ? 2 : 1);
+    }
+
+    // (t * s / d)^2 observations, at least 2, each one costs runsPerObservation runs
+    private long runsToSeparate(double variance, SummaryStatistic difference, double confidence,
+                                int runsPerObservation) {
+        double d = Math.abs(difference.getMean());
+        if (d == 0) {
+            return Long.MAX_VALUE;
+        }
+        double t = StudentT.quantile(1.0 - (1.0 - confidence) / 2.0, difference.getObservations() - 1);
+        double observations = Math.max(2, Math.ceil(t * t * variance / (d * d)));
+        return (long) observations * runsPerObservation;
+    }
+
+    /**
+     * Compares two scenarios
+     * @param args  first scenario file, second scenario file, [replications] [variant: process, event or hybrid]
+     *              [antithetic]
+     * @throws IOException if a scenario file cannot be read
+     * @throws InterruptedException if interrupted while waiting for the replications
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.err.println("usage: ScenarioComparison <scenario file> <scenario file> [replications] "
+                    + "[process|event|hybrid] [antithetic]");
+            System.exit(1);
+        }
+        Scenario first = ScenarioLoader.load(Paths.get(args[0]));
+        Scenario second = ScenarioLoader.load(Paths.get(args[1]));
+        int replications = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        ModelVariant variant = args.length > 3 ? ModelVariant.parse(args[3]) : ModelVariant.PROCESS;
+        boolean antithetic = args.length > 4 && args[4].equalsIgnoreCase("antithetic");
+
+        ScenarioComparison comparison = new ScenarioComparison(variant, first, second, replications, antithetic,
+                Runtime.getRuntime().availableProcessors());
+        long start = System.nanoTime();
+        comparison.run();
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%s - %s, %d %s with common random numbers%n%n", second.getName(), first.getName(),
+                replications, antithetic ? "antithetic pairs" : "replications");
+        System.out.printf("%-26s %12s %12s %24s %14s %22s%n", "key figure", first.getName(), second.getName(),
+                "difference (paired)", "independent", "runs to separate");
+        for (SequentialStopping.Kpi kpi : SequentialStopping.Kpi.values()) {
+            SummaryStatistic difference = comparison.getDifference(kpi);
+            System.out.printf("%-26s %12.3f %12.3f %11.3f +/- %8.3f %5s+/- %8.3f %10d / %-10d%n", kpi.getLabel(),
+                    comparison.getFirst(kpi).getMean(), comparison.getSecond(kpi).getMean(),
+                    difference.getMean(), difference.halfWidth(0.95), "",
+                    comparison.independentHalfWidth(kpi, 0.95),
+                    comparison.independentRunsToSeparate(kpi, 0.95), comparison.pairedRunsToSeparate(kpi, 0.95));
+        }
+        System.out.printf("%nruns to separate: independent / %s, per scenario%n",
+                antithetic ? "common random numbers with antithetic pairs" : "common random numbers");
+        System.out.printf("wall clock time: %.1f s%n", elapsed / 1e9);
+    }
+}
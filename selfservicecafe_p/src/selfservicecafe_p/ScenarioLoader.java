@@ -0,0 +1,203 @@
+package selfservicecafe_p;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * This class reads scenarios from properties files. Every key is optional,
+ * missing keys keep the value of Scenario.defaults(). Unknown keys are rejected,
+ * so that a typo does not silently run the default scenario.
+ *
+ * Keys:
+ *      name                            the scenario's name, default: the file name
+ *      stopTime                        end of the simulation in seconds
+ *      trace.start, trace.stop         trace window in seconds, no trace if stop <= start
+ *      seed                            the seed of the scenario
+ *      warmup.detect                   true to reset all statistics at the end of the warm-up (MSER-5)
+ *      antithetic                      true to draw antithetic random numbers (1 - u instead of u)
+ *      diningHall.seats                number of seats in the dining hall
+ *      arrival                         time between two arrivals, e.g. uniform(10, 50)
+ *      resting.mainDish                time spent eating the main dish
+ *      resting.dessert                 time spent eating the dessert
+ *      routing.sandwichBar             probability to go to the sandwich bar instead of the menu bar
+ *      routing.drinksBar               probability to go to the drinks bar
+ *      routing.dessert                 probability to get a dessert
+ *      employeesPerStation             number of employees at every station with employees
+ *      station.NAME.servers            number of employees (or machines) of one station, e.g. station.CheckOut.servers
+ *      station.NAME.serviceTime        service time of one station, e.g. station.CheckOut.serviceTime=exponential(25)
+ */
+public final class ScenarioLoader {
+
+    // extension of scenario files in a scenario directory
+    public static final String EXTENSION = ".properties";
+
+    private ScenarioLoader() {
+    }
+
+    /**
+     * reads one scenario file
+     * @param file  the properties file
+     * @return the scenario
+     * @throws IOException if the file cannot be read
+     */
+    public static Scenario load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+
+        String fileName = file.getFileName().toString();
+        if (fileName.endsWith(EXTENSION)) {
+            fileName = fileName.substring(0, fileName.length() - EXTENSION.length());
+        }
+
+        try {
+            return fromProperties(properties, fileName);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Error in scenario file " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * reads all scenario files of a directory, sorted by file name
+     * @param directory the directory
+     * @return the scenarios
+     * @throws IOException if the directory or a file cannot be read
+     */
+    public static List<Scenario> loadDirectory(Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> entries = Files.list(directory)) {
+            files = entries.filter(path -> path.getFileName().toString().endsWith(EXTENSION))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        List<Scenario> scenarios = new ArrayList<>(files.size());
+        for (Path file : files) {
+            scenarios.add(load(file));
+        }
+        return scenarios;
+    }
+
+    /**
+     * reads a scenario file, or all scenario files if the path is a directory
+     * @param path  a properties file or a directory of properties files
+     * @return the scenarios
+     * @throws IOException if a file cannot be read
+     */
+    public static List<Scenario> loadAll(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            return loadDirectory(path);
+        }
+        List<Scenario> scenarios = new ArrayList<>(1);
+        scenarios.add(load(path));
+        return scenarios;
+    }
+
+    /**
+     * builds a scenario from properties
+     * @param properties    the properties
+     * @param defaultName   the name used if the properties have no name
+     * @return the scenario
+     */
+    public static Scenario fromProperties(Properties properties, String defaultName) {
+        Scenario defaults = Scenario.defaults();
+
+        for (String key : properties.stringPropertyNames()) {
+            if (!isKnownKey(key, defaults)) {
+                throw new IllegalArgumentException("unknown key " + key);
+            }
+        }
+
+        StationConfig[] stations = defaults.getStations();
+        String employees = properties.getProperty("employeesPerStation");
+        for (int i = 0; i < stations.length; i++) {
+            StationConfig station = stations[i];
+            if (employees != null && !station.isSelfService()) {
+                station = station.withServers(Integer.parseInt(employees.trim()));
+            }
+
+            String prefix = "station." + station.getName() + ".";
+            String servers = properties.getProperty(prefix + "servers");
+            if (servers != null) {
+                station = station.withServers(Integer.parseInt(servers.trim()));
+            }
+            String serviceTime = properties.getProperty(prefix + "serviceTime");
+            if (serviceTime != null) {
+                station = station.withServiceTime(DistributionSpec.parse(serviceTime));
+            }
+            stations[i] = station;
+        }
+
+        return new Scenario(
+                properties.getProperty("name", defaultName).trim(),
+                stations,
+                getInt(properties, "diningHall.seats", defaults.getDiningHallCapacity()),
+                getDistribution(properties, "arrival", defaults.getCustomerArrivalTime()),
+                getDistribution(properties, "resting.mainDish", defaults.getRestingTimeMainDish()),
+                getDistribution(properties, "resting.dessert", defaults.getRestingTimeDessert()),
+                getDouble(properties, "routing.sandwichBar", defaults.getSandwichBarProbability()),
+                getDouble(properties, "routing.drinksBar", defaults.getDrinksBarProbability()),
+                getDouble(properties, "routing.dessert", defaults.getDessertProbability()),
+                getDouble(properties, "stopTime", defaults.getStopTime()),
+                getDouble(properties, "trace.start", defaults.getTraceStart()),
+                getDouble(properties, "trace.stop", defaults.getTraceStop()),
+                Long.parseLong(properties.getProperty("seed", Long.toString(defaults.getSeed())).trim()),
+                Boolean.parseBoolean(properties.getProperty("warmup.detect",
+                        Boolean.toString(defaults.isWarmupDetection())).trim()),
+                Boolean.parseBoolean(properties.getProperty("antithetic",
+                        Boolean.toString(defaults.isAntithetic())).trim()));
+    }
+
+    private static boolean isKnownKey(String key, Scenario defaults) {
+        switch (key) {
+            case "name":
+            case "stopTime":
+            case "trace.start":
+            case "trace.stop":
+            case "seed":
+            case "warmup.detect":
+            case "antithetic":
+            case "diningHall.seats":
+            case "arrival":
+            case "resting.mainDish":
+            case "resting.dessert":
+            case "routing.sandwichBar":
+            case "routing.drinksBar":
+            case "routing.dessert":
+            case "employeesPerStation":
+                return true;
+            default:
+                for (StationConfig station : defaults.getStations()) {
+                    String prefix = "station." + station.getName() + ".";
+                    if (key.equals(prefix + "servers") || key.equals(prefix + "serviceTime")) {
+                        return true;
+                    }
+                }
+                return false;
+        }
+    }
+
+    private static int getInt(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static double getDouble(Properties properties, String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : Double.parseDouble(value.trim());
+    }
+
+    private static DistributionSpec getDistribution(Properties properties, String key, DistributionSpec defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : DistributionSpec.parse(value);
+    }
+}
@@ -0,0 +1,478 @@
+package selfservicecafe_p;
+
+import desmoj.core.simulator.*;
+import desmoj.core.dist.*;
+import desmoj.core.statistic.Accumulate;
+import desmoj.core.statistic.Count;
+
+import java.util.ArrayDeque;
+
+/**
+ * This is the hybrid variant of the SelfServiceModel model: the customers are passive entities,
+ * only the servers are processes. Customers are the most numerous and shortest-lived objects, so they
+ * carry nothing but their route (decided on arrival) and the times of their visit, without a lifecycle
+ * and its thread or fiber stack. The employees and the drinks machines take the customers from their
+ * queue, hold for the service and move the customers on to the next queue of their route. Only these
+ * few processes are ever switched. The seats of the dining hall are counted like in SelfServiceEventModel:
+ * a customer takes a free seat and schedules the end of the meal, so a large dining hall costs no processes.
+ * Without trace, the customers that have left and the ends of the meals are reused, like in SelfServiceEventModel.
+ */
+public class SelfServiceHybridModel extends Model implements CafeteriaModel {
+
+    // station indices, the same as in SelfServiceModel, plus the dining hall
+    public static final int SANDWICH_BAR = SelfServiceModel.SANDWICH_BAR;
+    public static final int MENU_BAR = SelfServiceModel.MENU_BAR;
+    public static final int CHECK_OUT = SelfServiceModel.CHECK_OUT;
+    public static final int DESSERT_BAR = SelfServiceModel.DESSERT_BAR;
+    public static final int DESSERT_CHECK_OUT = SelfServiceModel.DESSERT_CHECK_OUT;
+    public static final int DRINKS_BAR = SelfServiceModel.DRINKS_BAR;
+    public static final int DINING_HALL = 6;
+
+    private static final int NUM_QUEUES = 7;
+
+    // model parameters: staffing, capacities, distributions, routing probabilities
+    private final Scenario scenario;
+
+    private ContDist customerArrivalTime;
+
+    // service time for the different stations, indexed by station
+    private ContDist[] serviceTimes;
+
+    // the stations with servers, indexed by station
+    private StationConfig[] stations;
+
+    // time spent at the dining hall
+    private ContDist restingTimeMainDish;
+    private ContDist restingTimeDessert;
+
+    // routing decisions of the customers
+    private BoolDistBernoulli sandwichBarChoice;
+    private BoolDistBernoulli drinksBarChoice;
+    private BoolDistBernoulli dessertChoice;
+
+    // queues for customers (the dining hall at DINING_HALL) and for idle servers, indexed by station
+    private CustomerQueue<CustomerEntity>[] customerQueues;
+    private ProcessQueue<HybridServerProcess>[] idleServerQueues;
+
+    // percentiles of the waiting and service times, indexed like the customer queues
+    private QueuePercentiles[] percentiles;
+
+    // free seats of the dining hall and the time-weighted number of occupied seats
+    private int freeSeats;
+    private Accumulate occupiedSeats;
+
+    // ends of meals that can be scheduled again, and customers that have left (only without trace)
+    private final ArrayDeque<HybridLeaveSeatEvent> freeLeaveSeatEvents = new ArrayDeque<>();
+    private final ArrayDeque<CustomerEntity> leftCustomers = new ArrayDeque<>();
+
+    // number of customers that have left the cafeteria and the time they spent in it
+    private Count customersServed;
+    private final LatencyHistogram timeInSystem = new LatencyHistogram();
+    private final BatchMeans timeInSystemBatches = new BatchMeans("time in system [s]");
+
+    // number of events this model has scheduled
+    private long eventCount;
+
+    // detects the end of the warm-up, null if the scenario does not detect it
+    private WarmupDetector warmupDetector;
+
+    // seeds of all random streams of this model
+    private final RandomStreams randomStreams;
+
+    /**
+     * SelfServiceHybridModel Constructor
+     *
+     * @param owner         the model this model is part of (set to null when there is no such model)
+     * @param modelName     this model's name
+     * @param showInReport  flag to indicate if this model shall produce output to the report file
+     * @param showInTrace   flag to indicate if this model shall produce output to the trace file
+     * @param scenario      the parameters of the cafeteria
+     * @param seed          the seed of this model, e.g. the seed of one replication
+     */
+    public SelfServiceHybridModel(Model owner, String modelName, boolean showInReport, boolean showInTrace,
+                                  Scenario scenario, long seed) {
+        super(owner, modelName, showInReport, showInTrace);
+
+        this.scenario = scenario;
+        randomStreams = new RandomStreams(seed, scenario.isAntithetic());
+    }
+
+    public Scenario getScenario() {
+        return scenario;
+    }
+
+    public double getCustomerArrivalTime() {
+        return customerArrivalTime.sample();
+    }
+
+    /**
+     * Returns a description of the model to be used in the report.
+     * @return model description as a string
+     */
+    public String description() {
+        return "This model describes a self service cafe with passive customers. " +
+                    "Customers are entities that carry their route, employees and drinks machines " +
+                    "are processes that move the customers from queue to queue, the seats are counted. " +
+                    "The cafeteria itself is the same as in the process-oriented model.";
+    }
+
+    /**
+     * Creates the servers and schedules the first customer arrival.
+     */
+    public void doInitialSchedules() {
+        // create the employees and drinksBar machine(s), all of them are idle at the beginning
+        // and start their life cycle when the first customer arrives at their station
+        for (int i = 0; i < stations.length; i++) {
+            String name = stations[i].isSelfService() ? "DrinksBar" : "Employee";
+            for (int j = 0; j < stations[i].getServers(); j++) {
+                idleServerQueues[i].insert(new HybridServerProcess(this, name, traceIsOn(), i));
+            }
+        }
+        // all seats are free
+        freeSeats = scenario.getDiningHallCapacity();
+        occupiedSeats.update(0);
+
+        // the first customer arrives at time 0
+        new HybridArrivalEvent(this, "CustomerArrival", false).schedule(new TimeSpan(0.0));
+        countEvent();
+    }
+
+    /**
+     * Initialises static model components like distributions and queues.
+     * The names are the same as in SelfServiceModel.init(), the parameters are taken from the scenario.
+     */
+    @SuppressWarnings("unchecked")
+    public void init() {
+        // stations: service times, customer queues and queues for idle employees and drinks machines
+        stations = scenario.getStations();
+        serviceTimes = new ContDist[stations.length];
+        customerQueues = (CustomerQueue<CustomerEntity>[]) new CustomerQueue<?>[NUM_QUEUES];
+        idleServerQueues = (ProcessQueue<HybridServerProcess>[]) new ProcessQueue<?>[stations.length];
+        percentiles = new QueuePercentiles[NUM_QUEUES];
+        for (int i = 0; i < stations.length; i++) {
+            serviceTimes[i] = stations[i].getServiceTime().create(this, stations[i].getServiceTimeStreamName(), true, traceIsOn());
+            customerQueues[i] = new CustomerQueue<>(this, stations[i].getCustomerQueueName(), true, traceIsOn());
+            idleServerQueues[i] = new ProcessQueue<>(this, stations[i].getIdleServerQueueName(), true, traceIsOn());
+            percentiles[i] = new QueuePercentiles(this, stations[i].getCustomerQueueName(), true, false);
+        }
+        customerQueues[DINING_HALL] = new CustomerQueue<>(this, "DiningHallSeats", true, traceIsOn());
+        percentiles[DINING_HALL] = new QueuePercentiles(this, "DiningHallSeats", true, false);
+
+        // resting times
+        restingTimeMainDish = scenario.getRestingTimeMainDish().create(this, "restingTimeMainDishStream", true, traceIsOn());
+        restingTimeDessert = scenario.getRestingTimeDessert().create(this, "restingTimeDessertStream", true, traceIsOn());
+
+        // customer arrival
+        customerArrivalTime = scenario.getCustomerArrivalTime().create(this, "customerArrivalTimeStream", true, traceIsOn());
+
+        // routing decisions
+        sandwichBarChoice = new BoolDistBernoulli(this, "sandwichBarChoiceStream",
+                scenario.getSandwichBarProbability(), true, traceIsOn());
+        drinksBarChoice = new BoolDistBernoulli(this, "drinksBarChoiceStream",
+                scenario.getDrinksBarProbability(), true, traceIsOn());
+        dessertChoice = new BoolDistBernoulli(this, "dessertChoiceStream",
+                scenario.getDessertProbability(), true, traceIsOn());
+
+        // give every stream its own seed, derived from the seed of this model
+        for (ContDist serviceTime : serviceTimes) {
+            randomStreams.seed(serviceTime);
+        }
+        randomStreams.seed(restingTimeMainDish);
+        randomStreams.seed(restingTimeDessert);
+        randomStreams.seed(customerArrivalTime);
+        randomStreams.seed(sandwichBarChoice);
+        randomStreams.seed(drinksBarChoice);
+        randomStreams.seed(dessertChoice);
+
+        // dining hall occupancy
+        occupiedSeats = new Accumulate(this, "occupiedDiningHallSeats", true, false);
+
+        // counters
+        customersServed = new Count(this, "customersServed", true, false);
+
+        // warm-up
+        if (scenario.isWarmupDetection()) {
+            warmupDetector = new WarmupDetector(stations.length);
+        }
+    }
+
+    /**
+     * counts one event note put on the event list, e.g. by an activation or a hold
+     */
+    void countEvent() {
+        eventCount++;
+    }
+
+    /**
+     * passes the waiting time of a customer at a station to the warm-up detector.
+     * When the detector finds the end of the warm-up, all statistics of the model
+     * (queues, counters, percentiles) are reset, see resetStatistics().
+     * @param stationIndex  the station
+     * @param waitTime      the waiting time in seconds
+     */
+    void observeWait(int stationIndex, double waitTime) {
+        if (warmupDetector != null
+                && warmupDetector.observe(stationIndex, presentTime().getTimeAsDouble(), waitTime)) {
+            resetStatistics();
+            if (currentlySendTraceNotes()) {
+                sendTraceNote("end of warm-up detected, truncation point " + warmupDetector.getTruncationPoint());
+            }
+        }
+    }
+
+    /**
+     * resets the statistics of the queues, the dining hall and the customers, but not the distributions,
+     * see SelfServiceModel.resetStatistics()
+     */
+    private void resetStatistics() {
+        for (int i = 0; i < NUM_QUEUES; i++) {
+            customerQueues[i].reset();
+            percentiles[i].reset();
+        }
+        for (ProcessQueue<HybridServerProcess> idleServers : idleServerQueues) {
+            idleServers.reset();
+        }
+        occupiedSeats.reset();
+        customersServed.reset();
+        timeInSystem.reset();
+        timeInSystemBatches.reset();
+    }
+
+    /**
+     * returns an arriving customer with its demands: the whole route (sandwich bar or menu bar,
+     * drinks bar or not, dessert or not) and all service and resting times, see CustomerDemands.
+     * Without trace it is one that has left before.
+     * @return the customer
+     */
+    CustomerEntity newCustomer() {
+        CustomerEntity customer = leftCustomers.pollFirst();
+        if (customer == null) {
+            customer = new CustomerEntity(this, "Customer", traceIsOn());
+        }
+        customer.recycle(presentTime().getTimeAsDouble());
+        customer.getDemands().draw(sandwichBarChoice, drinksBarChoice, dessertChoice, serviceTimes,
+                restingTimeMainDish, restingTimeDessert);
+        return customer;
+    }
+
+    /**
+     * keeps a customer that has left the cafeteria for one of the next arrivals, if the model is not traced
+     * @param customer  the customer that has left
+     */
+    void customerLeft(CustomerEntity customer) {
+        if (!traceIsOn()) {
+            leftCustomers.addFirst(customer);
+        }
+    }
+
+    /**
+     * A customer enters the queue of a station. If a server of this station is idle,
+     * it is activated and takes the customer. At the dining hall the customer takes a free seat.
+     * @param customer      the arriving customer
+     * @param stationIndex  the station, or DINING_HALL
+     */
+    void enterStation(CustomerEntity customer, int stationIndex) {
+        CustomerQueue<CustomerEntity> queue = customerQueues[stationIndex];
+        queue.insert(customer);
+        customer.setQueueEntry(presentTime().getTimeAsDouble());
+        if (currentlySendTraceNotes()) {
+            sendTraceNote(queue.getName() + "Length: " + queue.length());
+        }
+
+        if (stationIndex == DINING_HALL) {
+            if (freeSeats > 0) {
+                takeSeat();
+            }
+            return;
+        }
+
+        ProcessQueue<HybridServerProcess> idleServers = idleServerQueues[stationIndex];
+        if (!idleServers.isEmpty()) {
+            HybridServerProcess server = idleServers.first();
+            idleServers.remove(server);
+
+            server.activate();
+            countEvent();
+        }
+    }
+
+    /**
+     * inserts a server that has nothing to do into the idle queue of its station
+     * @param server    the idle server
+     */
+    void idle(HybridServerProcess server) {
+        idleServerQueues[server.getStationIndex()].insert(server);
+    }
+
+    /**
+     * The first customer waiting for a seat takes a free seat and schedules the end of the meal.
+     */
+    private void takeSeat() {
+        CustomerQueue<CustomerEntity> queue = customerQueues[DINING_HALL];
+
+        CustomerEntity customer = queue.first();
+        queue.remove(customer);
+
+        freeSeats--;
+        occupiedSeats.update(scenario.getDiningHallCapacity() - freeSeats);
+        percentiles[DINING_HALL].recordWait(presentTime().getTimeAsDouble() - customer.getQueueEntry());
+
+        HybridLeaveSeatEvent leaveSeat = freeLeaveSeatEvents.pollFirst();
+        if (leaveSeat == null) {
+            leaveSeat = new HybridLeaveSeatEvent(this, "LeaveSeat", traceIsOn());
+        }
+        leaveSeat.schedule(customer, new TimeSpan(serviceTime(DINING_HALL, customer)));
+        countEvent();
+    }
+
+    /**
+     * A customer has finished the meal and frees the seat, which is taken by the next waiting customer.
+     * @param leaveSeat the end of the meal, it can be scheduled again
+     * @param customer  the customer leaving the seat
+     */
+    void releaseSeat(HybridLeaveSeatEvent leaveSeat, CustomerEntity customer) {
+        freeLeaveSeatEvents.addFirst(leaveSeat);
+        freeSeats++;
+        occupiedSeats.update(scenario.getDiningHallCapacity() - freeSeats);
+
+        if (!customerQueues[DINING_HALL].isEmpty()) {
+            takeSeat();
+        }
+        leaveStation(customer, DINING_HALL);
+    }
+
+    /**
+     * A server removes the next customer from the queue of its station and records the waiting time.
+     * @param stationIndex  the station of the server
+     * @return the customer or null, if no customer is waiting
+     */
+    CustomerEntity nextCustomer(int stationIndex) {
+        CustomerQueue<CustomerEntity> queue = customerQueues[stationIndex];
+        if (queue.isEmpty()) {
+            return null;
+        }
+        CustomerEntity customer = queue.first();
+        queue.remove(customer);
+
+        double waitTime = presentTime().getTimeAsDouble() - customer.getQueueEntry();
+        percentiles[stationIndex].recordWait(waitTime);
+        observeWait(stationIndex, waitTime);
+        return customer;
+    }
+
+    /**
+     * returns the time a service (or at the dining hall: a meal) of a customer takes, drawn on its arrival
+     * @param stationIndex  the station of the server, or DINING_HALL for the meal
+     * @param customer      the customer being served
+     * @return the service time in seconds
+     */
+    double serviceTime(int stationIndex, CustomerEntity customer) {
+        double time;
+        if (stationIndex == DINING_HALL) {
+            time = customer.getDemands().getRestingTime(customer.isEatingDessert());
+        } else {
+            time = customer.getDemands().getServiceTime(stationIndex);
+        }
+        percentiles[stationIndex].recordService(time);
+        return time;
+    }
+
+    /**
+     * A customer is done at a station and is moved on along its route, the same route as
+     * CustomerProcess: sandwich bar or menu bar, drinks bar (90%), check out, dining hall,
+     * then 10% go on to the dessert bar, the dessert check out and the dining hall again.
+     * @param customer      the customer
+     * @param stationIndex  the station the customer is done with
+     */
+    void leaveStation(CustomerEntity customer, int stationIndex) {
+        switch (stationIndex) {
+            case SANDWICH_BAR:
+            case MENU_BAR:
+                enterStation(customer, customer.getDemands().isDrinksBar() ? DRINKS_BAR : CHECK_OUT);
+                break;
+            case DRINKS_BAR:
+                enterStation(customer, CHECK_OUT);
+                break;
+            case CHECK_OUT:
+                enterStation(customer, DINING_HALL);
+                break;
+            case DINING_HALL:
+                if (!customer.isEatingDessert() && customer.getDemands().isDessert()) {
+                    enterStation(customer, DESSERT_BAR);
+                } else {
+                    customersServed.update();
+                    double time = presentTime().getTimeAsDouble() - customer.getArrivalTime();
+                    timeInSystem.record(time);
+                    timeInSystemBatches.add(time);
+                    customer.sendTraceNote("Customer was served");
+                    customerLeft(customer);
+                }
+                break;
+            case DESSERT_BAR:
+                enterStation(customer, DESSERT_CHECK_OUT);
+                break;
+            case DESSERT_CHECK_OUT:
+                customer.setEatingDessert(true);
+                enterStation(customer, DINING_HALL);
+                break;
+            default:
+                throw new IllegalArgumentException("Error: station with index " + stationIndex + " does not exist.");
+        }
+    }
+
+    @Override
+    public QueueBased[] getCustomerQueues() {
+        return new QueueBased[] {
+                customerQueues[SANDWICH_BAR],
+                customerQueues[MENU_BAR],
+                customerQueues[DRINKS_BAR],
+                customerQueues[CHECK_OUT],
+                customerQueues[DESSERT_BAR],
+                customerQueues[DESSERT_CHECK_OUT],
+                customerQueues[DINING_HALL]
+        };
+    }
+
+    @Override
+    public QueuePercentiles[] getPercentiles() {
+        return new QueuePercentiles[] {
+                percentiles[SANDWICH_BAR],
+                percentiles[MENU_BAR],
+                percentiles[DRINKS_BAR],
+                percentiles[CHECK_OUT],
+                percentiles[DESSERT_BAR],
+                percentiles[DESSERT_CHECK_OUT],
+                percentiles[DINING_HALL]
+        };
+    }
+
+    @Override
+    public long getCustomersServed() {
+        return customersServed.getValue();
+    }
+
+    @Override
+    public LatencyHistogram getTimeInSystem() {
+        return timeInSystem;
+    }
+
+    @Override
+    public BatchMeans getTimeInSystemBatches() {
+        return timeInSystemBatches;
+    }
+
+    @Override
+    public double getSeatUtilization() {
+        return occupiedSeats.getMean() / scenario.getDiningHallCapacity();
+    }
+
+    @Override
+    public WarmupDetector getWarmupDetector() {
+        return warmupDetector;
+    }
+
+    @Override
+    public long getEventCount() {
+        return eventCount;
+    }
+}
@@ -2,92 +2,247 @@ package selfservicecafe_p;
 
 import desmoj.core.simulator.*;
 import desmoj.core.dist.*;
+import desmoj.core.statistic.Count;
+
+import java.io.IOException;
+import java.nio.file.Paths;
 
 /**
  * This is the model class. It is the main class of a process-oriented model
  * of a self service cafeteria with different stations and a dining hall.
  */
-public class SelfServiceModel extends Model {
+public class SelfServiceModel extends Model implements CafeteriaModel {
+
+    // station indices, the stations 0 to 4 are served by employees
+    public static final int SANDWICH_BAR = 0;
+    public static final int MENU_BAR = 1;
+    public static final int CHECK_OUT = 2;
+    public static final int DESSERT_BAR = 3;
+    public static final int DESSERT_CHECK_OUT = 4;
+    public static final int DRINKS_BAR = 5;
 
-    // model parameter: the number of stations with employees
-    protected static int NUM_STATIONS = 5;
+    // the stations in the order of CafeteriaModel.getCustomerQueues(), the dining hall follows them
+    private static final int[] QUEUE_ORDER = {
+            SANDWICH_BAR, MENU_BAR, DRINKS_BAR, CHECK_OUT, DESSERT_BAR, DESSERT_CHECK_OUT
+    };
 
-    protected int employeesPerStation = 1;
+    /**
+     * @param stationIndex  the station index, e.g. CHECK_OUT
+     * @return the index of the station's customer queue in CafeteriaModel.getCustomerQueues()
+     */
+    public static int queueIndex(int stationIndex) {
+        for (int queue = 0; queue < QUEUE_ORDER.length; queue++) {
+            if (QUEUE_ORDER[queue] == stationIndex) {
+                return queue;
+            }
+        }
+        throw new IllegalArgumentException("Error: " + stationIndex + " is no station index.");
+    }
 
-    protected int NUM_DRINKSMACHINES = 1;
+    // model parameters: staffing, capacities, distributions, routing probabilities
+    private final Scenario scenario;
 
-    protected int NUM_DININGHALLCAPACITY = 30;
+    public Scenario getScenario() {
+        return scenario;
+    }
 
-    private ContDistUniform customerArrivalTime;
+    private ContDist customerArrivalTime;
 
     public double getCustomerArrivalTime() {
         return customerArrivalTime.sample();
     }
 
-    // service time for the different stations
-    private ContDistUniform serviceTimeSandwichBar;
-    private ContDistUniform serviceTimeMenuBar;
-    private ContDistUniform serviceTimeDrinksBar;  // no employee
-    private ContDistUniform serviceTimeCheckOut;
-    private ContDistUniform serviceTimeDessertBar;
-    private ContDistUniform serviceTimeDessertCheckOut;
-
     // time spent at the dining hall
-    private ContDistUniform restingTimeMainDish;
-    private ContDistUniform restingTimeDessert;
+    private ContDist restingTimeMainDish;
+    private ContDist restingTimeDessert;
 
-    public double getServiceTimeSandwichBar() {
-        return serviceTimeSandwichBar.sample();
+    public double getRestingTimeMainDish() {
+        return restingTimeMainDish.sample();
     }
 
-    public double getServiceTimeMenuBar() {
-        return serviceTimeMenuBar.sample();
+    public double getRestingTimeDessert() {
+        return restingTimeDessert.sample();
     }
 
-    public double getServiceTimeDrinksBar() {
-        return serviceTimeDrinksBar.sample();
+    // routing decisions of the customers
+    private BoolDistBernoulli sandwichBarChoice;    // true = sandwich bar, false = menu bar
+    private BoolDistBernoulli drinksBarChoice;
+    private BoolDistBernoulli dessertChoice;
+
+    public boolean getSandwichBarChoice() {
+        return sandwichBarChoice.sample();
     }
 
-    public double getServiceTimeCheckOut() {
-        return serviceTimeCheckOut.sample();
+    public boolean getDrinksBarChoice() {
+        return drinksBarChoice.sample();
     }
 
-    public double getServiceTimeDessertBar() {
-        return serviceTimeDessertBar.sample();
+    public boolean getDessertChoice() {
+        return dessertChoice.sample();
     }
 
-    public double getServiceTimeDessertCheckOut() {
-        return serviceTimeDessertCheckOut.sample();
+    // the service time distributions of the stations, indexed by the station indices
+    private ContDist[] serviceTimes;
+
+    /**
+     * draws the route, the service times and the resting times of an arriving customer
+     * @param demands   receives the demands of the customer
+     */
+    public void drawDemands(CustomerDemands demands) {
+        demands.draw(sandwichBarChoice, drinksBarChoice, dessertChoice, serviceTimes,
+                restingTimeMainDish, restingTimeDessert);
     }
 
-    public double getRestingTimeMainDish() {
-        return restingTimeMainDish.sample();
+    // seeds of all random streams of this model
+    private final RandomStreams randomStreams;
+
+    // true: the customers take the servers themselves (direct dispatch), false: the servers serve from their idle queue
+    private final boolean directDispatch;
+
+    public boolean isDirectDispatch() {
+        return directDispatch;
     }
 
-    public double getRestingTimeDessert() {
-        return restingTimeDessert.sample();
+    // seed used when no seed is given
+    public static final long DEFAULT_SEED = 42L;
+
+    // the stations of the cafeteria, indexed by the station indices
+    protected Station[] stations;
+
+    /**
+     * returns a station of the cafeteria
+     * @param stationIndex  the index of the station
+     * @return the station
+     */
+    public Station getStation(int stationIndex) {
+        if (stationIndex < 0 || stationIndex >= stations.length) {
+            throw new IllegalArgumentException("Error: station with index " + stationIndex + " does not exist.");
+        }
+        return stations[stationIndex];
+    }
+
+    // the seats of the dining hall, customers wait in the resource's own queue for a free seat
+    protected Res diningHallSeats;
+
+    // waiting times for a seat and times spent at the dining hall
+    protected QueuePercentiles diningHallPercentiles;
+
+    // number of customers that have left the cafeteria and the time they spent in it
+    protected Count customersServed;
+    protected final LatencyHistogram timeInSystem = new LatencyHistogram();
+    protected final BatchMeans timeInSystemBatches = new BatchMeans("time in system [s]");
+
+    // the store every customer writes its record to, null if no records are written
+    private CustomerRecordStore recordStore;
+
+    public CustomerRecordStore getRecordStore() {
+        return recordStore;
+    }
+
+    /**
+     * sets the store the customers write their records to, before the experiment starts
+     * @param recordStore   the store, null (the default) to write no records
+     */
+    public void setRecordStore(CustomerRecordStore recordStore) {
+        this.recordStore = recordStore;
+    }
+
+    // number of event notes the processes of this model have put on the event list
+    private long eventCount;
+
+    // detects the end of the warm-up, null if the scenario does not detect it
+    private WarmupDetector warmupDetector;
+
+    /**
+     * counts one event note put on the event list, e.g. by an activation or a hold
+     */
+    void countEvent() {
+        eventCount++;
+    }
+
+    /**
+     * passes the waiting time of a customer at a station to the warm-up detector.
+     * When the detector finds the end of the warm-up, all statistics of the model
+     * (queues, counters, percentiles) are reset, see resetStatistics().
+     * @param stationIndex  the station
+     * @param waitTime      the waiting time in seconds
+     */
+    void observeWait(int stationIndex, double waitTime) {
+        if (warmupDetector != null
+                && warmupDetector.observe(stationIndex, presentTime().getTimeAsDouble(), waitTime)) {
+            resetStatistics();
+            if (currentlySendTraceNotes()) {
+                sendTraceNote("end of warm-up detected, truncation point " + warmupDetector.getTruncationPoint());
+            }
+        }
     }
 
-    // queues for customers
-    protected ProcessQueue<CustomerProcess> customerSandwichBarQueue;  // 0
-    protected ProcessQueue<CustomerProcess> customerMenuBarQueue;      // 1
-    protected ProcessQueue<CustomerProcess> customerDrinksBarQueue;  // no employee
-    protected ProcessQueue<CustomerProcess> customerCheckOutQueue;    // 2
-    protected ProcessQueue<CustomerProcess> customerDessertBarQueue;  // 3
-    protected ProcessQueue<CustomerProcess> customerDessertCheckOutQueue; // 4
-    protected ProcessQueue<CustomerProcess> customerDiningHallSeatsQueue;
+    /**
+     * resets the statistics of the stations, the dining hall and the customers. Unlike Model.reset()
+     * this leaves the distributions alone: resetting them starts every stream again from its seed, so
+     * the customers after the warm-up would repeat those of the warm-up, and two scenarios that detect
+     * the warm-up at different times would no longer draw the same numbers for the same customer.
+     */
+    private void resetStatistics() {
+        for (Station station : stations) {
+            station.resetStatistics();
+        }
+        diningHallSeats.reset();
+        diningHallPercentiles.reset();
+        customersServed.reset();
+        timeInSystem.reset();
+        timeInSystemBatches.reset();
+    }
 
-    // queues for employees
-    protected ProcessQueue<EmployeeProcess> idleSandwichBarEmployeesQueue;
-    protected ProcessQueue<EmployeeProcess> idleMenuBarEmployeesQueue;
-    protected ProcessQueue<EmployeeProcess> idleCheckOutEmployeesQueue;
-    protected ProcessQueue<EmployeeProcess> idleDessertBarEmployeesQueue;
-    protected ProcessQueue<EmployeeProcess> idleDessertCheckOutEmployeesQueue;
+    @Override
+    public QueueBased[] getCustomerQueues() {
+        QueueBased[] queues = new QueueBased[QUEUE_ORDER.length + 1];
+        for (int queue = 0; queue < QUEUE_ORDER.length; queue++) {
+            queues[queue] = stations[QUEUE_ORDER[queue]].getCustomerQueue();
+        }
+        queues[QUEUE_ORDER.length] = diningHallSeats;
+        return queues;
+    }
 
-    // queues for drinks bar and dining hall
-    protected ProcessQueue<DrinksBarProcess>  idleDrinksBarQueue;
-    protected ProcessQueue<DiningHallProcess> idleDiningHallSeatsQueue;
+    @Override
+    public QueuePercentiles[] getPercentiles() {
+        QueuePercentiles[] percentiles = new QueuePercentiles[QUEUE_ORDER.length + 1];
+        for (int queue = 0; queue < QUEUE_ORDER.length; queue++) {
+            percentiles[queue] = stations[QUEUE_ORDER[queue]].getPercentiles();
+        }
+        percentiles[QUEUE_ORDER.length] = diningHallPercentiles;
+        return percentiles;
+    }
 
+    @Override
+    public long getCustomersServed() {
+        return customersServed.getValue();
+    }
+
+    @Override
+    public LatencyHistogram getTimeInSystem() {
+        return timeInSystem;
+    }
+
+    @Override
+    public BatchMeans getTimeInSystemBatches() {
+        return timeInSystemBatches;
+    }
+
+    @Override
+    public double getSeatUtilization() {
+        return diningHallSeats.avgUsage();
+    }
+
+    @Override
+    public WarmupDetector getWarmupDetector() {
+        return warmupDetector;
+    }
+
+    @Override
+    public long getEventCount() {
+        return eventCount;
+    }
 
     /**
      * SelfServiceModel Constructor
@@ -100,7 +255,62 @@ public class SelfServiceModel extends Model {
      * @param showInTrace   flag to indicate if this model shall produce output to the trace file
      */
     public SelfServiceModel(Model owner, String modelName, boolean showInReport, boolean showInTrace) {
+        this(owner, modelName, showInReport, showInTrace, Scenario.defaults(), DEFAULT_SEED);
+    }
+
+    /**
+     * SelfServiceModel Constructor
+     *
+     * Creates a new SelfServiceModel model whose random streams are all derived from the given seed.
+     *
+     * @param owner         the model this model is part of (set to null when there is no such model)
+     * @param modelName     this model's name
+     * @param showInReport  flag to indicate if this model shall produce output to the report file
+     * @param showInTrace   flag to indicate if this model shall produce output to the trace file
+     * @param seed          the seed of this model, e.g. the seed of one replication
+     */
+    public SelfServiceModel(Model owner, String modelName, boolean showInReport, boolean showInTrace, long seed) {
+        this(owner, modelName, showInReport, showInTrace, Scenario.defaults(), seed);
+    }
+
+    /**
+     * SelfServiceModel Constructor
+     *
+     * Creates a new SelfServiceModel model for a scenario, whose random streams are all derived from the given seed.
+     *
+     * @param owner         the model this model is part of (set to null when there is no such model)
+     * @param modelName     this model's name
+     * @param showInReport  flag to indicate if this model shall produce output to the report file
+     * @param showInTrace   flag to indicate if this model shall produce output to the trace file
+     * @param scenario      the parameters of the cafeteria
+     * @param seed          the seed of this model, e.g. the seed of one replication
+     */
+    public SelfServiceModel(Model owner, String modelName, boolean showInReport, boolean showInTrace,
+                            Scenario scenario, long seed) {
+        this(owner, modelName, showInReport, showInTrace, scenario, seed, true);
+    }
+
+    /**
+     * SelfServiceModel Constructor
+     *
+     * Creates a new SelfServiceModel model for a scenario and chooses how the customers are served, see Station.
+     *
+     * @param owner             the model this model is part of (set to null when there is no such model)
+     * @param modelName         this model's name
+     * @param showInReport      flag to indicate if this model shall produce output to the report file
+     * @param showInTrace       flag to indicate if this model shall produce output to the trace file
+     * @param scenario          the parameters of the cafeteria
+     * @param seed              the seed of this model, e.g. the seed of one replication
+     * @param directDispatch    true: customers take idle servers directly and hold for their service,
+     *                          false: servers take the customers from the queue, serve and reactivate them
+     */
+    public SelfServiceModel(Model owner, String modelName, boolean showInReport, boolean showInTrace,
+                            Scenario scenario, long seed, boolean directDispatch) {
         super(owner, modelName, showInReport, showInTrace);
+
+        this.scenario = scenario;
+        this.directDispatch = directDispatch;
+        randomStreams = new RandomStreams(seed, scenario.isAntithetic());
     }
 
     /**
@@ -124,260 +334,197 @@ public class SelfServiceModel extends Model {
      * which are necessary to start the simulation.
      */
     public void doInitialSchedules() {
-        // create and activate the employees
-        for (int i=0; i < NUM_STATIONS; i++) {
-            for (int j=0; j < employeesPerStation; j++) {
-                EmployeeProcess employee = new EmployeeProcess(this, "Employee", true, i);
-                employee.activate(new TimeSpan(0.0));
+        // create and activate the employees and the drinksBar machine(s) of every station
+        for (int i=0; i < stations.length; i++) {
+            for (int j=0; j < stations[i].getConfig().getServers(); j++) {
+                ServerProcess server;
+                if (stations[i].getConfig().isSelfService()) {
+                    server = new DrinksBarProcess(this, stations[i].getConfig().getName(), traceIsOn(), i);
+                } else {
+                    server = new EmployeeProcess(this, "Employee", traceIsOn(), i);
+                }
+                if (directDispatch) {
+                    // the servers are handed from customer to customer, they wait in the idle queue
+                    stations[i].idle(server);
+                } else {
+                    server.activate();
+                    countEvent();
+                }
             }
         }
 
-        // create and activate the drinksBar machine(s)
-        for (int i=0; i < NUM_DRINKSMACHINES; i++) {
-            DrinksBarProcess drinksBar = new DrinksBarProcess(this, "DrinksBar", true);
-            drinksBar.activate(new TimeSpan(0.0));
-        }
-
-        // create and activate the dining hall seats
-        for (int i=0; i < NUM_DININGHALLCAPACITY; i++) {
-            DiningHallProcess diningHall = new DiningHallProcess(this, "DiningHall", true);
-            diningHall.activate(new TimeSpan(0.0));
-        }
-
         // create and activate the customer generator process
         CustomerGenerator generator = new CustomerGenerator(this, "CustomerArrival", false);
         generator.activate();
+        countEvent();
     }
 
     /**
      * Initialises static model components like distributions and queues.
+     * They show up in the trace only if the model itself does (see RunMode),
+     * so a model created without trace never builds a trace note.
      */
     public void init() {
-        // service times
+        // stations
 
-        // initialise the serviceTimeSandwichBarStream
-        // Parameters:
-        // this                              = belongs to this model
-        // "serviceTimeSandwichBarStream"    = the name of the stream
-        // 30.0                              = service takes between 30 and
-        // 90.0                              = 90 seconds
-        // true                              = show in report?
-        // true                              = show in trace?
-        serviceTimeSandwichBar = new ContDistUniform(this, "serviceTimeSandwichBarStream", 30.0, 90.0, true, true);
-
-        // initialise the serviceTimeMenuBarStream
-        // Parameters:
-        // this                              = belongs to this model
-        // "serviceTimeMenuBarStream"        = the name of the stream
-        // 15.0                              = service takes between 15 and
-        // 75.0                              = 75 seconds
-        // true                              = show in report?
-        // true                              = show in trace?
-        serviceTimeMenuBar = new ContDistUniform(this, "serviceTimeMenuBarStream", 15.0, 75.0, true, true);
-
-        // initialise the serviceTimeDrinksBarStream
-        // Parameters:
-        // this                              = belongs to this model
-        // "serviceTimeDrinksBarStream"      = the name of the stream
-        // 15.0                              = service takes between 15 and
-        // 25.0                              = 25 seconds
-        // true                              = show in report?
-        // true                              = show in trace?
-        serviceTimeDrinksBar = new ContDistUniform(this, "serviceTimeDrinksBarStream", 15.0, 25.0, true, true);
-
-        // initialise the serviceTimeCheckOutStream
-        // Parameters:
-        // this                              = belongs to this model
-        // "serviceTimeCheckOutStream"       = the name of the stream
-        // 15.0                              = service takes between 15 and
-        // 35.0                              = 35 seconds
-        // true                              = show in report?
-        // true                              = show in trace?
-        serviceTimeCheckOut = new ContDistUniform(this, "serviceTimeCheckOutStream", 15.0, 35.0, true, true);
-
-        // initialise the serviceTimeDessertBarStream
-        // Parameters:
-        // this                              = belongs to this model
-        // "serviceTimeDessertBarStream"     = the name of the stream
-        // 20.0                              = service takes between 20 and
-        // 40.0                              = 40 seconds
-        // true                              = show in report?
-        // true                              = show in trace?
-        serviceTimeDessertBar = new ContDistUniform(this, "serviceTimeDessertBarStream", 20.0, 40.0, true, true);
-
-        // initialise the serviceTimeDessertCheckOutStream
+        // initialise the stations with their queues and service times
         // Parameters:
-        // this                               = belongs to this model
-        // "serviceTimeDessertCheckOutStream" = the name of the stream
-        // 15.0                               = service takes between 15 and
-        // 35.0                               = 35 seconds
-        // true                               = show in report?
-        // true                               = show in trace?
-        serviceTimeDessertCheckOut = new ContDistUniform(this, "serviceTimeDessertCheckOutStream", 15.0, 35.0, true, true);
+        // this                         = belongs to this model
+        // configs[i]                   = name, number of servers and service time of the station
+        // i                            = index of the station
+        StationConfig[] configs = scenario.getStations();
+        stations = new Station[configs.length];
+        serviceTimes = new ContDist[configs.length];
+        for (int i = 0; i < configs.length; i++) {
+            stations[i] = new Station(this, configs[i], i);
+            serviceTimes[i] = stations[i].getServiceTimeDistribution();
+        }
 
 
         // resting times
 
         // initialise the restingTimeMainDishStream
+        // (default: between 600 (10 min) and 1800 (30 min) seconds)
         // Parameters:
         // this                               = belongs to this model
         // "restingTimeMainDishStream"        = the name of the stream
-        // 600.0                              = service takes between 600 (10 min) and
-        // 1800.0                             = 1800 (30 min) seconds
         // true                               = show in report?
-        // true                               = show in trace?
-        restingTimeMainDish = new ContDistUniform(this, "restingTimeMainDishStream", 600.0, 1800.0, true, true);
+        // traceIsOn()                        = show in trace?
+        restingTimeMainDish = scenario.getRestingTimeMainDish().create(this, "restingTimeMainDishStream", true, traceIsOn());
 
         // initialise the restingTimeDessertStream
+        // (default: between 420 (7 min) and 780 (13 min) seconds)
         // Parameters:
         // this                               = belongs to this model
         // "restingTimeDessertStream"         = the name of the stream
-        // 420.0                              = service takes between 420 (7 min) and
-        // 780.0                              = 780 (13 min) seconds
         // true                               = show in report?
-        // true                               = show in trace?
-        restingTimeDessert = new ContDistUniform(this, "restingTimeDessertStream", 420.0, 780.0, true, true);
+        // traceIsOn()                        = show in trace?
+        restingTimeDessert = scenario.getRestingTimeDessert().create(this, "restingTimeDessertStream", true, traceIsOn());
 
 
         // customer arrival
 
         // initialise the customerArrivalTimeStream
+        // (default: customers arrive between 10 and 50 seconds)
         // Parameters:
         // this                         = belongs to this model
         // "customerArrivalTimeStream"  = the name of the stream
-        // 10.0                         = customers arrive between 10 and
-        // 50.0                         = 50 seconds
         // true                         = show in report?
-        // true                         = show in trace?
-        customerArrivalTime = new ContDistUniform(this, "customerArrivalTimeStream", 10, 50, true, true);
+        // traceIsOn()                  = show in trace?
+        customerArrivalTime = scenario.getCustomerArrivalTime().create(this, "customerArrivalTimeStream", true, traceIsOn());
 
 
-        // customer queues
+        // routing decisions
 
-        // initialise the customerSandwichBarQueue
+        // initialise the sandwichBarChoiceStream
         // Parameters:
         // this                         = belongs to this model
-        // "SandwichBarQueue"           = the name of the Queue
+        // "sandwichBarChoiceStream"    = the name of the stream
+        // probability                  = by default 40% go to the sandwich bar, the rest to the menu bar
         // true                         = show in report?
-        // true                         = show in trace?
-        customerSandwichBarQueue = new ProcessQueue<>(this, "SandwichBarQueue", true, true);
+        // traceIsOn()                  = show in trace?
+        sandwichBarChoice = new BoolDistBernoulli(this, "sandwichBarChoiceStream",
+                scenario.getSandwichBarProbability(), true, traceIsOn());
 
-        // initialise the customerMenuBarQueue
+        // initialise the drinksBarChoiceStream
         // Parameters:
         // this                         = belongs to this model
-        // "MenuBarQueue"               = the name of the Queue
+        // "drinksBarChoiceStream"      = the name of the stream
+        // probability                  = by default 90% go to the drinks bar
         // true                         = show in report?
-        // true                         = show in trace?
-        customerMenuBarQueue = new ProcessQueue<>(this, "MenuBarQueue", true, true);
+        // traceIsOn()                  = show in trace?
+        drinksBarChoice = new BoolDistBernoulli(this, "drinksBarChoiceStream",
+                scenario.getDrinksBarProbability(), true, traceIsOn());
 
-        // initialise the customerDrinksBarQueue
+        // initialise the dessertChoiceStream
         // Parameters:
         // this                         = belongs to this model
-        // "DrinksBarQueue"             = the name of the Queue
+        // "dessertChoiceStream"        = the name of the stream
+        // probability                  = by default 10% get a dessert
         // true                         = show in report?
-        // true                         = show in trace?
-        customerDrinksBarQueue = new ProcessQueue<>(this, "DrinksBarQueue", true, true);
+        // traceIsOn()                  = show in trace?
+        dessertChoice = new BoolDistBernoulli(this, "dessertChoiceStream",
+                scenario.getDessertProbability(), true, traceIsOn());
 
-        // initialise the customerCheckOutQueue
-        // Parameters:
-        // this                         = belongs to this model
-        // "CheckOutQueue"              = the name of the Queue
-        // true                         = show in report?
-        // true                         = show in trace?
-        customerCheckOutQueue = new ProcessQueue<>(this, "CheckOutQueue", true, true);
+        // give every stream its own seed, derived from the seed of this model
+        for (Station station : stations) {
+            randomStreams.seed(station.getServiceTimeDistribution());
+        }
+        randomStreams.seed(restingTimeMainDish);
+        randomStreams.seed(restingTimeDessert);
+        randomStreams.seed(customerArrivalTime);
+        randomStreams.seed(sandwichBarChoice);
+        randomStreams.seed(drinksBarChoice);
+        randomStreams.seed(dessertChoice);
 
-        // initialise the customerDessertBarQueue
-        // Parameters:
-        // this                         = belongs to this model
-        // "DessertBarQueue"              = the name of the Queue
-        // true                         = show in report?
-        // true                         = show in trace?
-        customerDessertBarQueue = new ProcessQueue<>(this, "DessertBarQueue", true, true);
 
-        // initialise the customerDessertCheckOutQueue
-        // Parameters:
-        // this                         = belongs to this model
-        // "DessertCheckOutQueue"       = the name of the Queue
-        // true                         = show in report?
-        // true                         = show in trace?
-        customerDessertCheckOutQueue = new ProcessQueue<>(this, "DessertCheckOutQueue", true, true);
+        // dining hall
 
-        // initialise the customerDiningHallSeatsQueue
+        // initialise the diningHallSeats
         // Parameters:
         // this                            = belongs to this model
-        // "customerDiningHallSeatsQueue"  = the name of the Queue
+        // "DiningHallSeats"               = the name of the Res
+        // capacity                        = number of seats
         // true                            = show in report?
-        // true                            = show in trace?
-        customerDiningHallSeatsQueue = new ProcessQueue<>(this, "customerDiningHallSeatsQueue", true, true);
+        // traceIsOn()                     = show in trace?
+        diningHallSeats = new Res(this, "DiningHallSeats", scenario.getDiningHallCapacity(), true, traceIsOn());
 
-
-        // employees queues
-
-        // initialise the idleSandwichBarEmployeesQueue
+        // initialise the diningHallPercentiles
         // Parameters:
-        // this                                  = belongs to this model
-        // "idleSandwichBarEmployeesQueue"       = the name of the Queue
-        // true                                  = show in report?
-        // true                                  = show in trace?
-        idleSandwichBarEmployeesQueue = new ProcessQueue<>(this, "idleSandwichBarEmployeesQueue", true, true);
+        // this                            = belongs to this model
+        // "DiningHallSeats"               = the name, the same as the one of the Res
+        // true                            = show in report?
+        // false                           = show in trace?
+        diningHallPercentiles = new QueuePercentiles(this, "DiningHallSeats", true, false);
 
-        // initialise the idleMenuBarEmployeesQueue
-        // Parameters:
-        // this                                  = belongs to this model
-        // "idleMenuBarEmployeesQueue"           = the name of the Queue
-        // true                                  = show in report?
-        // true                                  = show in trace?
-        idleMenuBarEmployeesQueue = new ProcessQueue<>(this, "idleMenuBarEmployeesQueue", true, true);
 
-        // initialise the idleCheckOutEmployeesQueue
-        // Parameters:
-        // this                                  = belongs to this model
-        // "idleCheckOutEmployeesQueue"          = the name of the Queue
-        // true                                  = show in report?
-        // true                                  = show in trace?
-        idleCheckOutEmployeesQueue = new ProcessQueue<>(this, "idleCheckOutEmployeesQueue", true, true);
+        // counters
 
-        // initialise the idleDessertBarEmployeesQueue
+        // initialise the customersServed counter
         // Parameters:
         // this                                  = belongs to this model
-        // "idleDessertBarEmployeesQueue"        = the name of the Queue
+        // "customersServed"                     = the name of the Count
         // true                                  = show in report?
-        // true                                  = show in trace?
-        idleDessertBarEmployeesQueue = new ProcessQueue<>(this, "idleDessertBarEmployeesQueue", true, true);
+        // false                                 = show in trace?
+        customersServed = new Count(this, "customersServed", true, false);
 
-        // initialise the idleDessertCheckOutEmployeesQueue
-        // Parameters:
-        // this                                  = belongs to this model
-        // "idleDessertCheckOutEmployeesQueue"   = the name of the Queue
-        // true                                  = show in report?
-        // true                                  = show in trace?
-        idleDessertCheckOutEmployeesQueue = new ProcessQueue<>(this, "idleDessertCheckOutEmployeesQueue", true, true);
 
-        // initialise the idleDrinksBarQueue
-        // Parameters:
-        // this                                  = belongs to this model
-        // "idleDrinksBarQueue"                  = the name of the Queue
-        // true                                  = show in report?
-        // true                                  = show in trace?
-        idleDrinksBarQueue = new ProcessQueue<>(this, "idleDrinksBarQueue", true, true);
+        // warm-up
 
-        // initialise the idleDiningHallSeatsQueue
-        // Parameters:
-        // this                                  = belongs to this model
-        // "idleDiningHallSeatsQueue"            = the name of the Queue
-        // true                                  = show in report?
-        // true                                  = show in trace?
-        idleDiningHallSeatsQueue = new ProcessQueue<>(this, "idleDiningHallSeatsQueue", true, true);
+        if (scenario.isWarmupDetection()) {
+            warmupDetector = new WarmupDetector(stations.length);
+        }
     }
 
     /**
      * Runs the model
-     * @param args
+     * @param args  [variant: process (default), process_idle_queue, event or hybrid] [scenario file] [mode: debug (default) or production]
+     *              [directory of the customer records, process variant only]
+     * @throws IOException if the scenario file cannot be read
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+
+        // choose the implementation of the cafeteria
+        ModelVariant variant = args.length > 0 ? ModelVariant.parse(args[0]) : ModelVariant.PROCESS;
+
+        // read the parameters of the cafeteria
+        Scenario scenario = args.length > 1 ? ScenarioLoader.load(Paths.get(args[1])) : Scenario.defaults();
+
+        // with or without trace, debug output and progress bar
+        RunMode mode = args.length > 2 ? RunMode.parse(args[2]) : RunMode.DEBUG;
 
         //create model and experiment
-        SelfServiceModel model = new SelfServiceModel(null, "Self Service Cafe Model", true, true);
+        Model model = variant.create("Self Service Cafe Model", true, mode.isTraced(), scenario, scenario.getSeed());
+
+        // write one record per customer
+        CustomerRecordStore records = null;
+        if (args.length > 3) {
+            if (!(model instanceof SelfServiceModel)) {
+                throw new IllegalArgumentException("Error: customer records are written by the process variant only.");
+            }
+            records = CustomerRecordStore.create(Paths.get(args[3]));
+            ((SelfServiceModel) model).setRecordStore(records);
+        }
 
         Experiment exp = new Experiment("SelfServiceExperiment");
 
@@ -385,18 +532,33 @@ public class SelfServiceModel extends Model {
         model.connectToExperiment(exp);
 
         // set experiment parameters
-        exp.setShowProgressBar(true);
-        exp.tracePeriod(new TimeInstant(0.0), new TimeInstant(60));
-        exp.debugPeriod(new TimeInstant(0.0), new TimeInstant(60));
+        mode.configure(exp, scenario);
 
-        // set end of simulation at 4 hours (14400 seconds)
-        exp.stop(new TimeInstant(14400));
+        // set end of simulation, by default at 4 hours (14400 seconds)
+        exp.stop(new TimeInstant(scenario.getStopTime()));
 
         exp.start();
 
         exp.report();
 
         exp.finish();
+
+        WarmupDetector warmup = ((CafeteriaModel) model).getWarmupDetector();
+        if (warmup != null) {
+            System.out.println(warmup.isDetected()
+                    ? String.format("end of warm-up (MSER-5): truncation point %.0f s, statistics reset at %.0f s",
+                            warmup.getTruncationPoint(), warmup.getDetectionTime())
+                    : "end of warm-up (MSER-5) not detected, the statistics include the warm-up");
+        }
+
+        CafeteriaModel cafeteria = (CafeteriaModel) model;
+        System.out.printf("%d events scheduled, %.2f per served customer%n", cafeteria.getEventCount(),
+                (double) cafeteria.getEventCount() / cafeteria.getCustomersServed());
+
+        if (records != null) {
+            records.close();
+            System.out.println(records.size() + " customer records written to " + records.getDirectory());
+        }
     }
 
 
@@ -0,0 +1,308 @@
+package selfservicecafe_p;
+
+import desmoj.core.simulator.Model;
+import desmoj.core.simulator.ModelCondition;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class runs replications of the self service cafeteria in parallel until the chosen key figures
+ * are precise enough: after every replication the relative half-width of the confidence interval of
+ * every chosen key figure is checked, and as soon as all are at or below the target precision no further
+ * replications are started and the ones still running are stopped. DESMO-J's scheduler is not thread-safe,
+ * so a running replication is not stopped from outside: each one checks a stop condition on its own thread
+ * after every event, which reads a volatile flag.
+ *
+ * The results are added in the order of the replication index, whatever order they finish in, and the
+ * precision is checked after each of them. So the number of replications and the result only depend on
+ * the seeds, not on the number of threads; replications that finished beyond the stopping point are dropped.
+ */
+public class SequentialStopping {
+
+    // index of the check out queue in CafeteriaModel.getCustomerQueues()
+    private static final int CHECK_OUT_QUEUE = SelfServiceModel.queueIndex(SelfServiceModel.CHECK_OUT);
+
+    /**
+     * The key figures whose precision can be the stopping criterion.
+     */
+    public enum Kpi {
+
+        // mean waiting time at the check out
+        CHECKOUT_WAIT("check out avg. wait [s]") {
+            @Override
+            public double valueOf(ReplicationResult result) {
+                return result.getAverageWaitTime(CHECK_OUT_QUEUE);
+            }
+        },
+
+        // 95th percentile of the waiting times at the check out
+        CHECKOUT_WAIT_P95("p95 check out wait [s]") {
+            @Override
+            public double valueOf(ReplicationResult result) {
+                return result.getWaitTimeHistogram(CHECK_OUT_QUEUE).getValueAtPercentile(95);
+            }
+        },
+
+        // 95th percentile of the times from arrival until leaving
+        TIME_IN_SYSTEM_P95("p95 time in system [s]") {
+            @Override
+            public double valueOf(ReplicationResult result) {
+                return result.getTimeInSystem().getValueAtPercentile(95);
+            }
+        },
+
+        // time-weighted share of occupied seats in the dining hall
+        SEAT_UTILIZATION("seat utilization") {
+            @Override
+            public double valueOf(ReplicationResult result) {
+                return result.getSeatUtilization();
+            }
+        };
+
+        private final String label;
+
+        Kpi(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * returns the value of this key figure in one replication
+         * @param result    the result of the replication
+         * @return the value
+         */
+        public abstract double valueOf(ReplicationResult result);
+
+        /**
+         * parses a comma separated list of key figure names, ignoring case, e.g. "checkout_wait,seat_utilization"
+         * @param names the names
+         * @return the key figures
+         */
+        public static Set<Kpi> parseAll(String names) {
+            Set<Kpi> kpis = EnumSet.noneOf(Kpi.class);
+            for (String name : names.split(",")) {
+                kpis.add(valueOf(name.trim().toUpperCase()));
+            }
+            return kpis;
+        }
+    }
+
+    private final ModelVariant variant;
+    private final Scenario scenario;
+    private final Set<Kpi> kpis;
+    private final double relativePrecision;
+    private final double confidence;
+    private final int minReplications;
+    private final int maxReplications;
+    private final int parallelism;
+
+    // set when no further replication is needed, read by the stop conditions of the running ones
+    private volatile boolean stopping;
+
+    private final Map<Kpi, SummaryStatistic> statistics = new EnumMap<>(Kpi.class);
+    private boolean precisionReached;
+    private int cancelled;
+
+    /**
+     * Constructor of the SequentialStopping
+     * @param variant           the implementation of the cafeteria
+     * @param scenario          the parameters of the cafeteria, its seed is the base seed of the replications
+     * @param kpis              the key figures that must reach the precision
+     * @param relativePrecision the target half-width of the confidence intervals relative to the mean, e.g. 0.05
+     * @param confidence        the confidence level, e.g. 0.95
+     * @param minReplications   the number of replications before the precision is checked the first time, at least 2
+     * @param maxReplications   the number of replications after which the run stops anyway
+     * @param parallelism       the number of replications running at the same time
+     */
+    public SequentialStopping(ModelVariant variant, Scenario scenario, Set<Kpi> kpis, double relativePrecision,
+                              double confidence, int minReplications, int maxReplications, int parallelism) {
+        if (kpis.isEmpty() || relativePrecision <= 0 || minReplications < 2 || maxReplications < minReplications) {
+            throw new IllegalArgumentException("Error: " + kpis + " with relative precision " + relativePrecision
+                    + " and " + minReplications + " to " + maxReplications + " replications.");
+        }
+        this.variant = variant;
+        this.scenario = scenario;
+        this.kpis = EnumSet.copyOf(kpis);
+        this.relativePrecision = relativePrecision;
+        this.confidence = confidence;
+        this.minReplications = minReplications;
+        this.maxReplications = maxReplications;
+        this.parallelism = parallelism;
+
+        for (Kpi kpi : this.kpis) {
+            statistics.put(kpi, new SummaryStatistic(kpi.getLabel()));
+        }
+    }
+
+    /**
+     * runs replications until the precision is reached or maxReplications have been run
+     * @return the merged results of the replications that count
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public ReplicationSummary run() throws InterruptedException {
+        ReplicationSummary summary = new ReplicationSummary();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        CompletionService<ReplicationResult> completion = new ExecutorCompletionService<>(pool);
+        Map<Integer, Future<ReplicationResult>> inFlight = new HashMap<>();
+        Map<Integer, ReplicationResult> finished = new HashMap<>();
+
+        try {
+            int next = 0;
+            while (next < parallelism && next < maxReplications) {
+                inFlight.put(next, submit(completion, next));
+                next++;
+            }
+
+            int added = 0;
+            while (!precisionReached && added < maxReplications) {
+                ReplicationResult result;
+                try {
+                    result = completion.take().get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Error: replication failed.", e.getCause());
+                }
+                inFlight.remove(result.getReplication());
+                finished.put(result.getReplication(), result);
+
+                // add the results in order of the replication index and check after each one
+                while (!precisionReached && finished.containsKey(added)) {
+                    add(summary, finished.remove(added));
+                    added++;
+                    precisionReached = added >= minReplications && isPrecise();
+                }
+
+                if (!precisionReached && next < maxReplications) {
+                    inFlight.put(next, submit(completion, next));
+                    next++;
+                }
+            }
+            cancelled = inFlight.size();
+        } finally {
+            stopping = true;
+            for (Future<ReplicationResult> future : inFlight.values()) {
+                future.cancel(false);
+            }
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+
+        return summary;
+    }
+
+    private Future<ReplicationResult> submit(CompletionService<ReplicationResult> completion, int replication) {
+        long seed = RandomStreams.replicationSeed(scenario.getSeed(), replication);
+        return completion.submit(() -> ReplicationRunner.runReplication(variant, scenario, replication, seed, exp -> {
+            // the run may have been stopped between the submission and now
+            if (stopping) {
+                throw new CancellationException("replication " + replication + " is not needed");
+            }
+            exp.stop(new StopCondition(exp.getModel()));
+        }));
+    }
+
+    /**
+     * The condition that stops a replication on its own thread once the run is stopping.
+     */
+    private class StopCondition extends ModelCondition {
+
+        private StopCondition(Model owner) {
+            super(owner, "StopCondition", false);
+        }
+
+        @Override
+        public boolean check() {
+            return stopping;
+        }
+    }
+
+    private void add(ReplicationSummary summary, ReplicationResult result) {
+        summary.add(result);
+        for (Kpi kpi : kpis) {
+            statistics.get(kpi).update(kpi.valueOf(result));
+        }
+    }
+
+    // true if the confidence intervals of all key figures are narrow enough
+    private boolean isPrecise() {
+        for (SummaryStatistic statistic : statistics.values()) {
+            if (!(statistic.relativeHalfWidth(confidence) <= relativePrecision)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param kpi   one of the chosen key figures
+     * @return the values of the key figure in the replications that count
+     */
+    public SummaryStatistic getStatistic(Kpi kpi) {
+        return statistics.get(kpi);
+    }
+
+    /**
+     * @return true if the precision was reached, false if the run stopped after maxReplications
+     */
+    public boolean isPrecisionReached() {
+        return precisionReached;
+    }
+
+    /**
+     * @return the number of replications that were still running or waiting when the precision was reached
+     */
+    public int getCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Runs replications until the key figures are precise enough
+     * @param args  [relative precision] [scenario file] [variant: process, process_idle_queue, event or hybrid]
+     *              [key figures, comma separated: checkout_wait, checkout_wait_p95, time_in_system_p95,
+     *              seat_utilization]
+     *              [max replications]
+     * @throws IOException if the scenario file cannot be read
+     * @throws InterruptedException if interrupted while waiting for the replications
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        double relativePrecision = args.length > 0 ? Double.parseDouble(args[0]) : 0.05;
+        Scenario scenario = args.length > 1 ? ScenarioLoader.load(Paths.get(args[1])) : Scenario.defaults();
+        ModelVariant variant = args.length > 2 ? ModelVariant.parse(args[2]) : ModelVariant.PROCESS;
+        Set<Kpi> kpis = args.length > 3 ? Kpi.parseAll(args[3]) : EnumSet.allOf(Kpi.class);
+        int maxReplications = args.length > 4 ? Integer.parseInt(args[4]) : 1000;
+
+        SequentialStopping stopping = new SequentialStopping(variant, scenario, kpis, relativePrecision, 0.95,
+                5, maxReplications, Runtime.getRuntime().availableProcessors());
+
+        long start = System.nanoTime();
+        ReplicationSummary summary = stopping.run();
+        long elapsed = System.nanoTime() - start;
+
+        summary.print(System.out, 0.95);
+
+        System.out.printf("%ntarget relative precision %.2f%% %s after %d replications, %d cancelled%n",
+                100 * relativePrecision, stopping.isPrecisionReached() ? "reached" : "NOT reached",
+                summary.getReplications(), stopping.getCancelled());
+        for (Kpi kpi : kpis) {
+            SummaryStatistic statistic = stopping.getStatistic(kpi);
+            System.out.printf("%-50s %12.3f +/- %10.3f (%5.2f%%)%n", statistic.getName(), statistic.getMean(),
+                    statistic.halfWidth(0.95), 100 * statistic.relativeHalfWidth(0.95));
+        }
+        System.out.printf("wall clock time: %.1f s%n", elapsed / 1e9);
+    }
+}
@@ -0,0 +1,53 @@
+package selfservicecafe_p;
+
+import desmoj.core.simulator.*;
+
+/**
+ * This class represents a server on the SelfServiceEventModel model:
+ * an employee or a drinks machine.
+ * Like the customer, the server is a passive entity.
+ */
+public class ServerEntity extends Entity {
+
+    // the station this server belongs to, see the station indices of SelfServiceEventModel
+    private final int stationIndex;
+
+    // the end of this server's service, scheduled again for every customer
+    private ServiceEndEvent serviceEnd;
+
+    // derivatives of the time this server becomes free, see PerturbationAnalysis
+    private double[] timeDerivatives;
+
+    /**
+     * Constructor of the server entity
+     * @param owner         the model this entity belongs to
+     * @param name          this server's name
+     * @param showInTrace   flag to indicate if this entity shall produce output for the trace
+     * @param stationIndex  this server's station
+     */
+    public ServerEntity(Model owner, String name, boolean showInTrace, int stationIndex) {
+        super(owner, name, showInTrace);
+
+        this.stationIndex = stationIndex;
+    }
+
+    public int getStationIndex() {
+        return stationIndex;
+    }
+
+    public ServiceEndEvent getServiceEnd() {
+        return serviceEnd;
+    }
+
+    public void setServiceEnd(ServiceEndEvent serviceEnd) {
+        this.serviceEnd = serviceEnd;
+    }
+
+    public double[] getTimeDerivatives() {
+        return timeDerivatives;
+    }
+
+    public void setTimeDerivatives(double[] timeDerivatives) {
+        this.timeDerivatives = timeDerivatives;
+    }
+}
@@ -0,0 +1,68 @@
+package selfservicecafe_p;
+
+import desmoj.core.simulator.*;
+import co.paralleluniverse.fibers.SuspendExecution;
+
+/**
+ * This class represents a server on the SelfServiceModel model, i.e. someone or something
+ * that serves the customers of one station. Every server belongs to exactly one station
+ * and waits in the station's idle queue until a costumer requests its service.
+ */
+public abstract class ServerProcess extends SimProcess {
+
+    // the station this server belongs to
+    private final Station station;
+
+    // the model this server belongs to
+    private final SelfServiceModel myModel;
+
+    /**
+     * Constructor of the ServerProcess
+     * @param owner         the model this process belongs to
+     * @param name          this server's name
+     * @param showInTrace   flag to indicate if this process shall produce output for the trace
+     * @param stationIndex  this server's station
+     */
+    public ServerProcess(Model owner, String name, boolean showInTrace, int stationIndex) {
+        super(owner, name, showInTrace);
+
+        myModel = (SelfServiceModel) owner;
+        station = myModel.getStation(stationIndex);
+    }
+
+    public Station getStation() {
+        return station;
+    }
+
+    /**
+     * Describes the server's life cycle.
+     * If there is a costumer waiting at the server's station, the server
+     *      1) removes the customer from the station's queue
+     *      2) serves the costumer
+     *      3) reactivates the costumer
+     * if no costumer is waiting at the server's station, the server
+     *      1) inserts itself into the station's idle queue and
+     *      2) waits until someone arrives
+     * @throws SuspendExecution
+     */
+    @Override
+    public void lifeCycle() throws SuspendExecution {
+        while (true) {
+            CustomerProcess customer = station.nextCustomer();
+
+            if (customer == null) {
+                station.idle(this);
+
+                passivate();
+            } else {
+                myModel.countEvent();
+                hold(new TimeSpan(station.serviceTime(customer)));
+
+                // customer was served at the station
+                // reactivate customer
+                customer.activate();
+                myModel.countEvent();
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package selfservicecafe_p;
+
+import desmoj.core.simulator.*;
+
+/**
+ * This class represents the end of a service on the SelfServiceEventModel model:
+ * an employee has served a customer or a drinks machine has filled a customer's glass.
+ */
+public class ServiceEndEvent extends EventOf2Entities<ServerEntity, CustomerEntity> {
+
+    // a reference to the model this event is part of
+    private SelfServiceEventModel myModel;
+
+    /**
+     * Constructor of the ServiceEndEvent
+     * @param owner         the model this event belongs to
+     * @param name          this event's name
+     * @param showInTrace   flag to indicate if this event shall produce output for the trace
+     */
+    public ServiceEndEvent(Model owner, String name, boolean showInTrace) {
+        super(owner, name, showInTrace);
+
+        myModel = (SelfServiceEventModel) owner;
+    }
+
+    /**
+     * The server takes the next customer of its station or becomes idle,
+     * the customer moves on to its next station.
+     * @param server    the server that has finished the service
+     * @param customer  the customer that was served
+     */
+    @Override
+    public void eventRoutine(ServerEntity server, CustomerEntity customer) {
+        int stationIndex = server.getStationIndex();
+
+        myModel.releaseServer(server);
+        myModel.leaveStation(customer, stationIndex);
+    }
+}
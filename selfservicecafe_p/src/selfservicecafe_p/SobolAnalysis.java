@@ -0,0 +1,689 @@
+package selfservicecafe_p;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * This class ranks the parameters of the cafeteria by their influence on the key figures with Sobol indices:
+ * the first-order index of a parameter is the share of the variance of a key figure that it causes alone,
+ * the total-effect index the share it causes alone or together with other parameters. The factors are the
+ * parameters of all service, resting and arrival time distributions and the routing probabilities, each one
+ * uniform over a range.
+ *
+ * The indices are estimated with Saltelli's scheme: two random matrices A and B of N samples, and for every
+ * factor i the matrix AB_i, A with column i taken from B, N * (factors + 2) evaluations in all. The first-order
+ * indices use Saltelli's estimator (2010), the total effects Jansen's. The confidence intervals are percentile
+ * bootstrap intervals, resampling the N rows.
+ *
+ * Every evaluation is a replication with the same seed (common random numbers), so the noise of the model
+ * does not show up as a made-up influence of the parameters. The evaluations run in parallel and are cached
+ * by their parameter values: equal rows are run once, and with a cache file an analysis that was interrupted
+ * or that is run again with more samples only runs the evaluations it does not have yet. Each row of A and B
+ * is drawn from its own generator, split off in the order of the rows, so more samples only add rows and
+ * keep the values of the existing ones. The first line of the cache file holds the settings the values
+ * depend on: the variant, the seeds and the whole base scenario, including its fixed parameters and its
+ * stop time; a cache file with other settings is rejected.
+ *
+ * The analysis is described by a properties file:
+ *      scenario                        the base scenario file, default: Scenario.defaults()
+ *      variant                         the model variant, default event
+ *      samples                         N, the rows of A and B, default 64
+ *      seed                            the seed of the samples and of the bootstrap, default 1
+ *      replications                    the replications averaged per evaluation, default 1
+ *      bootstrap                       the bootstrap resamples, default 1000
+ *      variation                       every parameter varies by this share around its value, default 0.1
+ *      PARAMETER                       the range of one parameter, e.g. station.CheckOut.serviceTime.upper=30..45,
+ *                                      a range like 0.1..0.1 keeps the parameter fixed
+ * The parameters are arrival.P, station.NAME.serviceTime.P, resting.mainDish.P and resting.dessert.P, with P the
+ * parameter names of DistributionSpec (lower, upper, mean, sd or value), and routing.sandwichBar,
+ * routing.drinksBar and routing.dessert.
+ */
+public class SobolAnalysis {
+
+    // distributions of the factors: the stations, then main dish, dessert and arrival
+    private static final int MAIN_DISH = 6;
+    private static final int DESSERT = 7;
+    private static final int ARRIVAL = 8;
+
+    // confidence of the bootstrap intervals
+    private static final double CONFIDENCE = 0.95;
+
+    private static final SequentialStopping.Kpi[] KPIS = SequentialStopping.Kpi.values();
+
+    /**
+     * One parameter of the cafeteria and its range.
+     */
+    public static class Factor {
+
+        private final String name;
+        // the distribution and its parameter, or -1 and the routing decision
+        private final int distribution;
+        private final int parameter;
+        private final double min;
+        private final double max;
+
+        private Factor(String name, int distribution, int parameter, double min, double max) {
+            if (max < min) {
+                throw new IllegalArgumentException("Error: empty range " + min + ".." + max + " of " + name + ".");
+            }
+            this.name = name;
+            this.distribution = distribution;
+            this.parameter = parameter;
+            this.min = min;
+            this.max = max;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        private Factor withRange(double min, double max) {
+            return new Factor(name, distribution, parameter, min, max);
+        }
+    }
+
+    private final Scenario base;
+    private final List<Factor> factors;
+    private final ModelVariant variant;
+    private final int samples;
+    private final long seed;
+    private final int replications;
+    private final int bootstrap;
+    private final int parallelism;
+
+    // the evaluations by replication and parameter values, finished or running
+    private final Map<String, Future<double[]>> cache = new ConcurrentHashMap<>();
+    private int cached;
+    private int evaluated;
+
+    // per key figure: the first-order and total-effect indices by factor, each estimate, lower and upper bound
+    private double[][][] firstOrder;
+    private double[][][] totalEffect;
+
+    /**
+     * Constructor of the SobolAnalysis
+     * @param base          the scenario whose parameters are varied, its seed is the base seed of the replications
+     * @param factors       the parameters and their ranges
+     * @param variant       the implementation of the cafeteria
+     * @param samples       N, the rows of the matrices A and B
+     * @param seed          the seed of the samples and of the bootstrap
+     * @param replications  the replications averaged per evaluation
+     * @param bootstrap     the number of bootstrap resamples
+     * @param parallelism   the number of evaluations running at the same time
+     */
+    public SobolAnalysis(Scenario base, List<Factor> factors, ModelVariant variant, int samples, long seed,
+                         int replications, int bootstrap, int parallelism) {
+        if (factors.isEmpty() || samples < 2 || replications < 1 || bootstrap < 1) {
+            throw new IllegalArgumentException("Error: " + factors.size() + " factors, " + samples + " samples, "
+                    + replications + " replications and " + bootstrap + " bootstrap resamples.");
+        }
+        this.base = base;
+        this.factors = new ArrayList<>(factors);
+        this.variant = variant;
+        this.samples = samples;
+        this.seed = seed;
+        this.replications = replications;
+        this.bootstrap = bootstrap;
+        this.parallelism = parallelism;
+
+        // a sample must not put the lower bound of a uniform distribution above its upper bound
+        for (int d = 0; d <= ARRIVAL; d++) {
+            if (!distribution(base, d).getFamily().equals("uniform")) {
+                continue;
+            }
+            double[] lower = {distribution(base, d).getParameter(0), distribution(base, d).getParameter(0)};
+            double[] upper = {distribution(base, d).getParameter(1), distribution(base, d).getParameter(1)};
+            for (Factor factor : factors) {
+                if (factor.distribution == d) {
+                    double[] bounds = factor.parameter == 0 ? lower : upper;
+                    bounds[0] = factor.min;
+                    bounds[1] = factor.max;
+                }
+            }
+            if (lower[1] > upper[0]) {
+                throw new IllegalArgumentException("Error: the lower bound of " + distributionName(base, d)
+                        + " can reach " + lower[1] + ", above the lowest upper bound " + upper[0] + ".");
+            }
+        }
+    }
+
+    /**
+     * returns all parameters of a scenario as factors, each one varied by a share around its value;
+     * routing probabilities stay within [0, 1]
+     * @param scenario  the scenario
+     * @param variation the share, e.g. 0.1 for +/- 10%
+     * @return the factors
+     */
+    public static List<Factor> allParameters(Scenario scenario, double variation) {
+        List<Factor> factors = new ArrayList<>();
+        for (int d = 0; d <= ARRIVAL; d++) {
+            DistributionSpec spec = distribution(scenario, d);
+            for (int p = 0; p < spec.getParameterCount(); p++) {
+                double value = spec.getParameter(p);
+                factors.add(new Factor(distributionName(scenario, d) + "." + spec.getParameterName(p), d, p,
+                        value - variation * Math.abs(value), value + variation * Math.abs(value)));
+            }
+        }
+        double[] routing = routing(scenario);
+        String[] names = {"routing.sandwichBar", "routing.drinksBar", "routing.dessert"};
+        for (int r = 0; r < routing.length; r++) {
+            factors.add(new Factor(names[r], -1, r, Math.max(0.0, routing[r] * (1 - variation)),
+                    Math.min(1.0, routing[r] * (1 + variation))));
+        }
+        return factors;
+    }
+
+    private static DistributionSpec distribution(Scenario scenario, int distribution) {
+        switch (distribution) {
+            case MAIN_DISH:
+                return scenario.getRestingTimeMainDish();
+            case DESSERT:
+                return scenario.getRestingTimeDessert();
+            case ARRIVAL:
+                return scenario.getCustomerArrivalTime();
+            default:
+                return scenario.getStation(distribution).getServiceTime();
+        }
+    }
+
+    private static String distributionName(Scenario scenario, int distribution) {
+        switch (distribution) {
+            case MAIN_DISH:
+                return "resting.mainDish";
+            case DESSERT:
+                return "resting.dessert";
+            case ARRIVAL:
+                return "arrival";
+            default:
+                return "station." + scenario.getStation(distribution).getName() + ".serviceTime";
+        }
+    }
+
+    private static double[] routing(Scenario scenario) {
+        return new double[] {
+                scenario.getSandwichBarProbability(), scenario.getDrinksBarProbability(),
+                scenario.getDessertProbability()
+        };
+    }
+
+    /**
+     * reads an analysis file
+     * @param file          the properties file
+     * @param parallelism   the number of evaluations running at the same time
+     * @return the analysis
+     * @throws IOException if the analysis file or its scenario file cannot be read
+     */
+    public static SobolAnalysis load(Path file, int parallelism) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+
+        String scenarioFile = properties.getProperty("scenario");
+        Scenario base = scenarioFile == null ? Scenario.defaults()
+                : ScenarioLoader.load(file.resolveSibling(scenarioFile.trim()));
+
+        List<Factor> factors = allParameters(base,
+                Double.parseDouble(properties.getProperty("variation", "0.1").trim()));
+        List<String> settings = Arrays.asList("scenario", "variant", "samples", "seed", "replications",
+                "bootstrap", "variation");
+        for (String key : properties.stringPropertyNames()) {
+            if (settings.contains(key)) {
+                continue;
+            }
+            int index = -1;
+            for (int f = 0; f < factors.size(); f++) {
+                if (factors.get(f).getName().equals(key)) {
+                    index = f;
+                }
+            }
+            String range = properties.getProperty(key).trim();
+            int separator = range.indexOf("..");
+            if (index < 0 || separator < 0) {
+                throw new IllegalArgumentException("Error in analysis file " + file + ": unknown key " + key
+                        + " or range " + range + " is not like 30..45");
+            }
+            factors.set(index, factors.get(index).withRange(Double.parseDouble(range.substring(0, separator).trim()),
+                    Double.parseDouble(range.substring(separator + 2).trim())));
+        }
+
+        // a fixed parameter is no factor
+        List<Factor> varied = new ArrayList<>();
+        for (Factor factor : factors) {
+            if (factor.getMax() > factor.getMin()) {
+                varied.add(factor);
+            }
+        }
+
+        return new SobolAnalysis(base, varied,
+                ModelVariant.parse(properties.getProperty("variant", "event")),
+                Integer.parseInt(properties.getProperty("samples", "64").trim()),
+                Long.parseLong(properties.getProperty("seed", "1").trim()),
+                Integer.parseInt(properties.getProperty("replications", "1").trim()),
+                Integer.parseInt(properties.getProperty("bootstrap", "1000").trim()),
+                parallelism);
+    }
+
+    /**
+     * returns a copy of the base scenario with the parameters set to the values of a sample
+     * @param values    the values, one per factor
+     * @return the changed copy
+     */
+    public Scenario apply(double[] values) {
+        DistributionSpec[] specs = new DistributionSpec[ARRIVAL + 1];
+        for (int d = 0; d < specs.length; d++) {
+            specs[d] = distribution(base, d);
+        }
+        double[] routing = routing(base);
+        for (int f = 0; f < factors.size(); f++) {
+            Factor factor = factors.get(f);
+            if (factor.distribution < 0) {
+                routing[factor.parameter] = values[f];
+            } else {
+                specs[factor.distribution] = specs[factor.distribution].withParameter(factor.parameter, values[f]);
+            }
+        }
+
+        Scenario scenario = base.withDistributions(specs[ARRIVAL], specs[MAIN_DISH], specs[DESSERT])
+                .withRouting(routing[0], routing[1], routing[2]);
+        for (int i = 0; i < MAIN_DISH; i++) {
+            scenario = scenario.withStation(i, scenario.getStation(i).withServiceTime(specs[i]));
+        }
+        return scenario;
+    }
+
+    /**
+     * evaluates all samples and estimates the indices
+     * @param cacheFile the file of the cached evaluations, created if it does not exist, null for none
+     * @throws IOException if the cache file cannot be read or written
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void run(Path cacheFile) throws IOException, InterruptedException {
+        // the matrices A and B; AB_i is A with column i of B
+        int k = factors.size();
+        SplittableRandom random = new SplittableRandom(seed);
+        double[][] a = new double[samples][k];
+        double[][] b = new double[samples][k];
+        for (int row = 0; row < samples; row++) {
+            // row by row, so row r has the same values for any number of samples
+            SplittableRandom rowRandom = random.split();
+            for (double[] values : new double[][] {a[row], b[row]}) {
+                for (int f = 0; f < k; f++) {
+                    Factor factor = factors.get(f);
+                    values[f] = factor.min + (factor.max - factor.min) * rowRandom.nextDouble();
+                }
+            }
+        }
+
+        String settings = settings();
+        String header = header();
+        if (cacheFile != null) {
+            readCache(cacheFile, settings, header);
+        }
+
+        // per key figure, matrix (A, B, AB_1 ... AB_k) and row: the mean over the replications
+        double[][][] y = new double[KPIS.length][k + 2][samples];
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try (BufferedWriter writer = cacheFile == null ? null : Files.newBufferedWriter(cacheFile,
+                StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (writer != null && Files.size(cacheFile) == 0) {
+                writer.write(settings);
+                writer.newLine();
+                writer.write(header);
+                writer.newLine();
+                writer.flush();
+            }
+
+            List<List<Future<double[]>>> futures = new ArrayList<>();
+            for (int row = 0; row < samples; row++) {
+                for (int m = 0; m < k + 2; m++) {
+                    double[] values = m == 0 ? a[row] : m == 1 ? b[row] : a[row].clone();
+                    if (m >= 2) {
+                        values[m - 2] = b[row][m - 2];
+                    }
+                    List<Future<double[]>> evaluations = new ArrayList<>(replications);
+                    for (int replication = 0; replication < replications; replication++) {
+                        evaluations.add(evaluate(pool, writer, values, replication));
+                    }
+                    futures.add(evaluations);
+                }
+            }
+
+            int index = 0;
+            for (int row = 0; row < samples; row++) {
+                for (int m = 0; m < k + 2; m++) {
+                    for (Future<double[]> future : futures.get(index++)) {
+                        double[] kpis;
+                        try {
+                            kpis = future.get();
+                        } catch (ExecutionException e) {
+                            throw new IllegalStateException("Error: evaluation failed.", e.getCause());
+                        }
+                        for (int q = 0; q < KPIS.length; q++) {
+                            y[q][m][row] += kpis[q] / replications;
+                        }
+                    }
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        estimate(y);
+    }
+
+    // the evaluation of one sample, from the cache or started on the pool
+    private Future<double[]> evaluate(ForkJoinPool pool, BufferedWriter writer, double[] values, int replication) {
+        String key = key(values, replication);
+        Future<double[]> existing = cache.get(key);
+        if (existing != null) {
+            cached++;
+            return existing;
+        }
+        evaluated++;
+        Scenario scenario = apply(values);
+        long replicationSeed = RandomStreams.replicationSeed(base.getSeed(), replication);
+        Future<double[]> future = pool.submit(() -> {
+            ReplicationResult result = ReplicationRunner.runReplication(variant, scenario, replication,
+                    replicationSeed);
+            double[] kpis = new double[KPIS.length];
+            for (int q = 0; q < KPIS.length; q++) {
+                kpis[q] = KPIS[q].valueOf(result);
+            }
+            if (writer != null) {
+                write(writer, key, kpis);
+            }
+            return kpis;
+        });
+        cache.put(key, future);
+        return future;
+    }
+
+    // the replication and the exact parameter values, the first columns of a row of the cache file
+    private static String key(double[] values, int replication) {
+        StringBuilder key = new StringBuilder().append(replication);
+        for (double value : values) {
+            key.append(',').append(value);
+        }
+        return key.toString();
+    }
+
+    // appends an evaluation to the cache file and flushes it, so it survives an interruption
+    private static void write(BufferedWriter writer, String key, double[] kpis) {
+        StringBuilder row = new StringBuilder(key);
+        for (double kpi : kpis) {
+            row.append(',').append(kpi);
+        }
+        synchronized (writer) {
+            try {
+                writer.write(row.toString());
+                writer.newLine();
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // the settings the evaluations depend on besides the factors, the first line of the cache file
+    private String settings() {
+        StringBuilder settings = new StringBuilder("# variant=").append(variant)
+                .append(" seed=").append(seed)
+                .append(" scenario=").append(base.getName())
+                .append(" scenarioSeed=").append(base.getSeed())
+                .append(" stopTime=").append(base.getStopTime())
+                .append(" warmupDetection=").append(base.isWarmupDetection())
+                .append(" antithetic=").append(base.isAntithetic())
+                .append(" diningHall=").append(base.getDiningHallCapacity());
+        for (StationConfig station : base.getStations()) {
+            settings.append(" station.").append(station.getName()).append('=').append(station.getServers())
+                    .append(station.isSelfService() ? ":self:" : ":").append(station.getServiceTime());
+        }
+        settings.append(" arrival=").append(base.getCustomerArrivalTime())
+                .append(" resting.mainDish=").append(base.getRestingTimeMainDish())
+                .append(" resting.dessert=").append(base.getRestingTimeDessert());
+        double[] routing = routing(base);
+        settings.append(" routing=").append(routing[0]).append(':').append(routing[1]).append(':')
+                .append(routing[2]);
+        return settings.toString();
+    }
+
+    private String header() {
+        StringBuilder header = new StringBuilder("replication");
+        for (Factor factor : factors) {
+            header.append(',').append(factor.getName());
+        }
+        for (SequentialStopping.Kpi kpi : KPIS) {
+            header.append(',').append(kpi.name().toLowerCase(Locale.ROOT));
+        }
+        return header.toString();
+    }
+
+    /**
+     * reads the evaluations of the cache file and cuts off a row that was not written completely
+     * @param file      the cache file
+     * @param settings  the settings line the file must start with
+     * @param header    the header the file must have
+     * @throws IOException if the file cannot be read or written
+     */
+    private void readCache(Path file, String settings, String header) throws IOException {
+        if (!Files.exists(file) || Files.size(file) == 0) {
+            return;
+        }
+
+        String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        int end = content.lastIndexOf('\n') + 1;
+        if (end < content.length()) {
+            // the analysis was interrupted while writing the last row
+            content = content.substring(0, end);
+            Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        }
+
+        String[] lines = content.split("\r?\n");
+        if (lines.length < 2 || !lines[0].equals(settings)) {
+            throw new IllegalArgumentException("Error: " + file + " caches the evaluations of other settings: "
+                    + (lines.length == 0 ? "" : lines[0]) + ", expected " + settings + ".");
+        }
+        if (!lines[1].equals(header)) {
+            throw new IllegalArgumentException("Error: " + file + " caches the evaluations of other factors.");
+        }
+        int keyColumns = 1 + factors.size();
+        for (int i = 2; i < lines.length; i++) {
+            if (lines[i].isEmpty()) {
+                continue;
+            }
+            String[] columns = lines[i].split(",");
+            double[] kpis = new double[KPIS.length];
+            for (int q = 0; q < KPIS.length; q++) {
+                kpis[q] = Double.parseDouble(columns[keyColumns + q]);
+            }
+            String key = String.join(",", Arrays.copyOf(columns, keyColumns));
+            cache.put(key, CompletableFuture.completedFuture(kpis));
+        }
+    }
+
+    // estimates the indices from all rows and their bootstrap intervals from resampled rows
+    private void estimate(double[][][] y) {
+        int k = factors.size();
+        firstOrder = new double[KPIS.length][k][3];
+        totalEffect = new double[KPIS.length][k][3];
+
+        int[] all = new int[samples];
+        for (int row = 0; row < samples; row++) {
+            all[row] = row;
+        }
+        int[][] resamples = new int[bootstrap][samples];
+        SplittableRandom random = new SplittableRandom(seed ^ 0x5DEECE66DL);
+        for (int[] resample : resamples) {
+            for (int row = 0; row < samples; row++) {
+                resample[row] = random.nextInt(samples);
+            }
+        }
+
+        double[] first = new double[bootstrap];
+        double[] total = new double[bootstrap];
+        for (int q = 0; q < KPIS.length; q++) {
+            for (int f = 0; f < k; f++) {
+                double[] estimate = indices(y[q], f, all);
+                for (int r = 0; r < bootstrap; r++) {
+                    double[] resampled = indices(y[q], f, resamples[r]);
+                    first[r] = resampled[0];
+                    total[r] = resampled[1];
+                }
+                firstOrder[q][f] = interval(estimate[0], first);
+                totalEffect[q][f] = interval(estimate[1], total);
+            }
+        }
+    }
+
+    /**
+     * returns the first-order (Saltelli 2010) and the total-effect (Jansen) index of a factor from some rows;
+     * both are 0 if the key figure does not vary in these rows, e.g. a queue nobody waits in
+     * @param y         per matrix (A, B, AB_1 ... AB_k) and row: the value of the key figure
+     * @param factor    the factor
+     * @param rows      the rows to use, with repetitions for the bootstrap
+     * @return the first-order and the total-effect index
+     */
+    static double[] indices(double[][] y, int factor, int[] rows) {
+        double[] ya = y[0];
+        double[] yb = y[1];
+        double[] yab = y[factor + 2];
+
+        // the variance of the key figure over A and B
+        double sum = 0;
+        double sumOfSquares = 0;
+        for (int row : rows) {
+            sum += ya[row] + yb[row];
+            sumOfSquares += ya[row] * ya[row] + yb[row] * yb[row];
+        }
+        int n = rows.length;
+        double mean = sum / (2 * n);
+        double variance = sumOfSquares / (2 * n) - mean * mean;
+        // constant up to rounding: no factor has an influence
+        if (!(variance > 1e-12 * mean * mean)) {
+            return new double[] {0.0, 0.0};
+        }
+
+        double first = 0;
+        double total = 0;
+        for (int row : rows) {
+            first += yb[row] * (yab[row] - ya[row]);
+            total += (ya[row] - yab[row]) * (ya[row] - yab[row]);
+        }
+        return new double[] {first / n / variance, total / (2 * n) / variance};
+    }
+
+    // the estimate and the percentile bootstrap interval
+    private static double[] interval(double estimate, double[] resampled) {
+        double[] sorted = resampled.clone();
+        Arrays.sort(sorted);
+        double alpha = (1 - CONFIDENCE) / 2;
+        int lower = (int) Math.floor(alpha * (sorted.length - 1));
+        int upper = (int) Math.ceil((1 - alpha) * (sorted.length - 1));
+        return new double[] {estimate, sorted[lower], sorted[upper]};
+    }
+
+    public List<Factor> getFactors() {
+        return factors;
+    }
+
+    /**
+     * @param kpi       the key figure
+     * @param factor    the index of the factor
+     * @return the first-order index, the lower and the upper bound of its bootstrap interval
+     */
+    public double[] getFirstOrder(SequentialStopping.Kpi kpi, int factor) {
+        return firstOrder[kpi.ordinal()][factor].clone();
+    }
+
+    /**
+     * @param kpi       the key figure
+     * @param factor    the index of the factor
+     * @return the total-effect index, the lower and the upper bound of its bootstrap interval
+     */
+    public double[] getTotalEffect(SequentialStopping.Kpi kpi, int factor) {
+        return totalEffect[kpi.ordinal()][factor].clone();
+    }
+
+    /**
+     * @return the number of evaluations taken from the cache instead of being run
+     */
+    public int getCached() {
+        return cached;
+    }
+
+    /**
+     * @return the number of evaluations that were run
+     */
+    public int getEvaluated() {
+        return evaluated;
+    }
+
+    /**
+     * Runs a sensitivity analysis
+     * @param args  analysis file, [cache file] (appended to, an interrupted analysis is resumed)
+     * @throws IOException if a file cannot be read or written
+     * @throws InterruptedException if interrupted while waiting for the evaluations
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("usage: SobolAnalysis <analysis file> [cache file]");
+            System.exit(1);
+        }
+
+        SobolAnalysis analysis = load(Paths.get(args[0]), Runtime.getRuntime().availableProcessors());
+        long start = System.nanoTime();
+        analysis.run(args.length > 1 ? Paths.get(args[1]) : null);
+        long elapsed = System.nanoTime() - start;
+
+        List<Factor> factors = analysis.getFactors();
+        for (SequentialStopping.Kpi kpi : KPIS) {
+            // the factors with the largest total effect first
+            Integer[] order = new Integer[factors.size()];
+            for (int f = 0; f < order.length; f++) {
+                order[f] = f;
+            }
+            Arrays.sort(order, (x, z) -> Double.compare(analysis.getTotalEffect(kpi, z)[0],
+                    analysis.getTotalEffect(kpi, x)[0]));
+
+            System.out.printf("%n%s%n%-44s %28s %28s%n", kpi.getLabel(), "factor", "first order", "total effect");
+            for (int f : order) {
+                double[] first = analysis.getFirstOrder(kpi, f);
+                double[] total = analysis.getTotalEffect(kpi, f);
+                System.out.printf("%-44s %8.3f [%7.3f, %7.3f] %8.3f [%7.3f, %7.3f]%n", factors.get(f).getName(),
+                        first[0], first[1], first[2], total[0], total[1], total[2]);
+            }
+        }
+
+        System.out.printf("%n%d evaluations run, %d taken from the cache%n", analysis.getEvaluated(),
+                analysis.getCached());
+        System.out.printf("wall clock time: %.1f s%n", elapsed / 1e9);
+    }
+}
@@ -0,0 +1,94 @@
+package selfservicecafe_p;
+
+import java.util.SplittableRandom;
+
+/**
+ * This class checks the estimators of SobolAnalysis against the Ishigami function
+ * f(x) = sin(x1) + a sin(x2)^2 + b x3^4 sin(x1), x uniform in [-pi, pi]^3, whose Sobol indices are known:
+ * x3 has no first-order effect but a total effect through its interaction with x1. The estimated indices
+ * of Saltelli's matrices must be within 0.03 of the analytic ones. A function that does not vary must get
+ * indices of 0 instead of NaN.
+ */
+public class SobolCheck {
+
+    private static final double A = 7.0;
+    private static final double B = 0.1;
+    private static final double TOLERANCE = 0.03;
+
+    private static double ishigami(double[] x) {
+        return Math.sin(x[0]) + A * Math.sin(x[1]) * Math.sin(x[1]) + B * Math.pow(x[2], 4) * Math.sin(x[0]);
+    }
+
+    /**
+     * evaluates Saltelli's matrices A, B and AB_i for the Ishigami function
+     * @param samples   N, the rows of A and B
+     * @param seed      the seed of the samples
+     * @param constant  true to evaluate a function that is always 0.1 instead
+     * @return per matrix (A, B, AB_1 ... AB_3) and row: the value of the function
+     */
+    static double[][] evaluate(int samples, long seed, boolean constant) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[][] y = new double[3 + 2][samples];
+        for (int row = 0; row < samples; row++) {
+            double[] a = new double[3];
+            double[] b = new double[3];
+            for (double[] values : new double[][] {a, b}) {
+                for (int f = 0; f < 3; f++) {
+                    values[f] = -Math.PI + 2 * Math.PI * random.nextDouble();
+                }
+            }
+            y[0][row] = constant ? 0.1 : ishigami(a);
+            y[1][row] = constant ? 0.1 : ishigami(b);
+            for (int f = 0; f < 3; f++) {
+                double[] ab = a.clone();
+                ab[f] = b[f];
+                y[f + 2][row] = constant ? 0.1 : ishigami(ab);
+            }
+        }
+        return y;
+    }
+
+    // fails if an estimate is further than the tolerance from the expected value
+    private static void expect(String name, double estimate, double expected, double tolerance) {
+        System.out.printf("%-30s %8.4f, expected %8.4f%n", name, estimate, expected);
+        if (!(Math.abs(estimate - expected) <= tolerance)) {
+            throw new IllegalStateException("Error: " + name + " is " + estimate + " instead of " + expected + ".");
+        }
+    }
+
+    /**
+     * Checks the estimators, fails with an IllegalStateException if an index is wrong
+     * @param args  [number of samples]
+     */
+    public static void main(String[] args) {
+        int samples = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 14;
+        int[] rows = new int[samples];
+        for (int row = 0; row < samples; row++) {
+            rows[row] = row;
+        }
+
+        // the analytic partial variances of the Ishigami function
+        double pi4 = Math.pow(Math.PI, 4);
+        double pi8 = pi4 * pi4;
+        double v1 = 0.5 * (1 + B * pi4 / 5) * (1 + B * pi4 / 5);
+        double v2 = A * A / 8;
+        double v13 = B * B * pi8 * 8 / 225;
+        double variance = v1 + v2 + v13;
+        double[] first = {v1 / variance, v2 / variance, 0.0};
+        double[] total = {(v1 + v13) / variance, v2 / variance, v13 / variance};
+
+        double[][] y = evaluate(samples, 1, false);
+        for (int f = 0; f < 3; f++) {
+            double[] indices = SobolAnalysis.indices(y, f, rows);
+            expect("first-order index of x" + (f + 1), indices[0], first[f], TOLERANCE);
+            expect("total-effect index of x" + (f + 1), indices[1], total[f], TOLERANCE);
+        }
+
+        double[][] constant = evaluate(samples, 1, true);
+        for (int f = 0; f < 3; f++) {
+            double[] indices = SobolAnalysis.indices(constant, f, rows);
+            expect("constant, first-order of x" + (f + 1), indices[0], 0.0, 0.0);
+            expect("constant, total effect of x" + (f + 1), indices[1], 0.0, 0.0);
+        }
+    }
+}
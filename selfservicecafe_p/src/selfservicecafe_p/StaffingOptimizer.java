@@ -0,0 +1,466 @@
+package selfservicecafe_p;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class searches the cheapest staffing of the self service cafeteria that meets a service level,
+ * e.g. "the 95th percentile of the check out wait is below 180 s". The candidates are all combinations of
+ * the factors of a sweep file (see ParameterSweep), the cost of a candidate is the number of employees,
+ * drinks machines and seats times their prices.
+ *
+ * Whether a candidate meets the service level is decided like in ranking-and-selection procedures: every
+ * candidate gets the same first replications, then the replications are given out in rounds. A candidate
+ * is looked at when its replications reach one of the fixed look points initialReplications,
+ * initialReplications + replicationsPerRound, ... up to maxReplications, at most
+ * 1 + ceil((maxReplications - initialReplications) / replicationsPerRound) times. It is feasible as soon as
+ * its confidence interval lies below the limit plus the indifference zone, and infeasible as soon as it lies
+ * above the limit minus the indifference zone. The error probability 1 - confidence is divided by the number
+ * of candidates times the number of looks (Bonferroni), so the chance that any candidate is settled on the
+ * wrong side is at most 1 - confidence, as far as the t intervals of the key figure hold. Candidates that
+ * cost as much as or more than the cheapest feasible one are dominated and get no further replications.
+ * The replications of a round go to the open candidates in proportion to the variance of their key figure
+ * over its squared distance from the limit (as in OCBA), so candidates far from the limit are settled at their
+ * first looks and close contenders get many replications. All replications of a round run in parallel.
+ *
+ * Replication r of every candidate uses the same seed (common random numbers), and the results of a round are
+ * added in the order of the candidates, so the outcome does not depend on the number of threads.
+ *
+ * The optimizer is described by a properties file:
+ *      scenario                        the base scenario file, default: Scenario.defaults()
+ *      variant                         the model variant, default process
+ *      cost.employee                   the cost of one employee at any station, default 1
+ *      cost.drinksMachine              the cost of one drinks machine, default 1
+ *      cost.seat                       the cost of one seat, default 0
+ *      sla                             the service level, a key figure of SequentialStopping, &lt; or &gt; and
+ *                                      the limit, e.g. checkout_wait_p95 &lt; 180
+ *      tolerance                       the indifference zone around the limit, default 5% of the limit
+ *      confidence                      the confidence of all decisions together, over all candidates and
+ *                                      looks, default 0.95
+ *      initialReplications             the replications of every candidate in the first round, default 5
+ *      maxReplications                 the replications after which a candidate stays undecided, default 100
+ *      replicationsPerRound            the replications of a later round, default twice the parallelism
+ *      employeesPerStation, station.NAME.servers, diningHall.seats
+ *                                      the levels of the factors, as in a sweep file
+ */
+public class StaffingOptimizer {
+
+    private static final Pattern SLA = Pattern.compile("\\s*(\\w+)\\s*([<>])\\s*(\\S+)\\s*");
+
+    /**
+     * The state of a candidate.
+     */
+    public enum Status {
+        // not decided yet
+        OPEN,
+        // meets the service level
+        FEASIBLE,
+        // does not meet the service level
+        INFEASIBLE,
+        // costs at least as much as a feasible candidate
+        DOMINATED
+    }
+
+    /**
+     * One configuration of the cafeteria, its cost and the values of the key figure in its replications.
+     */
+    public static class Candidate {
+
+        private final int point;
+        private final int[] levels;
+        private final Scenario scenario;
+        private final double cost;
+        private final SummaryStatistic statistic;
+        private Status status = Status.OPEN;
+        // the look points passed so far
+        private int looks;
+
+        private Candidate(int point, int[] levels, Scenario scenario, double cost, String label) {
+            this.point = point;
+            this.levels = levels;
+            this.scenario = scenario;
+            this.cost = cost;
+            this.statistic = new SummaryStatistic(label);
+        }
+
+        public int getPoint() {
+            return point;
+        }
+
+        public int[] getLevels() {
+            return levels.clone();
+        }
+
+        public double getCost() {
+            return cost;
+        }
+
+        public SummaryStatistic getStatistic() {
+            return statistic;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public int getReplications() {
+            return (int) statistic.getObservations();
+        }
+    }
+
+    private final SweepDesign design;
+    private final ModelVariant variant;
+    private final SequentialStopping.Kpi kpi;
+    private final boolean below;
+    private final double limit;
+    private final double tolerance;
+    private final double confidence;
+    private final int initialReplications;
+    private final int maxReplications;
+    private final int replicationsPerRound;
+    private final int parallelism;
+    // the number of look points of a candidate
+    private final int maxLooks;
+
+    // the candidates from the cheapest to the most expensive
+    private final List<Candidate> candidates = new ArrayList<>();
+    private int rounds;
+
+    /**
+     * Constructor of the StaffingOptimizer
+     * @param base                  the scenario whose factors are changed, its seed is the base seed of the replications
+     * @param design                the factors and the candidates
+     * @param variant               the implementation of the cafeteria
+     * @param costs                 the cost of an employee, a drinks machine and a seat
+     * @param kpi                   the key figure of the service level
+     * @param below                 true if the key figure must be below the limit, false if above
+     * @param limit                 the limit of the key figure
+     * @param tolerance             the indifference zone, differences from the limit smaller than this do not matter
+     * @param confidence            the confidence of all decisions together, over all candidates and looks, e.g. 0.95
+     * @param initialReplications   the replications of every candidate in the first round, at least 2
+     * @param maxReplications       the replications after which a candidate stays undecided
+     * @param replicationsPerRound  the replications of every later round
+     * @param parallelism           the number of replications running at the same time
+     */
+    public StaffingOptimizer(Scenario base, SweepDesign design, ModelVariant variant, double[] costs,
+                             SequentialStopping.Kpi kpi, boolean below, double limit, double tolerance,
+                             double confidence, int initialReplications, int maxReplications,
+                             int replicationsPerRound, int parallelism) {
+        if (tolerance <= 0 || initialReplications < 2 || maxReplications < initialReplications
+                || replicationsPerRound < 1) {
+            throw new IllegalArgumentException("Error: tolerance " + tolerance + " and " + initialReplications
+                    + " to " + maxReplications + " replications, " + replicationsPerRound + " per round.");
+        }
+        this.design = design;
+        this.variant = variant;
+        this.kpi = kpi;
+        this.below = below;
+        this.limit = limit;
+        this.tolerance = tolerance;
+        this.confidence = confidence;
+        this.initialReplications = initialReplications;
+        this.maxReplications = maxReplications;
+        this.replicationsPerRound = replicationsPerRound;
+        this.parallelism = parallelism;
+        maxLooks = 1 + (maxReplications - initialReplications + replicationsPerRound - 1) / replicationsPerRound;
+
+        for (int point = 0; point < design.getPointCount(); point++) {
+            Scenario scenario = design.apply(base, point);
+            candidates.add(new Candidate(point, design.getLevels(point), scenario, cost(scenario, costs),
+                    kpi.getLabel()));
+        }
+        // stable, so candidates with the same cost keep the order of the design
+        candidates.sort(Comparator.comparingDouble(Candidate::getCost));
+    }
+
+    private static double cost(Scenario scenario, double[] costs) {
+        double cost = scenario.getDiningHallCapacity() * costs[2];
+        for (StationConfig station : scenario.getStations()) {
+            cost += station.getServers() * (station.isSelfService() ? costs[1] : costs[0]);
+        }
+        return cost;
+    }
+
+    /**
+     * reads an optimizer file
+     * @param file          the properties file
+     * @param parallelism   the number of replications running at the same time
+     * @return the optimizer
+     * @throws IOException if the optimizer file or its scenario file cannot be read
+     */
+    public static StaffingOptimizer load(Path file, int parallelism) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+
+        String scenarioFile = properties.getProperty("scenario");
+        Scenario base = scenarioFile == null ? Scenario.defaults()
+                : ScenarioLoader.load(file.resolveSibling(scenarioFile.trim()));
+
+        List<SweepDesign.Factor> factors = new ArrayList<>();
+        List<String> settings = Arrays.asList("scenario", "variant", "cost.employee", "cost.drinksMachine",
+                "cost.seat", "sla", "tolerance", "confidence", "initialReplications", "maxReplications",
+                "replicationsPerRound");
+        for (String key : properties.stringPropertyNames().stream().sorted().toArray(String[]::new)) {
+            SweepDesign.Factor factor = SweepDesign.Factor.parseKey(base, key, properties.getProperty(key));
+            if (factor != null) {
+                factors.add(factor);
+            } else if (!settings.contains(key)) {
+                throw new IllegalArgumentException("Error in optimizer file " + file + ": unknown key " + key);
+            }
+        }
+        if (factors.isEmpty()) {
+            throw new IllegalArgumentException("Error in optimizer file " + file + ": no factor.");
+        }
+
+        String sla = properties.getProperty("sla");
+        Matcher matcher = sla == null ? null : SLA.matcher(sla);
+        if (matcher == null || !matcher.matches()) {
+            throw new IllegalArgumentException("Error in optimizer file " + file + ": the sla must look like "
+                    + "checkout_wait_p95 < 180, not " + sla);
+        }
+        SequentialStopping.Kpi kpi = SequentialStopping.Kpi.valueOf(matcher.group(1).toUpperCase());
+        double limit = Double.parseDouble(matcher.group(3));
+
+        double[] costs = {
+                Double.parseDouble(properties.getProperty("cost.employee", "1").trim()),
+                Double.parseDouble(properties.getProperty("cost.drinksMachine", "1").trim()),
+                Double.parseDouble(properties.getProperty("cost.seat", "0").trim())
+        };
+        String tolerance = properties.getProperty("tolerance");
+
+        return new StaffingOptimizer(base, SweepDesign.grid(factors),
+                ModelVariant.parse(properties.getProperty("variant", "process")), costs, kpi,
+                matcher.group(2).equals("<"), limit,
+                tolerance == null ? 0.05 * Math.abs(limit) : Double.parseDouble(tolerance.trim()),
+                Double.parseDouble(properties.getProperty("confidence", "0.95").trim()),
+                Integer.parseInt(properties.getProperty("initialReplications", "5").trim()),
+                Integer.parseInt(properties.getProperty("maxReplications", "100").trim()),
+                Integer.parseInt(properties.getProperty("replicationsPerRound", String.valueOf(2 * parallelism)).trim()),
+                parallelism);
+    }
+
+    /**
+     * runs rounds of replications until the cheapest feasible candidate is known or no candidate is left to run
+     * @return the cheapest feasible candidate, null if there is none
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public Candidate run() throws InterruptedException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            int[] allocation = new int[candidates.size()];
+            Arrays.fill(allocation, initialReplications);
+            while (true) {
+                runRound(pool, allocation);
+                rounds++;
+                decide();
+                if (!allocate(allocation)) {
+                    return cheapestFeasible();
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // runs the allocated replications of all candidates in parallel and adds them in the order of the candidates
+    private void runRound(ForkJoinPool pool, int[] allocation) throws InterruptedException {
+        List<List<Future<ReplicationResult>>> futures = new ArrayList<>();
+        for (int c = 0; c < candidates.size(); c++) {
+            Candidate candidate = candidates.get(c);
+            List<Future<ReplicationResult>> replications = new ArrayList<>();
+            int first = candidate.getReplications();
+            for (int replication = first; replication < first + allocation[c]; replication++) {
+                final int index = replication;
+                replications.add(pool.submit(() -> ReplicationRunner.runReplication(variant, candidate.scenario,
+                        index, RandomStreams.replicationSeed(candidate.scenario.getSeed(), index))));
+            }
+            futures.add(replications);
+        }
+
+        for (int c = 0; c < candidates.size(); c++) {
+            for (Future<ReplicationResult> future : futures.get(c)) {
+                try {
+                    candidates.get(c).statistic.update(kpi.valueOf(future.get()));
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Error: replication failed.", e.getCause());
+                }
+            }
+        }
+    }
+
+    // the replications of a candidate at which it is looked at the look-th time, counted from 0
+    private int lookPoint(int look) {
+        return (int) Math.min(maxReplications, initialReplications + (long) look * replicationsPerRound);
+    }
+
+    /**
+     * settles the open candidates that have reached their next look point and whose confidence interval
+     * lies on one side of the limit, then the dominated ones
+     */
+    private void decide() {
+        double individual = 1.0 - (1.0 - confidence) / ((double) candidates.size() * maxLooks);
+        for (Candidate candidate : candidates) {
+            if (candidate.status != Status.OPEN || candidate.looks >= maxLooks
+                    || candidate.getReplications() < lookPoint(candidate.looks)) {
+                continue;
+            }
+            // one look, even if a round passed several look points
+            while (candidate.looks < maxLooks && candidate.getReplications() >= lookPoint(candidate.looks)) {
+                candidate.looks++;
+            }
+            double excess = excess(candidate);
+            double halfWidth = candidate.statistic.halfWidth(individual);
+            if (excess + halfWidth < tolerance) {
+                candidate.status = Status.FEASIBLE;
+            } else if (excess - halfWidth > -tolerance) {
+                candidate.status = Status.INFEASIBLE;
+            }
+        }
+
+        Candidate best = cheapestFeasible();
+        if (best != null) {
+            for (Candidate candidate : candidates) {
+                if (candidate != best && candidate.cost >= best.cost
+                        && (candidate.status == Status.OPEN || candidate.status == Status.FEASIBLE)) {
+                    candidate.status = Status.DOMINATED;
+                }
+            }
+        }
+    }
+
+    // how far the mean is on the wrong side of the limit, negative if on the right side
+    private double excess(Candidate candidate) {
+        double difference = candidate.statistic.getMean() - limit;
+        return below ? difference : -difference;
+    }
+
+    /**
+     * gives the replications of the next round to the open candidates, one after the other to the candidate
+     * that is furthest below its share: variance / max(|mean - limit|, tolerance)^2
+     * @param allocation    the replications per candidate, overwritten
+     * @return false if no candidate is left to run
+     */
+    private boolean allocate(int[] allocation) {
+        Arrays.fill(allocation, 0);
+        double[] weights = new double[candidates.size()];
+        boolean open = false;
+        for (int c = 0; c < candidates.size(); c++) {
+            Candidate candidate = candidates.get(c);
+            if (candidate.status == Status.OPEN && candidate.getReplications() < maxReplications) {
+                double distance = Math.max(Math.abs(excess(candidate)), tolerance);
+                // a small floor, so a candidate without variance so far is not starved
+                weights[c] = Math.max(candidate.statistic.getVariance(), 1e-9) / (distance * distance);
+                open = true;
+            }
+        }
+        if (!open) {
+            return false;
+        }
+
+        for (int i = 0; i < replicationsPerRound; i++) {
+            int next = -1;
+            double nextNeed = 0;
+            for (int c = 0; c < candidates.size(); c++) {
+                int replications = candidates.get(c).getReplications() + allocation[c];
+                if (weights[c] > 0 && replications < maxReplications) {
+                    double need = weights[c] / (replications + 1);
+                    if (next < 0 || need > nextNeed) {
+                        next = c;
+                        nextNeed = need;
+                    }
+                }
+            }
+            if (next < 0) {
+                break;
+            }
+            allocation[next]++;
+        }
+        return true;
+    }
+
+    private Candidate cheapestFeasible() {
+        for (Candidate candidate : candidates) {
+            if (candidate.status == Status.FEASIBLE) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the candidates from the cheapest to the most expensive
+     */
+    public List<Candidate> getCandidates() {
+        return Collections.unmodifiableList(candidates);
+    }
+
+    public SweepDesign getDesign() {
+        return design;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Searches the cheapest staffing that meets the service level
+     * @param args  optimizer file
+     * @throws IOException if a file cannot be read
+     * @throws InterruptedException if interrupted while waiting for the replications
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("usage: StaffingOptimizer <optimizer file>");
+            System.exit(1);
+        }
+
+        StaffingOptimizer optimizer = load(Paths.get(args[0]), Runtime.getRuntime().availableProcessors());
+        long start = System.nanoTime();
+        Candidate best = optimizer.run();
+        long elapsed = System.nanoTime() - start;
+
+        StringBuilder header = new StringBuilder();
+        for (SweepDesign.Factor factor : optimizer.getDesign().getFactors()) {
+            header.append(String.format("%-26s", factor.getName()));
+        }
+        System.out.printf("%s %10s %6s %26s  %s%n", header, "cost", "reps", optimizer.kpi.getLabel(), "status");
+        int total = 0;
+        for (Candidate candidate : optimizer.getCandidates()) {
+            StringBuilder levels = new StringBuilder();
+            for (int level : candidate.levels) {
+                levels.append(String.format("%-26d", level));
+            }
+            SummaryStatistic statistic = candidate.getStatistic();
+            System.out.printf("%s %10.1f %6d %12.3f +/- %9.3f  %s%n", levels, candidate.getCost(),
+                    candidate.getReplications(), statistic.getMean(), statistic.halfWidth(0.95), candidate.getStatus());
+            total += candidate.getReplications();
+        }
+
+        System.out.printf("%n%d replications in %d rounds (%d candidates)%n", total, optimizer.getRounds(),
+                optimizer.getCandidates().size());
+        if (best == null) {
+            System.out.println("no candidate meets the service level");
+        } else {
+            System.out.printf("cheapest candidate that meets the service level: point %d %s, cost %.1f%n",
+                    best.getPoint(), Arrays.toString(best.getLevels()), best.getCost());
+        }
+        System.out.printf("wall clock time: %.1f s%n", elapsed / 1e9);
+    }
+}
@@ -0,0 +1,196 @@
+package selfservicecafe_p;
+
+import desmoj.core.simulator.*;
+import desmoj.core.dist.ContDist;
+import desmoj.core.statistic.Count;
+import desmoj.core.statistic.Tally;
+
+/**
+ * This class represents one station of the SelfServiceModel model, e.g. the sandwich bar.
+ * A station owns its customer queue, the queue of its idle servers, its service time
+ * distribution and its statistics. Customers and servers only talk to the station,
+ * so every station is handled the same way, no matter how many servers it has.
+ *
+ * Customers are served in one of two ways, see SelfServiceModel.isDirectDispatch():
+ *      idle queue      the customer activates an idle server (enter), the server serves and reactivates it
+ *      direct          the customer takes an idle server (seize) and holds for the service itself; at the end
+ *                      it hands the server straight to the next waiting customer (release), the servers never run
+ */
+public class Station {
+
+    private final StationConfig config;
+
+    // the index of this station, see the station indices of SelfServiceModel
+    private final int index;
+
+    // the model this station belongs to
+    private final SelfServiceModel model;
+
+    private final CustomerQueue<CustomerProcess> customerQueue;
+    private final ProcessQueue<ServerProcess> idleServerQueue;
+    private final ContDist serviceTime;
+
+    // statistics: served customers and service times
+    private final Count served;
+    private final Tally serviceTimes;
+
+    // percentiles of the waiting and service times
+    private final QueuePercentiles percentiles;
+
+    /**
+     * Constructor of the Station, creates the queues, the distribution and the statistics
+     * @param owner     the model this station belongs to
+     * @param config    the configuration of this station
+     * @param index     the index of this station, see the station indices of SelfServiceModel
+     */
+    public Station(Model owner, StationConfig config, int index) {
+        this.config = config;
+        this.index = index;
+        this.model = (SelfServiceModel) owner;
+
+        // Parameters:
+        // owner             = belongs to this model
+        // name              = derived from the station's name
+        // true              = show in report?
+        // owner.traceIsOn() = show in trace? only if the model is traced
+        customerQueue = new CustomerQueue<>(owner, config.getCustomerQueueName(), true, owner.traceIsOn());
+        idleServerQueue = new ProcessQueue<>(owner, config.getIdleServerQueueName(), true, owner.traceIsOn());
+        serviceTime = config.getServiceTime().create(owner, config.getServiceTimeStreamName(), true, owner.traceIsOn());
+
+        served = new Count(owner, config.getName() + "Served", true, false);
+        serviceTimes = new Tally(owner, config.getName() + "ServiceTime", true, false);
+        percentiles = new QueuePercentiles(owner, config.getCustomerQueueName(), true, false);
+    }
+
+    public String getName() {
+        return config.getName();
+    }
+
+    public StationConfig getConfig() {
+        return config;
+    }
+
+    public CustomerQueue<CustomerProcess> getCustomerQueue() {
+        return customerQueue;
+    }
+
+    public ProcessQueue<ServerProcess> getIdleServerQueue() {
+        return idleServerQueue;
+    }
+
+    public ContDist getServiceTimeDistribution() {
+        return serviceTime;
+    }
+
+    public QueuePercentiles getPercentiles() {
+        return percentiles;
+    }
+
+    /**
+     * resets the queues, counters and percentiles of this station, but not its service time distribution
+     */
+    void resetStatistics() {
+        customerQueue.reset();
+        idleServerQueue.reset();
+        served.reset();
+        serviceTimes.reset();
+        percentiles.reset();
+    }
+
+    /**
+     * A customer enters the queue of this station.
+     * If a server is idle, the server is activated after the customer.
+     * @param customer  the arriving customer
+     */
+    public void enter(CustomerProcess customer) {
+        customerQueue.insert(customer);
+        customer.enterQueue(customerQueue.presentTime().getTimeAsDouble());
+        if (customer.currentlySendTraceNotes()) {
+            // only build the note if it is written
+            customer.sendTraceNote(customerQueue.getName() + "Length: " + customerQueue.length());
+        }
+
+        if (!idleServerQueue.isEmpty()) {
+            ServerProcess server = idleServerQueue.first();
+            idleServerQueue.remove(server);
+
+            server.activateAfter(customer);
+            model.countEvent();
+        }
+    }
+
+    /**
+     * Direct dispatch: a customer enters the queue of this station and takes an idle server, if there is one.
+     * The customer is taken out of the queue again at once, so the queue statistics count a waiting time of 0.
+     * @param customer  the arriving customer
+     * @return the server that serves the customer now, or null if the customer has to wait in the queue
+     *         until another customer hands a server over with release()
+     */
+    public ServerProcess seize(CustomerProcess customer) {
+        customerQueue.insert(customer);
+        customer.enterQueue(customerQueue.presentTime().getTimeAsDouble());
+        if (customer.currentlySendTraceNotes()) {
+            customer.sendTraceNote(customerQueue.getName() + "Length: " + customerQueue.length());
+        }
+
+        if (idleServerQueue.isEmpty()) {
+            return null;
+        }
+        ServerProcess server = idleServerQueue.first();
+        idleServerQueue.remove(server);
+        nextCustomer();
+        return server;
+    }
+
+    /**
+     * Direct dispatch: a customer is done and gives its server back. The server goes straight to the
+     * next waiting customer, who is reactivated now, or into the idle queue if no customer is waiting.
+     * @param server    the server of the customer that is done
+     */
+    public void release(ServerProcess server) {
+        CustomerProcess next = nextCustomer();
+        if (next == null) {
+            idle(server);
+            return;
+        }
+        next.handOver(server);
+        next.activate();
+        model.countEvent();
+    }
+
+    /**
+     * removes the next customer from the queue
+     * @return the next customer or null, if no customer is waiting
+     */
+    public CustomerProcess nextCustomer() {
+        if (customerQueue.isEmpty()) {
+            return null;
+        }
+        CustomerProcess customer = customerQueue.first();
+        customerQueue.remove(customer);
+        customer.startService(customerQueue.presentTime().getTimeAsDouble());
+        percentiles.recordWait(customer.getWaitTime());
+        return customer;
+    }
+
+    /**
+     * inserts an idle server into the idle queue of this station
+     * @param server    the server that has nothing to do
+     */
+    public void idle(ServerProcess server) {
+        idleServerQueue.insert(server);
+    }
+
+    /**
+     * returns the time the service of a customer takes, drawn on its arrival, and updates the statistics
+     * @param customer  the customer being served
+     * @return the service time in seconds
+     */
+    public double serviceTime(CustomerProcess customer) {
+        double time = customer.getDemands().getServiceTime(index);
+        served.update();
+        serviceTimes.update(time);
+        percentiles.recordService(time);
+        return time;
+    }
+}
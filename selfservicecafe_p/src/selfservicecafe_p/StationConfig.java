@@ -0,0 +1,100 @@
+package selfservicecafe_p;
+
+/**
+ * This class describes one station of the cafeteria: its name, the number of servers
+ * and the distribution of its service time.
+ * The names of the station's queues and streams are derived from the station's name,
+ * e.g. "SandwichBarQueue", "idleSandwichBarEmployeesQueue" and "serviceTimeSandwichBarStream".
+ */
+public class StationConfig {
+
+    private final String name;
+
+    // number of employees or, for a self service station, of machines
+    private final int servers;
+
+    // true, if the station is served by machines instead of employees
+    private final boolean selfService;
+
+    private final DistributionSpec serviceTime;
+
+    /**
+     * Constructor of the StationConfig
+     * @param name          the station's name, e.g. "SandwichBar"
+     * @param servers       the number of servers
+     * @param selfService   true, if the station is served by machines instead of employees
+     * @param serviceTime   the distribution of the service time in seconds
+     */
+    public StationConfig(String name, int servers, boolean selfService, DistributionSpec serviceTime) {
+        if (servers < 0) {
+            throw new IllegalArgumentException("Error: station " + name + " cannot have " + servers + " servers.");
+        }
+        this.name = name;
+        this.servers = servers;
+        this.selfService = selfService;
+        this.serviceTime = serviceTime;
+    }
+
+    /**
+     * returns the stations of the cafeteria in the order of the station indices of SelfServiceModel
+     * @param employeesPerStation   the number of employees at each station with employees
+     * @param drinksMachines        the number of machines at the drinks bar
+     * @return the station configurations
+     */
+    public static StationConfig[] defaults(int employeesPerStation, int drinksMachines) {
+        return new StationConfig[] {
+                new StationConfig("SandwichBar", employeesPerStation, false, DistributionSpec.uniform(30.0, 90.0)),
+                new StationConfig("MenuBar", employeesPerStation, false, DistributionSpec.uniform(15.0, 75.0)),
+                new StationConfig("CheckOut", employeesPerStation, false, DistributionSpec.uniform(15.0, 35.0)),
+                new StationConfig("DessertBar", employeesPerStation, false, DistributionSpec.uniform(20.0, 40.0)),
+                new StationConfig("DessertCheckOut", employeesPerStation, false, DistributionSpec.uniform(15.0, 35.0)),
+                new StationConfig("DrinksBar", drinksMachines, true, DistributionSpec.uniform(15.0, 25.0))
+        };
+    }
+
+    /**
+     * returns a copy of this station with another number of servers
+     * @param servers   the number of servers
+     * @return the changed copy
+     */
+    public StationConfig withServers(int servers) {
+        return new StationConfig(name, servers, selfService, serviceTime);
+    }
+
+    /**
+     * returns a copy of this station with another service time distribution
+     * @param serviceTime   the distribution of the service time
+     * @return the changed copy
+     */
+    public StationConfig withServiceTime(DistributionSpec serviceTime) {
+        return new StationConfig(name, servers, selfService, serviceTime);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getServers() {
+        return servers;
+    }
+
+    public boolean isSelfService() {
+        return selfService;
+    }
+
+    public DistributionSpec getServiceTime() {
+        return serviceTime;
+    }
+
+    public String getCustomerQueueName() {
+        return name + "Queue";
+    }
+
+    public String getIdleServerQueueName() {
+        return selfService ? "idle" + name + "Queue" : "idle" + name + "EmployeesQueue";
+    }
+
+    public String getServiceTimeStreamName() {
+        return "serviceTime" + name + "Stream";
+    }
+}
@@ -0,0 +1,78 @@
+package selfservicecafe_p;
+
+/**
+ * Quantiles of the normal and of Student's t distribution, used for the confidence intervals
+ * of the output analysis. The project has no math library, so both are approximated:
+ * the normal quantile with Acklam's rational approximation (relative error below 1.2e-9),
+ * the t quantile with a Cornish-Fisher expansion around it (exact for 1 and 2 degrees of freedom).
+ */
+public final class StudentT {
+
+    private StudentT() {
+    }
+
+    /**
+     * returns the p-quantile of the standard normal distribution
+     * @param p     the probability, 0 < p < 1
+     * @return the quantile
+     */
+    public static double normalQuantile(double p) {
+        if (p <= 0.0 || p >= 1.0) {
+            throw new IllegalArgumentException("Error: probability " + p + " is not in (0, 1).");
+        }
+
+        final double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+                            1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        final double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+                            6.680131188771972e+01, -1.328068155288572e+01};
+        final double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+                            -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        final double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+                            3.754408661907416e+00};
+        final double pLow = 0.02425;
+
+        if (p < pLow) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        if (p > 1 - pLow) {
+            return -normalQuantile(1 - p);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+                / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+
+    /**
+     * returns the p-quantile of Student's t distribution
+     * @param p                 the probability, 0 < p < 1
+     * @param degreesOfFreedom  the degrees of freedom, at least 1
+     * @return the quantile
+     */
+    public static double quantile(double p, long degreesOfFreedom) {
+        if (degreesOfFreedom < 1) {
+            throw new IllegalArgumentException("Error: " + degreesOfFreedom + " degrees of freedom.");
+        }
+        if (degreesOfFreedom == 1) {
+            return Math.tan(Math.PI * (p - 0.5));
+        }
+        if (degreesOfFreedom == 2) {
+            return (2 * p - 1) / Math.sqrt(2 * p * (1 - p));
+        }
+
+        double z = normalQuantile(p);
+        double n = degreesOfFreedom;
+        double z3 = z * z * z;
+        double z5 = z3 * z * z;
+        double z7 = z5 * z * z;
+        double z9 = z7 * z * z;
+
+        return z
+                + (z3 + z) / (4 * n)
+                + (5 * z5 + 16 * z3 + 3 * z) / (96 * n * n)
+                + (3 * z7 + 19 * z5 + 17 * z3 - 15 * z) / (384 * n * n * n)
+                + (79 * z9 + 776 * z7 + 1482 * z5 - 1920 * z3 - 945 * z) / (92160 * n * n * n * n);
+    }
+}
@@ -0,0 +1,116 @@
+package selfservicecafe_p;
+
+/**
+ * This class collects independent observations of one key figure (e.g. the mean waiting time of
+ * one queue, observed once per replication) and reports their mean together with a confidence interval.
+ * Mean and variance are updated incrementally (Welford), so observations can be added one by one.
+ */
+public class SummaryStatistic {
+
+    // name of the key figure
+    private final String name;
+
+    private long observations;
+    private double mean;
+    private double sumOfSquares;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Constructor of the SummaryStatistic
+     * @param name  the name of the key figure
+     */
+    public SummaryStatistic(String name) {
+        this.name = name;
+    }
+
+    /**
+     * adds one observation
+     * @param value the observed value
+     */
+    public void update(double value) {
+        observations++;
+        double delta = value - mean;
+        mean += delta / observations;
+        sumOfSquares += delta * (value - mean);
+
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * adds all observations of another statistic (parallel merge, Chan et al.)
+     * @param other the statistic to merge into this one
+     */
+    public void merge(SummaryStatistic other) {
+        if (other.observations == 0) {
+            return;
+        }
+        long n = observations + other.observations;
+        double delta = other.mean - mean;
+        mean += delta * other.observations / n;
+        sumOfSquares += other.sumOfSquares + delta * delta * observations * other.observations / n;
+        observations = n;
+
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getObservations() {
+        return observations;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * @return the sample variance, or NaN if there are less than two observations
+     */
+    public double getVariance() {
+        return observations < 2 ? Double.NaN : sumOfSquares / (observations - 1);
+    }
+
+    public double getStdDev() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * returns the half-width of the two-sided confidence interval of the mean
+     * @param confidence    the confidence level, e.g. 0.95
+     * @return the half-width, or NaN if there are less than two observations
+     */
+    public double halfWidth(double confidence) {
+        if (observations < 2) {
+            return Double.NaN;
+        }
+        double t = StudentT.quantile(1.0 - (1.0 - confidence) / 2.0, observations - 1);
+        return t * getStdDev() / Math.sqrt(observations);
+    }
+
+    /**
+     * returns the half-width of the confidence interval relative to the mean
+     * @param confidence    the confidence level, e.g. 0.95
+     * @return the relative half-width
+     */
+    public double relativeHalfWidth(double confidence) {
+        return halfWidth(confidence) / Math.abs(mean);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-40s %12.3f +/- %10.3f  (n=%d)", name, mean, halfWidth(0.95), observations);
+    }
+}
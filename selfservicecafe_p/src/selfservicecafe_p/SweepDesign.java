@@ -0,0 +1,253 @@
+package selfservicecafe_p;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * This class describes the design of a parameter sweep: the factors (the staffing of a station,
+ * the employees of all stations or the seats of the dining hall), the levels of every factor and
+ * the design points, each one a level for every factor. The points are either the full grid of all
+ * combinations or a Latin hypercube sample, in which every level range of every factor is covered
+ * by the same number of points. The points only depend on the factors and the seed, so a sweep that
+ * is started again has the same points in the same order.
+ */
+public class SweepDesign {
+
+    /**
+     * One factor of the sweep and its levels.
+     */
+    public static class Factor {
+
+        // pseudo station index of the factor that sets all stations with employees
+        public static final int ALL_EMPLOYEES = -1;
+
+        // pseudo station index of the seats of the dining hall
+        public static final int SEATS = -2;
+
+        private final String name;
+        private final int stationIndex;
+        private final int[] levels;
+
+        /**
+         * Constructor of the Factor
+         * @param name          the factor's name, the key of the scenario file it sets
+         * @param stationIndex  the station, ALL_EMPLOYEES or SEATS
+         * @param levels        the levels, at least one
+         */
+        public Factor(String name, int stationIndex, int[] levels) {
+            if (levels.length == 0) {
+                throw new IllegalArgumentException("Error: factor " + name + " has no levels.");
+            }
+            this.name = name;
+            this.stationIndex = stationIndex;
+            this.levels = levels.clone();
+        }
+
+        /**
+         * parses the levels of a factor: a list like "1,2,4" or a range like "1..4"
+         * @param name          the factor's name
+         * @param stationIndex  the station, ALL_EMPLOYEES or SEATS
+         * @param levels        the levels
+         * @return the factor
+         */
+        public static Factor parse(String name, int stationIndex, String levels) {
+            String text = levels.trim();
+            int range = text.indexOf("..");
+            if (range >= 0) {
+                int from = Integer.parseInt(text.substring(0, range).trim());
+                int to = Integer.parseInt(text.substring(range + 2).trim());
+                if (to < from) {
+                    throw new IllegalArgumentException("Error: empty range " + text + " of factor " + name + ".");
+                }
+                int[] values = new int[to - from + 1];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = from + i;
+                }
+                return new Factor(name, stationIndex, values);
+            }
+            String[] parts = text.split(",");
+            int[] values = new int[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                values[i] = Integer.parseInt(parts[i].trim());
+            }
+            return new Factor(name, stationIndex, values);
+        }
+
+        /**
+         * parses the factor of a key of a sweep file: employeesPerStation, station.NAME.servers or diningHall.seats
+         * @param scenario  the base scenario, it resolves the station names
+         * @param key       the key
+         * @param levels    the levels
+         * @return the factor, null if the key is not a factor
+         */
+        public static Factor parseKey(Scenario scenario, String key, String levels) {
+            if (key.equals("employeesPerStation")) {
+                return parse(key, ALL_EMPLOYEES, levels);
+            }
+            if (key.equals("diningHall.seats")) {
+                return parse(key, SEATS, levels);
+            }
+            if (key.startsWith("station.") && key.endsWith(".servers")) {
+                String name = key.substring("station.".length(), key.length() - ".servers".length());
+                return parse(key, stationIndex(scenario, name), levels);
+            }
+            return null;
+        }
+
+        private static int stationIndex(Scenario scenario, String name) {
+            for (int i = 0; i < scenario.getStations().length; i++) {
+                if (scenario.getStation(i).getName().equals(name)) {
+                    return i;
+                }
+            }
+            throw new IllegalArgumentException("Error: station " + name + " does not exist.");
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getStationIndex() {
+            return stationIndex;
+        }
+
+        public int getLevelCount() {
+            return levels.length;
+        }
+
+        public int getLevel(int index) {
+            return levels[index];
+        }
+
+        /**
+         * returns a copy of a scenario with this factor set to a level
+         * @param scenario  the scenario
+         * @param level     the level
+         * @return the changed copy
+         */
+        public Scenario apply(Scenario scenario, int level) {
+            if (stationIndex == SEATS) {
+                return scenario.withDiningHallCapacity(level);
+            }
+            if (stationIndex == ALL_EMPLOYEES) {
+                Scenario changed = scenario;
+                for (int i = 0; i < scenario.getStations().length; i++) {
+                    if (!scenario.getStation(i).isSelfService()) {
+                        changed = changed.withStation(i, scenario.getStation(i).withServers(level));
+                    }
+                }
+                return changed;
+            }
+            return scenario.withStation(stationIndex, scenario.getStation(stationIndex).withServers(level));
+        }
+    }
+
+    private final List<Factor> factors;
+    private final List<int[]> points;
+
+    private SweepDesign(List<Factor> factors, List<int[]> points) {
+        this.factors = Collections.unmodifiableList(new ArrayList<>(factors));
+        this.points = points;
+    }
+
+    /**
+     * returns the full grid: every combination of the levels, the last factor changing fastest
+     * @param factors   the factors
+     * @return the design
+     */
+    public static SweepDesign grid(List<Factor> factors) {
+        List<int[]> points = new ArrayList<>();
+        int[] index = new int[factors.size()];
+        while (true) {
+            int[] point = new int[factors.size()];
+            for (int f = 0; f < point.length; f++) {
+                point[f] = factors.get(f).getLevel(index[f]);
+            }
+            points.add(point);
+
+            int f = factors.size() - 1;
+            while (f >= 0 && ++index[f] == factors.get(f).getLevelCount()) {
+                index[f] = 0;
+                f--;
+            }
+            if (f < 0) {
+                return new SweepDesign(factors, points);
+            }
+        }
+    }
+
+    /**
+     * returns a Latin hypercube sample: the levels of every factor are divided into as many equal
+     * ranges as there are points, and every range is used by exactly one point, in random order
+     * @param factors   the factors
+     * @param count     the number of points
+     * @param seed      the seed of the sample
+     * @return the design
+     */
+    public static SweepDesign latinHypercube(List<Factor> factors, int count, long seed) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Error: a Latin hypercube needs at least one point.");
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        int[][] levels = new int[count][factors.size()];
+        for (int f = 0; f < factors.size(); f++) {
+            Factor factor = factors.get(f);
+
+            // random permutation of the ranges (Fisher-Yates)
+            int[] ranges = new int[count];
+            for (int i = 0; i < count; i++) {
+                ranges[i] = i;
+            }
+            for (int i = count - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = ranges[i];
+                ranges[i] = ranges[j];
+                ranges[j] = swap;
+            }
+
+            // a random position in each range, mapped to the level it falls on
+            for (int i = 0; i < count; i++) {
+                double u = (ranges[i] + random.nextDouble()) / count;
+                int index = Math.min((int) (u * factor.getLevelCount()), factor.getLevelCount() - 1);
+                levels[i][f] = factor.getLevel(index);
+            }
+        }
+
+        List<int[]> points = new ArrayList<>(count);
+        Collections.addAll(points, levels);
+        return new SweepDesign(factors, points);
+    }
+
+    public List<Factor> getFactors() {
+        return factors;
+    }
+
+    public int getPointCount() {
+        return points.size();
+    }
+
+    /**
+     * @param point the index of the point
+     * @return the levels of the point, one per factor
+     */
+    public int[] getLevels(int point) {
+        return points.get(point).clone();
+    }
+
+    /**
+     * returns a copy of a scenario with all factors set to the levels of a point
+     * @param base  the scenario
+     * @param point the index of the point
+     * @return the changed copy, named after the point
+     */
+    public Scenario apply(Scenario base, int point) {
+        Scenario scenario = base.withName(base.getName() + "-" + point);
+        int[] levels = points.get(point);
+        for (int f = 0; f < factors.size(); f++) {
+            scenario = factors.get(f).apply(scenario, levels[f]);
+        }
+        return scenario;
+    }
+}
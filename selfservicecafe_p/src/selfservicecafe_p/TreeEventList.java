@@ -0,0 +1,53 @@
+package selfservicecafe_p;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * The pending event list DESMO-J uses by default (EventTreeList): a red-black tree of the event times,
+ * every time with the events due at it in insertion order. Inserting and removing take O(log n)
+ * for n different pending times.
+ *
+ * @param <E> the type of the events
+ */
+public class TreeEventList<E> implements PendingEventList<E> {
+
+    private final TreeMap<Double, ArrayDeque<E>> events = new TreeMap<>();
+
+    private int size;
+
+    @Override
+    public void insert(double time, E event) {
+        events.computeIfAbsent(time, t -> new ArrayDeque<>()).addLast(event);
+        size++;
+    }
+
+    @Override
+    public E removeFirst() {
+        Map.Entry<Double, ArrayDeque<E>> first = events.firstEntry();
+        if (first == null) {
+            throw new NoSuchElementException("Error: the event list is empty.");
+        }
+        E event = first.getValue().pollFirst();
+        if (first.getValue().isEmpty()) {
+            events.pollFirstEntry();
+        }
+        size--;
+        return event;
+    }
+
+    @Override
+    public double firstTime() {
+        if (size == 0) {
+            throw new NoSuchElementException("Error: the event list is empty.");
+        }
+        return events.firstKey();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,178 @@
+package selfservicecafe_p;
+
+import java.util.Arrays;
+
+/**
+ * This class detects the end of the warm-up of a run online with the MSER-5 rule.
+ * The cafeteria starts empty, so the first waiting times are too short. The waiting times of
+ * every station are collected in batches of 5 and after every batch the truncation point d
+ * that minimises the marginal standard error of the remaining batch means
+ *
+ *      MSER(d) = sum over i > d of (Y_i - mean of Y_d+1..Y_n)^2 / (n - d)^2
+ *
+ * is searched. The rule is trusted only if d lies in the first half of the series. The warm-up
+ * is over once every station with at least MIN_BATCHES batches has such a truncation point;
+ * stations visited by few customers (e.g. the dessert bar) do not delay the detection.
+ * The truncation point is the latest end time of the truncated batches of all these stations.
+ *
+ * The search takes O(n) for n batches, so a series is searched again only after another
+ * 1 / CHECK_SPACING of its batches and keeps its last result in between. A run whose warm-up is
+ * never detected then costs O(n) in all instead of O(n^2), and the detection comes at most
+ * 1 / CHECK_SPACING of the series late; the truncation point does not change.
+ */
+public class WarmupDetector {
+
+    // number of observations per batch
+    public static final int BATCH_SIZE = 5;
+
+    // number of batches a series needs before the rule is applied to it, on shorter series
+    // MSER-5 mistakes a slow rise of the waiting times for noise
+    public static final int MIN_BATCHES = 30;
+
+    // a series is searched again once its number of batches has grown by 1 / CHECK_SPACING
+    private static final int CHECK_SPACING = 16;
+
+    private final Series[] series;
+
+    private boolean detected;
+    private double truncationPoint = Double.NaN;
+    private double detectionTime = Double.NaN;
+
+    /**
+     * Constructor of the WarmupDetector
+     * @param seriesCount   the number of waiting time series, e.g. one per station
+     */
+    public WarmupDetector(int seriesCount) {
+        series = new Series[seriesCount];
+        for (int i = 0; i < seriesCount; i++) {
+            series[i] = new Series();
+        }
+    }
+
+    /**
+     * adds a waiting time to a series
+     * @param seriesIndex   the series, e.g. the station index
+     * @param time          the current simulation time in seconds
+     * @param waitTime      the waiting time in seconds
+     * @return true exactly once: when the warm-up is detected with this observation
+     */
+    public boolean observe(int seriesIndex, double time, double waitTime) {
+        if (detected) {
+            return false;
+        }
+        Series observed = series[seriesIndex];
+        if (!observed.add(time, waitTime) || observed.batches < observed.nextCheck) {
+            return false;
+        }
+        observed.check();
+
+        // the series was searched again: check all series that are long enough with their last results
+        double latest = Double.NEGATIVE_INFINITY;
+        for (Series s : series) {
+            if (s.checkedBatches == 0) {
+                continue;
+            }
+            if (2 * s.truncation >= s.checkedBatches) {
+                return false;
+            }
+            latest = Math.max(latest, s.truncation == 0 ? 0.0 : s.endTimes[s.truncation - 1]);
+        }
+        if (latest == Double.NEGATIVE_INFINITY) {
+            return false;
+        }
+
+        detected = true;
+        truncationPoint = latest;
+        detectionTime = time;
+        return true;
+    }
+
+    public boolean isDetected() {
+        return detected;
+    }
+
+    /**
+     * @return the end of the warm-up in seconds, NaN if it has not been detected
+     */
+    public double getTruncationPoint() {
+        return truncationPoint;
+    }
+
+    /**
+     * @return the time the warm-up was detected and the statistics were reset, NaN if not detected
+     */
+    public double getDetectionTime() {
+        return detectionTime;
+    }
+
+    /**
+     * The batch means of one waiting time series with the end time of every batch.
+     */
+    private static final class Series {
+
+        private double[] means = new double[64];
+        private double[] endTimes = new double[64];
+        private int batches;
+
+        private double batchSum;
+        private int batchCount;
+
+        // the result of the last search, the number of batches it covered (0: not searched yet)
+        // and the number of batches of the next search
+        private int truncation;
+        private int checkedBatches;
+        private int nextCheck = MIN_BATCHES;
+
+        // adds an observation, returns true if a batch was completed
+        private boolean add(double time, double value) {
+            batchSum += value;
+            batchCount++;
+            if (batchCount < BATCH_SIZE) {
+                return false;
+            }
+
+            if (batches == means.length) {
+                means = Arrays.copyOf(means, batches * 2);
+                endTimes = Arrays.copyOf(endTimes, batches * 2);
+            }
+            means[batches] = batchSum / BATCH_SIZE;
+            endTimes[batches] = time;
+            batches++;
+
+            batchSum = 0;
+            batchCount = 0;
+            return true;
+        }
+
+        // searches the truncation point of all batches so far and sets the time of the next search
+        private void check() {
+            truncation = truncation();
+            checkedBatches = batches;
+            nextCheck = batches + Math.max(1, batches / CHECK_SPACING);
+        }
+
+        // the number of batches d that minimises MSER(d), searched from the end with running sums
+        private int truncation() {
+            double sum = 0;
+            double sumOfSquares = 0;
+            double best = Double.POSITIVE_INFINITY;
+            int bestD = 0;
+            // d = n - 1 leaves one batch, its variance is 0, so start with two batches
+            for (int d = batches - 1; d >= 0; d--) {
+                sum += means[d];
+                sumOfSquares += means[d] * means[d];
+                int remaining = batches - d;
+                if (remaining < 2) {
+                    continue;
+                }
+                double squaredDeviations = sumOfSquares - sum * sum / remaining;
+                double mser = squaredDeviations / ((double) remaining * remaining);
+                if (mser <= best) {
+                    best = mser;
+                    bestD = d;
+                }
+            }
+            return bestD;
+        }
+    }
+}